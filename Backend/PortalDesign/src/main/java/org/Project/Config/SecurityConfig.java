@@ -1,24 +1,48 @@
 package org.Project.Config;
 
+import org.Project.ServiceImpl.SessionAuthenticator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 public class SecurityConfig {
 
+    @Value("${session.auth.header:X-Session-Token}")
+    String sessionTokenHeader;
+
+    // authorities are the role names of the presenting session
+    @Value("${session.auth.admin-role:ADMIN}")
+    String adminRole;
+
+    // the service principal that fronts logins and bulk validation for other backends
+    @Value("${session.auth.gateway-role:GATEWAY}")
+    String gatewayRole;
+
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, SessionAuthenticator sessionAuthenticator) throws Exception {
         http
+                // safe only because the session token is read from headers alone, never from a cookie the browser sends on its own
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/api/session/bulk-revoke-session").hasAuthority(adminRole)
+                        .requestMatchers("/api/session/create-sessions-batch").hasAnyAuthority(adminRole, gatewayRole)
+                        .requestMatchers("/api/session/archived-session-history").hasAnyAuthority(adminRole, gatewayRole)
+                        .requestMatchers("/api/session/validate-sessions-batch").hasAnyAuthority(adminRole, gatewayRole)
                         .anyRequest().permitAll()
                 )
+                // the token authenticates every request, nothing needs to be kept in an HttpSession
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .addFilterBefore(new SessionAuthenticationFilter(sessionAuthenticator, sessionTokenHeader),
+                        UsernamePasswordAuthenticationFilter.class)
                 .formLogin(AbstractHttpConfigurer::disable)
                 .httpBasic(AbstractHttpConfigurer::disable);
         return http.build();
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,62 @@
+package org.Project.Config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.Project.ServiceImpl.SessionAuthenticator;
+import org.Project.ServiceImpl.SessionCache;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authenticates a request from the session token in the {@code Authorization: Bearer} header or the configured token header.
+ * Tokens are deliberately not read from cookies: a browser attaches those to cross-site requests and the chain runs with CSRF
+ * protection off, so headers, which a foreign page cannot set, are the only source. The principal is the session's userName
+ * and the authorities are its role names. A missing or invalid token leaves the request anonymous; endpoints decide what that
+ * means. Built by {@link SecurityConfig} rather than registered as a bean so it only runs inside the security chain.
+ */
+public class SessionAuthenticationFilter extends OncePerRequestFilter {
+
+    private final SessionAuthenticator sessionAuthenticator;
+    private final String headerName;
+    private final SecurityContextHolderStrategy contextHolder = SecurityContextHolder.getContextHolderStrategy();
+
+    public SessionAuthenticationFilter(SessionAuthenticator sessionAuthenticator, String headerName) {
+        this.sessionAuthenticator = sessionAuthenticator;
+        this.headerName = headerName;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String sessionToken = sessionToken(request);
+        if (sessionToken != null) {
+            SessionCache.CachedSession session = sessionAuthenticator.resolve(sessionToken);
+            if (session != null && session.userName() != null) {
+                UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated(
+                        session.userName(), null, session.roles().stream().map(SimpleGrantedAuthority::new).toList());
+                authentication.setDetails(session);
+                SecurityContext context = contextHolder.createEmptyContext();
+                context.setAuthentication(authentication);
+                contextHolder.setContext(context);
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private String sessionToken(HttpServletRequest request) {
+        String authorization = request.getHeader("Authorization");
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            return authorization.substring(7);
+        }
+        String header = request.getHeader(headerName);
+        return header != null && !header.isBlank() ? header : null;
+    }
+}
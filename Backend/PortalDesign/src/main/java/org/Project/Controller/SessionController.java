@@ -8,6 +8,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -22,12 +23,39 @@ public class SessionController {
         return sessionService.createSession(sessionDto);
     }
 
+    @PostMapping("create-sessions-batch")
+    public ResponseEntity<?> createSessionsBatch(@RequestBody List<SessionDto> sessionDtos) {
+        return sessionService.createSessionsBatch(sessionDtos);
+    }
+
     @PostMapping("validate-session-token")
     public ResponseEntity<?> validateSessionByToken(@RequestBody Map<String, Object> requestData) {
         String sessionToken = (String) requestData.get("sessionToken");
         return sessionService.validateSessionByToken(sessionToken);
     }
 
+    @PostMapping("validate-sessions-batch")
+    @SuppressWarnings("unchecked")
+    public ResponseEntity<?> validateSessionsBatch(@RequestBody Map<String, Object> requestData) {
+        List<String> sessionTokens = (List<String>) requestData.get("sessionTokens");
+        return sessionService.validateSessionsBatch(sessionTokens);
+    }
+
+    @PostMapping("events-ticket")
+    public ResponseEntity<?> sessionEventsTicket(@RequestBody Map<String, Object> requestData) {
+        String sessionToken = (String) requestData.get("sessionToken");
+        return sessionService.issueSessionEventsTicket(sessionToken);
+    }
+
+    // GET because EventSource can neither POST nor set headers: browsers pass a one-time ticket from events-ticket, so the
+    // session token never lands in a URL or access log; other clients may send the token as a Bearer header
+    @GetMapping("events")
+    public ResponseEntity<?> sessionEvents(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                           @RequestParam(value = "ticket", required = false) String ticket) {
+        String sessionToken = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        return sessionService.subscribeSessionEvents(sessionToken, ticket);
+    }
+
     @PostMapping("validate-session-id")
     public ResponseEntity<?> validateSessionById(@RequestBody Map<String, Object> requestData) {
         Integer sessionId = (Integer) requestData.get("sessionId");
@@ -57,6 +85,23 @@ public class SessionController {
         return sessionService.revokeAllSession(userId,userName,revokedBy);
     }
 
+    @PostMapping("active-session-count")
+    public ResponseEntity<?> activeSessionCount(@RequestBody Map<String, Object> requestData) {
+        Integer userId = (Integer) requestData.get("userId");
+        return sessionService.activeSessionCount(userId);
+    }
+
+    @PostMapping("bulk-revoke-session")
+    @SuppressWarnings("unchecked")
+    public ResponseEntity<?> bulkRevokeSession(@RequestBody Map<String, Object> requestData) {
+        List<Integer> userIds = (List<Integer>) requestData.get("userIds");
+        List<String> sessionTokens = (List<String>) requestData.get("sessionTokens");
+        String roleName = (String) requestData.get("roleName");
+        String revokedBy = (String) requestData.get("revokedBy");
+        Integer batchSize = (Integer) requestData.get("batchSize");
+        return sessionService.bulkRevokeSession(userIds,sessionTokens,roleName,revokedBy,batchSize);
+    }
+
     @PostMapping("session-list")
     public ResponseEntity<?> sessionList(@RequestBody Map<String, Object> requestData) {
         Integer userId = (Integer) requestData.get("userId");
@@ -65,6 +110,11 @@ public class SessionController {
         Boolean activeFlag = (Boolean) requestData.get("activeFlag");
         Integer page = (Integer) requestData.get("page");
         Integer size = (Integer) requestData.get("size");
+        if (requestData.containsKey("cursor")) {
+            String cursor = (String) requestData.get("cursor");
+            Boolean includeTotal = (Boolean) requestData.get("includeTotal");
+            return sessionService.sessionListByCursor(userId,userName,status,activeFlag,cursor,size,includeTotal);
+        }
          return sessionService.sessionList(userId,userName,status,activeFlag,page,size);
     }
 
@@ -74,6 +124,14 @@ public class SessionController {
         return sessionService.cleanUpSession(olderThanDays);
     }
 
+    @PostMapping("archived-session-history")
+    public ResponseEntity<?> archivedSessionHistory(@RequestBody Map<String, Object> requestData) {
+        Integer userId = (Integer) requestData.get("userId");
+        String fromDate = (String) requestData.get("fromDate");
+        String toDate = (String) requestData.get("toDate");
+        return sessionService.archivedSessionHistory(userId,fromDate,toDate);
+    }
+
     @PostMapping("extend-session")
     public ResponseEntity<?> extendSession(@RequestBody Map<String, Object> requestData) {
         String sessionToken = (String) requestData.get("sessionToken");
@@ -0,0 +1,51 @@
+package org.Project.Entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "TBL_INVALIDATION_LOG", indexes = @Index(name = "IDX_INVALIDATION_LOG_CREATED_AT", columnList = "CREATED_AT"))
+public class InvalidationLog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "LOG_ID")
+    Long logId;
+
+    @Column(name = "KIND", length = 16, nullable = false)
+    String kind;
+
+    @Column(name = "EVENT", length = 16)
+    String event;
+
+    @Column(name = "SESSION_ID")
+    Integer sessionId;
+
+    @Column(name = "USER_ID")
+    Integer userId;
+
+    @Column(name = "TOKEN_HASH", columnDefinition = "BINARY(32)")
+    byte[] tokenHash;
+
+    @Column(name = "EXPIRES_AT")
+    LocalDateTime expiresAt;
+
+    @Column(name = "ROLE_SET_ID")
+    Integer roleSetId;
+
+    @Column(name = "ROLE_NAME")
+    String roleName;
+
+    @Column(name = "ORIGIN_NODE", length = 128, nullable = false)
+    String originNode;
+
+    @Column(name = "CREATED_AT", nullable = false)
+    LocalDateTime createdAt;
+
+    // EXTENDED only: the expiry of the signed tokens the extend superseded
+    @Column(name = "PREVIOUS_EXPIRES_AT")
+    LocalDateTime previousExpiresAt;
+}
@@ -0,0 +1,23 @@
+package org.Project.Entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "TBL_JOURNAL_MIRROR")
+public class JournalMirror {
+
+    @Id
+    @Column(name = "MIRROR_NAME", length = 64)
+    String mirrorName;
+
+    // journal position of the last record applied to the mirrored table, written in the same transaction as the record
+    @Column(name = "POSITION", nullable = false)
+    Long position;
+
+    @Column(name = "UPDATED_AT")
+    LocalDateTime updatedAt;
+}
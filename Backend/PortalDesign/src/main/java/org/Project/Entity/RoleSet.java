@@ -0,0 +1,21 @@
+package org.Project.Entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+@Data
+@Entity
+@Table(name = "TBL_ROLE_SET")
+public class RoleSet {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "ROLE_SET_ID")
+    Integer roleSetId;
+
+    @Column(name = "ROLE_DIGEST", nullable = false, unique = true)
+    Long roleDigest;
+
+    @Column(name = "ROLE_NAMES", length = 2000, nullable = false)
+    String roleNames;
+}
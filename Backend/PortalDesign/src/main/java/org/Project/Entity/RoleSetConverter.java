@@ -0,0 +1,29 @@
+package org.Project.Entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.Project.ServiceImpl.RoleSetRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+/**
+ * Stores a session's role names as the id of their interned set in TBL_ROLE_SET. Instances are created through Spring, so the
+ * registry is injected.
+ */
+@Converter
+public class RoleSetConverter implements AttributeConverter<List<String>, Integer> {
+
+    @Autowired
+    RoleSetRegistry roleSetRegistry;
+
+    @Override
+    public Integer convertToDatabaseColumn(List<String> roleNames) {
+        return roleSetRegistry.intern(roleNames);
+    }
+
+    @Override
+    public List<String> convertToEntityAttribute(Integer roleSetId) {
+        return roleSetId == null ? List.of() : roleSetRegistry.resolve(roleSetId);
+    }
+}
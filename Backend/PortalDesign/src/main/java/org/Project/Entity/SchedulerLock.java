@@ -0,0 +1,25 @@
+package org.Project.Entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "TBL_SCHEDULER_LOCK")
+public class SchedulerLock {
+
+    @Id
+    @Column(name = "LOCK_NAME", length = 64)
+    String lockName;
+
+    @Column(name = "LOCKED_BY")
+    String lockedBy;
+
+    @Column(name = "LOCKED_AT")
+    LocalDateTime lockedAt;
+
+    @Column(name = "LOCKED_UNTIL", nullable = false)
+    LocalDateTime lockedUntil;
+}
@@ -9,7 +9,8 @@ import java.util.List;
 
 @Data
 @Entity
-@Table(name = "TBL_SESSION")
+// keyset pages of session-list seek on (CREATED_DATE, SESSION_ID) instead of sorting the matching rows
+@Table(name = "TBL_SESSION", indexes = @Index(name = "IDX_SESSION_CREATED_ID", columnList = "CREATED_DATE, SESSION_ID"))
 public class Sessions {
 
     @Id
@@ -17,7 +18,15 @@ public class Sessions {
     @Column (name ="SESSION_ID")
     Integer sessionId;
 
-    @Column(name="SESSION_TOKEN",columnDefinition = "CHAR(64)",nullable = false,unique = true)
+    @Column(name = "SESSION_TOKEN_HASH", columnDefinition = "BINARY(32)", unique = true)
+    byte[] sessionTokenHash;
+
+    // plaintext column from before tokens were hashed, only written and read while session.token.storage=dual
+    @Column(name="SESSION_TOKEN",columnDefinition = "CHAR(64)",unique = true)
+    String legacySessionToken;
+
+    // raw token, only known on the request that issued or presented it
+    @Transient
     String sessionToken;
 
     @Column(name = "USER_ID")
@@ -26,9 +35,8 @@ public class Sessions {
     @Column(name = "USER_NAME")
     String userName;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "SESSION_ROLES", joinColumns = @JoinColumn(name = "SESSION_ID"))
-    @Column(name = "ROLE_NAME")
+    @Convert(converter = RoleSetConverter.class)
+    @Column(name = "ROLE_SET_ID")
     List<String> roleName = new ArrayList<>();
 
 
@@ -54,6 +62,10 @@ public class Sessions {
     @Column(name = "EXPIRES_AT")
     LocalDateTime expiresAt;
 
+    // latest expiry of a signed token superseded by extend or refresh; only the token carrying EXPIRES_AT is honoured until then
+    @Column(name = "SUPERSEDED_UNTIL")
+    LocalDateTime supersededUntil;
+
     @Column(name = "REVOKED_AT")
     LocalDateTime revokedAt;
 
@@ -63,9 +75,18 @@ public class Sessions {
     @Column(name = "META_DATA",columnDefinition = "JSON")
     String metaData;
 
+    // compact binary form of the metadata, written instead of META_DATA when session.metadata.encoding=compact
+    @Column(name = "META_DATA_BIN", columnDefinition = "VARBINARY(4096)")
+    byte[] metaDataBin;
+
     @Column(name = "ACTIVE_FLAG")
     Boolean activeFlag;
 
+    // bumped by every state change, the bulk UPDATEs included, so saving a stale copy fails instead of undoing a newer write
+    @Version
+    @Column(name = "VERSION", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    Long version;
+
     public enum SessionStatus {
         PENDING, ACTIVE, EXPIRED, REVOKED, LOGGED_OUT
     }
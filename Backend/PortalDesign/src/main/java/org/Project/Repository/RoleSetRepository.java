@@ -0,0 +1,11 @@
+package org.Project.Repository;
+
+import org.Project.Entity.RoleSet;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface RoleSetRepository extends JpaRepository<RoleSet, Integer> {
+
+    Optional<RoleSet> findByRoleDigest(Long roleDigest);
+}
@@ -0,0 +1,23 @@
+package org.Project.Repository;
+
+import org.Project.Entity.SchedulerLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+
+    @Modifying
+    @Transactional
+    @Query("update SchedulerLock l set l.lockedBy = :lockedBy, l.lockedAt = :now, l.lockedUntil = :lockedUntil where l.lockName = :lockName and (l.lockedUntil < :now or l.lockedBy = :lockedBy)")
+    Integer tryAcquire(@Param("lockName") String lockName, @Param("lockedBy") String lockedBy, @Param("now") LocalDateTime now, @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    @Modifying
+    @Transactional
+    @Query("update SchedulerLock l set l.lockedUntil = :now where l.lockName = :lockName and l.lockedBy = :lockedBy")
+    Integer release(@Param("lockName") String lockName, @Param("lockedBy") String lockedBy, @Param("now") LocalDateTime now);
+}
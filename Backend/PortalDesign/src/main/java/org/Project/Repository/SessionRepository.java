@@ -1,48 +1,166 @@
 package org.Project.Repository;
 
+import jakarta.persistence.QueryHint;
 import org.Project.Entity.Sessions;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface SessionRepository extends JpaRepository<Sessions, Integer> {
 
+    /**
+     * Rows the purge deletes. {@code CREATED_DATE <= EXPIRES_AT}, so the CREATED_DATE bound drops no rows but lets MySQL prune
+     * to the months being purged. SessionPartitionManager keeps a partition while any row is not known to match, NULLs included.
+     */
+    String PURGEABLE = "(CREATED_DATE < :before OR CREATED_DATE IS NULL) AND EXPIRES_AT < :before AND (ACTIVE_FLAG = 0 OR STATUS = 'EXPIRED')";
+
     Optional<Sessions> findByUserNameAndActiveFlag(String userName, Boolean activeFlag);
 
     List<Sessions> findAllByUserNameAndActiveFlag(String userName, Boolean activeFlag);
 
-    Optional<Sessions> findBySessionTokenAndActiveFlag(String sessionToken, Boolean activeFlag);
+    Optional<Sessions> findBySessionTokenHashAndActiveFlag(byte[] sessionTokenHash, Boolean activeFlag);
+
+    Optional<Sessions> findByLegacySessionTokenAndActiveFlag(String legacySessionToken, Boolean activeFlag);
+
+    Optional<Sessions> findBySessionTokenHash(byte[] sessionTokenHash);
+
+    Optional<Sessions> findByLegacySessionToken(String legacySessionToken);
 
     Optional<Sessions> findBySessionIdAndActiveFlag(Integer sessionId, Boolean activeFlag);
 
     List<Sessions> findByUserIdAndActiveFlagTrue(Integer userId);
 
+    @Query("select s from Sessions s where s.sessionTokenHash in :sessionTokenHashes and s.activeFlag = true")
+    List<Sessions> findActiveByTokenHashes(@Param("sessionTokenHashes") Collection<byte[]> sessionTokenHashes);
+
+    @Query("select s from Sessions s where s.legacySessionToken in :sessionTokens and s.activeFlag = true")
+    List<Sessions> findActiveByLegacyTokens(@Param("sessionTokens") Collection<String> sessionTokens);
+
+    @Query("select s from Sessions s where s.sessionId in :sessionIds and s.activeFlag = true")
+    List<Sessions> findActiveByIds(@Param("sessionIds") Collection<Integer> sessionIds);
+
     @Modifying
     @Transactional
-    @Query("update Sessions s set s.activeFlag = false, s.revokedAt = :revokedAt, s.revokedBy = :revokedBy, s.status = :status where s.sessionId = :sessionId")
+    @Query("update Sessions s set s.activeFlag = false, s.revokedAt = :revokedAt, s.revokedBy = :revokedBy, s.status = :status, s.version = s.version + 1 where s.sessionId = :sessionId")
     Integer revokeById(@Param("sessionId") Integer sessionId, @Param("revokedAt") LocalDateTime revokedAt, @Param("revokedBy") String revokedBy, @Param("status") Sessions.SessionStatus status);
 
 
     @Modifying
     @Transactional
-    @Query("update Sessions s set s.activeFlag = false, s.revokedAt = :revokedAt, s.revokedBy = :revokedBy, s.status = :status where s.userId = :userId and s.activeFlag = true")
+    @Query("update Sessions s set s.activeFlag = false, s.revokedAt = :revokedAt, s.revokedBy = :revokedBy, s.status = :status, s.version = s.version + 1 where s.sessionTokenHash = :sessionTokenHash and s.activeFlag = true")
+    Integer revokeByTokenHash(@Param("sessionTokenHash") byte[] sessionTokenHash, @Param("revokedAt") LocalDateTime revokedAt, @Param("revokedBy") String revokedBy, @Param("status") Sessions.SessionStatus status);
+
+    @Modifying
+    @Transactional
+    @Query("update Sessions s set s.activeFlag = false, s.revokedAt = :revokedAt, s.revokedBy = :revokedBy, s.status = :status, s.version = s.version + 1 where s.legacySessionToken = :sessionToken and s.sessionTokenHash is null and s.activeFlag = true")
+    Integer revokeByLegacyToken(@Param("sessionToken") String sessionToken, @Param("revokedAt") LocalDateTime revokedAt, @Param("revokedBy") String revokedBy, @Param("status") Sessions.SessionStatus status);
+
+    @Modifying
+    @Transactional
+    @Query("update Sessions s set s.activeFlag = false, s.revokedAt = :revokedAt, s.revokedBy = :revokedBy, s.status = :status, s.version = s.version + 1 where s.userId = :userId and s.activeFlag = true")
     Integer revokeAllByUserId(@Param("userId") Integer userId, @Param("revokedAt") LocalDateTime revokedAt, @Param("revokedBy") String revokedBy, @Param("status") Sessions.SessionStatus status);
 
     @Modifying
     @Transactional
-    @Query("delete from Sessions s where s.expiresAt < :before and (s.activeFlag = false or s.status = 'EXPIRED')")
-    Integer deleteExpired(@Param("before") LocalDateTime before);
+    @Query("update Sessions s set s.activeFlag = false, s.revokedAt = :revokedAt, s.revokedBy = :revokedBy, s.status = :status, s.version = s.version + 1 where s.sessionId in :sessionIds and s.activeFlag = true")
+    Integer revokeAllByIds(@Param("sessionIds") Collection<Integer> sessionIds, @Param("revokedAt") LocalDateTime revokedAt, @Param("revokedBy") String revokedBy, @Param("status") Sessions.SessionStatus status);
+
+    @Modifying
+    @Transactional
+    @Query("update Sessions s set s.activeFlag = false, s.revokedAt = :revokedAt, s.revokedBy = :revokedBy, s.status = :status, s.version = s.version + 1 where s.userName in :userNames and s.activeFlag = true")
+    Integer revokeAllByUserNames(@Param("userNames") Collection<String> userNames, @Param("revokedAt") LocalDateTime revokedAt, @Param("revokedBy") String revokedBy, @Param("status") Sessions.SessionStatus status);
+
+    @Query(value = "SELECT SESSION_ID FROM TBL_SESSION WHERE SESSION_ID IN (:sessionIds) AND ACTIVE_FLAG = 1 FOR UPDATE", nativeQuery = true)
+    List<Integer> lockActiveIds(@Param("sessionIds") Collection<Integer> sessionIds);
+
+    // MySQL has no UPDATE ... RETURNING; locking the qualifying rows first lets the caller's UPDATE change exactly these
+    @Query(value = "SELECT SESSION_ID FROM TBL_SESSION WHERE SESSION_ID IN (:sessionIds) AND ACTIVE_FLAG = 1 AND EXPIRES_AT <= :now FOR UPDATE", nativeQuery = true)
+    List<Integer> lockExpirableIds(@Param("sessionIds") Collection<Integer> sessionIds, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("update Sessions s set s.status = :status, s.activeFlag = false, s.version = s.version + 1 where s.sessionId in :sessionIds and s.activeFlag = true and s.expiresAt <= :now")
+    Integer expireByIds(@Param("sessionIds") List<Integer> sessionIds, @Param("now") LocalDateTime now, @Param("status") Sessions.SessionStatus status);
+
+    @Modifying
+    @Transactional
+    // SUPERSEDED_UNTIL is assigned first, so it still sees the expiry being replaced
+    @Query("update Sessions s set s.supersededUntil = case when s.supersededUntil is null or s.supersededUntil < s.expiresAt then s.expiresAt else s.supersededUntil end, "
+            + "s.expiresAt = :expiresAt, s.lastSeenAt = :seenAt, s.version = s.version + 1 where s.sessionId = :sessionId and s.activeFlag = true and s.expiresAt > :now")
+    Integer extendActive(@Param("sessionId") Integer sessionId, @Param("expiresAt") LocalDateTime expiresAt, @Param("seenAt") LocalDateTime seenAt, @Param("now") LocalDateTime now);
+
+    @Query(value = "SELECT MIN(SESSION_ID), MAX(SESSION_ID) FROM TBL_SESSION WHERE " + PURGEABLE, nativeQuery = true)
+    List<Object[]> findPurgeableIdRange(@Param("before") LocalDateTime before);
+
+    @Modifying
+    @Query(value = "DELETE FROM TBL_SESSION WHERE SESSION_ID BETWEEN :fromId AND :toId AND " + PURGEABLE, nativeQuery = true)
+    Integer deleteExpiredInRange(@Param("fromId") Integer fromId, @Param("toId") Integer toId, @Param("before") LocalDateTime before);
+
+    // MySQL Connector/J only streams rows instead of buffering the whole result when the fetch size is Integer.MIN_VALUE
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("select s from Sessions s where s.activeFlag = false and s.status in :statuses and s.createdDate < :before order by s.createdDate, s.sessionId")
+    Stream<Sessions> streamClosedBefore(@Param("statuses") Collection<Sessions.SessionStatus> statuses, @Param("before") LocalDateTime before);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM TBL_SESSION WHERE SESSION_ID IN (:sessionIds) AND ACTIVE_FLAG = 0", nativeQuery = true)
+    Integer deleteArchived(@Param("sessionIds") Collection<Integer> sessionIds);
 
     @Query("select s from Sessions s where (:userId is null or s.userId = :userId) and (:userName is null or s.userName = :userName) and (:status is null or s.status = :status) and (:activeFlag is null or s.activeFlag = :activeFlag)")
     Page<Sessions> findByFilters(@Param("userId") Integer userId, @Param("userName") String userName, @Param("status") Sessions.SessionStatus status, @Param("activeFlag") Boolean activeFlag, Pageable pageable);
 
+    @Query("select s from Sessions s where (:userId is null or s.userId = :userId) and (:userName is null or s.userName = :userName) and (:status is null or s.status = :status) and (:activeFlag is null or s.activeFlag = :activeFlag) order by s.createdDate desc, s.sessionId desc")
+    Slice<Sessions> findSliceByFilters(@Param("userId") Integer userId, @Param("userName") String userName, @Param("status") Sessions.SessionStatus status, @Param("activeFlag") Boolean activeFlag, Pageable pageable);
+
+    @Query("select s from Sessions s where (:userId is null or s.userId = :userId) and (:userName is null or s.userName = :userName) and (:status is null or s.status = :status) and (:activeFlag is null or s.activeFlag = :activeFlag) and (s.createdDate < :createdDate or (s.createdDate = :createdDate and s.sessionId < :sessionId)) order by s.createdDate desc, s.sessionId desc")
+    Slice<Sessions> findSliceByFiltersAfter(@Param("userId") Integer userId, @Param("userName") String userName, @Param("status") Sessions.SessionStatus status, @Param("activeFlag") Boolean activeFlag, @Param("createdDate") LocalDateTime createdDate, @Param("sessionId") Integer sessionId, Pageable pageable);
+
+    @Query("select count(s) from Sessions s where (:userId is null or s.userId = :userId) and (:userName is null or s.userName = :userName) and (:status is null or s.status = :status) and (:activeFlag is null or s.activeFlag = :activeFlag)")
+    Long countByFilters(@Param("userId") Integer userId, @Param("userName") String userName, @Param("status") Sessions.SessionStatus status, @Param("activeFlag") Boolean activeFlag);
+
+    @Query("select s.sessionId, s.sessionTokenHash, s.legacySessionToken, s.userId, s.expiresAt, s.roleName, s.userName from Sessions s where s.activeFlag = true and s.sessionId > :afterId order by s.sessionId")
+    List<Object[]> findActiveIndexPage(@Param("afterId") Integer afterId, Pageable pageable);
+
+    @Query("select s.sessionId, s.expiresAt from Sessions s where s.activeFlag = false and s.expiresAt > :now")
+    List<Object[]> findRevokedUnexpired(@Param("now") LocalDateTime now);
+
+    @Query("select s.sessionId, s.expiresAt, s.supersededUntil, s.activeFlag from Sessions s where s.supersededUntil > :now")
+    List<Object[]> findSupersededUnexpired(@Param("now") LocalDateTime now);
+
+    @Query("select s.sessionId, s.expiresAt from Sessions s where s.userId = :userId and s.activeFlag = true")
+    List<Object[]> findActiveExpiryByUserId(@Param("userId") Integer userId);
+
+    @Query("select s.sessionId, s.sessionTokenHash, s.legacySessionToken, s.expiresAt from Sessions s where s.userName in :userNames and s.activeFlag = true")
+    List<Object[]> findActiveTokensByUserNames(@Param("userNames") Collection<String> userNames);
+
+    @Query("select s.sessionId, s.expiresAt from Sessions s where s.userId in :userIds and s.activeFlag = true")
+    List<Object[]> findActiveExpiryByUserIds(@Param("userIds") Collection<Integer> userIds);
+
+    @Query("select s.sessionId, s.expiresAt from Sessions s where s.sessionTokenHash in :sessionTokenHashes and s.activeFlag = true")
+    List<Object[]> findActiveExpiryByTokenHashes(@Param("sessionTokenHashes") Collection<byte[]> sessionTokenHashes);
+
+    @Query("select s.sessionId, s.expiresAt from Sessions s where s.legacySessionToken in :sessionTokens and s.sessionTokenHash is null and s.activeFlag = true")
+    List<Object[]> findActiveExpiryByLegacyTokens(@Param("sessionTokens") Collection<String> sessionTokens);
+
+    @Query("select s.sessionId, s.expiresAt from Sessions s where s.sessionId in :sessionIds and s.activeFlag = true")
+    List<Object[]> findActiveExpiryByIds(@Param("sessionIds") Collection<Integer> sessionIds);
+
+    @Query(value = "SELECT SESSION_ID, EXPIRES_AT FROM TBL_SESSION WHERE ACTIVE_FLAG = 1 AND ROLE_SET_ID IN (:roleSetIds) AND SESSION_ID > :afterId ORDER BY SESSION_ID LIMIT :limit", nativeQuery = true)
+    List<Object[]> findActiveExpiryByRoleSetIds(@Param("roleSetIds") Collection<Integer> roleSetIds, @Param("afterId") Integer afterId, @Param("limit") Integer limit);
+
     Page<Sessions> findByUserIdAndUserNameAndStatusAndActiveFlag(Integer userId, String userName, Sessions.SessionStatus status, Boolean activeFlag, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+package org.Project.Repository;
+
+import org.Project.Entity.Sessions;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Where sessions are kept. {@code session.store.type=jpa} (the default) is TBL_SESSION through {@link SessionRepository};
+ * {@code memory} keeps them in process only, for edge nodes and test rigs. Extends, revokes and expiries are single conditional
+ * writes on the session still being active, bump its version and return how many sessions they changed, so concurrent callers
+ * never overwrite each other. Projections are the same Object[] rows SessionRepository returns so callers do not care which
+ * store is behind them.
+ */
+public interface SessionStore {
+
+    /**
+     * Inserts a new session or writes back one read from this store; the returned instance carries the id. Writing back a copy
+     * whose version is no longer current fails with an OptimisticLockingFailureException.
+     */
+    Sessions save(Sessions session);
+
+    /** Inserts new sessions in one go, assigning their ids. */
+    void insertAll(List<Sessions> sessions);
+
+    Optional<Sessions> findById(Integer sessionId);
+
+    Optional<Sessions> findActiveById(Integer sessionId);
+
+    Optional<Sessions> findActiveByTokenHash(byte[] sessionTokenHash);
+
+    Optional<Sessions> findActiveByLegacyToken(String legacySessionToken);
+
+    /** Active or not, e.g. to read back a session just revoked by its token. */
+    Optional<Sessions> findByTokenHash(byte[] sessionTokenHash);
+
+    /** Active or not, e.g. to read back a session just revoked by its token. */
+    Optional<Sessions> findByLegacyToken(String legacySessionToken);
+
+    List<Sessions> findActiveByIds(Collection<Integer> sessionIds);
+
+    List<Sessions> findActiveByTokenHashes(Collection<byte[]> sessionTokenHashes);
+
+    List<Sessions> findActiveByLegacyTokens(Collection<String> legacySessionTokens);
+
+    /** Rows are [sessionId, expiresAt]. */
+    List<Object[]> findActiveExpiryByUserId(Integer userId);
+
+    /** Rows are [sessionId, sessionTokenHash, legacySessionToken, expiresAt]. */
+    List<Object[]> findActiveTokensByUserNames(Collection<String> userNames);
+
+    /** Rows are [sessionId, expiresAt]. */
+    List<Object[]> findActiveExpiryByUserIds(Collection<Integer> userIds);
+
+    /** Rows are [sessionId, expiresAt]. */
+    List<Object[]> findActiveExpiryByTokenHashes(Collection<byte[]> sessionTokenHashes);
+
+    /** Rows are [sessionId, expiresAt]; only sessions that have no token digest yet. */
+    List<Object[]> findActiveExpiryByLegacyTokens(Collection<String> legacySessionTokens);
+
+    /** Rows are [sessionId, expiresAt]. */
+    List<Object[]> findActiveExpiryByIds(Collection<Integer> sessionIds);
+
+    /** Rows are [sessionId, expiresAt] of active sessions holding the role, ordered by sessionId and starting after afterId. */
+    List<Object[]> findActiveExpiryByRole(String roleName, Integer afterId, int limit);
+
+    /**
+     * Rows are [sessionId, sessionTokenHash, legacySessionToken, userId, expiresAt, roleName, userName] of active sessions, ordered by
+     * sessionId and starting after afterId; what the in-memory views rebuild from.
+     */
+    List<Object[]> findActivePage(Integer afterId, int limit);
+
+    /** Rows are [sessionId, expiresAt] of sessions no longer active whose expiry is still ahead. */
+    List<Object[]> findRevokedUnexpired(LocalDateTime now);
+
+    /** Rows are [sessionId, expiresAt, supersededUntil, activeFlag] of sessions with a superseded token still unexpired. */
+    List<Object[]> findSupersededUnexpired(LocalDateTime now);
+
+    /** Moves lastSeenAt forward, never back, for each session id; returns how many sessions it moved. */
+    int touch(Map<Integer, LocalDateTime> lastSeen);
+
+    /**
+     * Sets a new expiry on a session that is active and not yet past its expiry, as one conditional write; returns 1 if it did.
+     * The replaced expiry is folded into supersededUntil.
+     */
+    int extendActive(Integer sessionId, LocalDateTime expiresAt, LocalDateTime seenAt, LocalDateTime now);
+
+    int revokeByIds(Collection<Integer> sessionIds, LocalDateTime revokedAt, String revokedBy);
+
+    /** Revokes those of the sessions that are still active; returns the ids it actually changed. */
+    List<Integer> revokeActiveByIds(Collection<Integer> sessionIds, LocalDateTime revokedAt, String revokedBy);
+
+    /** Revokes the active session with this token digest as one conditional write; returns 1 if it did. */
+    int revokeByTokenHash(byte[] sessionTokenHash, LocalDateTime revokedAt, String revokedBy);
+
+    /** Revokes the active session with this plaintext token that has no digest yet, as one conditional write; returns 1 if it did. */
+    int revokeByLegacyToken(String legacySessionToken, LocalDateTime revokedAt, String revokedBy);
+
+    int revokeByUserId(Integer userId, LocalDateTime revokedAt, String revokedBy);
+
+    int revokeByUserNames(Collection<String> userNames, LocalDateTime revokedAt, String revokedBy);
+
+    /** Expires those of the sessions that are still active and past their expiry; returns the ids it actually changed. */
+    List<Integer> expireByIds(List<Integer> sessionIds, LocalDateTime now);
+
+    /** Filters are ignored when null; ordered by createdDate descending. */
+    Page<Sessions> list(Integer userId, String userName, Sessions.SessionStatus status, Boolean activeFlag, Pageable pageable);
+
+    /** Keyset page ordered by createdDate, sessionId descending, starting after the given position when it is not null. */
+    Slice<Sessions> listAfter(Integer userId, String userName, Sessions.SessionStatus status, Boolean activeFlag,
+                              LocalDateTime createdDate, Integer sessionId, Pageable pageable);
+
+    /** Filters are ignored when null. */
+    long count(Integer userId, String userName, Sessions.SessionStatus status, Boolean activeFlag);
+
+    /** Deletes sessions closed and expired before the cutoff; ran=false when another node is already purging. */
+    PurgeResult purge(LocalDateTime before);
+
+    /**
+     * Whether sessions also reach the database. When false the node runs no session SQL at all: leases, role-set ids and
+     * invalidations stay local to the process.
+     */
+    boolean usesDatabase();
+
+    record PurgeResult(boolean ran, int sessionsDeleted, int chunks, int partitionsDropped) {
+    }
+}
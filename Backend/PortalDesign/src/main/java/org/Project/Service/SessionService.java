@@ -4,24 +4,42 @@ import org.Project.dto.SessionDto;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 
+import java.util.List;
+
 public interface SessionService {
     ResponseEntity<?> createSession(SessionDto sessionDto);
 
+    ResponseEntity<?> createSessionsBatch(List<SessionDto> sessionDtos);
+
     ResponseEntity<?> validateSessionByToken(String sessionToken);
 
+    ResponseEntity<?> validateSessionsBatch(List<String> sessionTokens);
+
     ResponseEntity<?> refreshSession(String sessionToken, Integer ttlMinutes);
 
     ResponseEntity<?> revokeSession(String sessionToken, Integer sessionId, String revokedBy);
 
     ResponseEntity<?> revokeAllSession(Integer userId, String userName, String revokedBy);
 
+    ResponseEntity<?> activeSessionCount(Integer userId);
+
+    ResponseEntity<?> bulkRevokeSession(List<Integer> userIds, List<String> sessionTokens, String roleName, String revokedBy, Integer batchSize);
+
     ResponseEntity<?> sessionList(Integer userId, String userName, String status, Boolean activeFlag, Integer page, Integer size);
 
+    ResponseEntity<?> sessionListByCursor(Integer userId, String userName, String status, Boolean activeFlag, String cursor, Integer size, Boolean includeTotal);
+
     ResponseEntity<?> cleanUpSession(Integer olderThanDays);
 
+    ResponseEntity<?> archivedSessionHistory(Integer userId, String fromDate, String toDate);
+
     ResponseEntity<?> extendSession(String sessionToken, Integer additionalMinutes);
 
     ResponseEntity<?> getSessionById(Integer sessionId, Authentication authentication);
 
     ResponseEntity<?> validateSessionById(Integer sessionId);
+
+    ResponseEntity<?> issueSessionEventsTicket(String sessionToken);
+
+    ResponseEntity<?> subscribeSessionEvents(String sessionToken, String ticket);
 }
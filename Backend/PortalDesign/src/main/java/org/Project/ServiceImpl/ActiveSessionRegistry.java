@@ -0,0 +1,308 @@
+package org.Project.ServiceImpl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.Project.Repository.SessionStore;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory view of which sessions each user has active, so a session count or the max-concurrent-sessions check is an O(1)
+ * lookup instead of loading entities. Two primitive open-addressing maps: userId to an int[] of session ids (slot 0 holds the
+ * count) and sessionId to userId, so expiry and bulk revocation can untrack by id alone. Sessions without a userId are not
+ * tracked. The view is per node and rebuilt from the session store at startup; callers that act on a user at the limit resync
+ * that user from the store first.
+ */
+@Component
+public class ActiveSessionRegistry {
+
+    private static final Logger logger = LogManager.getLogger(ActiveSessionRegistry.class);
+    private final String className = "ActiveSessionRegistry";
+
+    private static final int NO_USER = Integer.MIN_VALUE;
+
+    @Autowired
+    SessionStore sessionStore;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${session.active-registry.initial-capacity:4096}")
+    int initialCapacity;
+
+    @Value("${session.active-registry.rebuild-page-size:5000}")
+    int rebuildPageSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private IntObjectHashMap<int[]> sessionsByUser;
+    private IntIntHashMap userBySession;
+    // sessions untracked while the rebuild runs, so a page read before the revoke cannot bring them back
+    private IntIntHashMap removedDuringRebuild;
+    private volatile boolean ready;
+
+    @PostConstruct
+    void init() {
+        sessionsByUser = new IntObjectHashMap<>(initialCapacity);
+        userBySession = new IntIntHashMap(initialCapacity);
+        Gauge.builder("session.active-registry.sessions", this, ActiveSessionRegistry::size)
+                .description("Active sessions tracked per user in memory").register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int count(int userId) {
+        lock.readLock().lock();
+        try {
+            int[] ids = sessionsByUser.get(userId);
+            return ids == null ? 0 : ids[0];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** The user's tracked session ids, oldest (lowest id) first. */
+    public int[] sessionIds(int userId) {
+        lock.readLock().lock();
+        try {
+            int[] ids = sessionsByUser.get(userId);
+            if (ids == null) {
+                return new int[0];
+            }
+            int[] copy = Arrays.copyOfRange(ids, 1, ids[0] + 1);
+            Arrays.sort(copy);
+            return copy;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(Integer userId, Integer sessionId) {
+        if (userId == null || sessionId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            track(userId, sessionId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Integer sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            untrack(sessionId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeAll(Collection<Integer> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            sessionIds.forEach(this::untrack);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeUser(Integer userId) {
+        if (userId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int[] ids = sessionsByUser.get(userId);
+            while (ids != null && ids[0] > 0) {
+                untrack(ids[ids[0]]);
+                ids = sessionsByUser.get(userId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Replaces what is tracked for the user with the session ids the store reports as active. */
+    public void resync(int userId, Collection<Integer> activeSessionIds) {
+        lock.writeLock().lock();
+        try {
+            int[] ids = sessionsByUser.get(userId);
+            while (ids != null && ids[0] > 0) {
+                untrack(ids[ids[0]]);
+                ids = sessionsByUser.get(userId);
+            }
+            activeSessionIds.forEach(sessionId -> track(userId, sessionId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // a rolled back create or revoke must not change the counts
+    public void addAfterCommit(Integer userId, Integer sessionId) {
+        afterCommit(() -> add(userId, sessionId));
+    }
+
+    public void removeAfterCommit(Collection<Integer> sessionIds) {
+        afterCommit(() -> removeAll(sessionIds));
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private void track(int userId, int sessionId) {
+        int owner = userBySession.get(sessionId, NO_USER);
+        if (owner == userId) {
+            return;
+        }
+        if (owner != NO_USER) {
+            untrack(sessionId);
+        }
+        int[] ids = sessionsByUser.get(userId);
+        if (ids == null) {
+            ids = new int[4];
+            sessionsByUser.put(userId, ids);
+        } else if (ids[0] + 1 == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+            sessionsByUser.put(userId, ids);
+        }
+        ids[++ids[0]] = sessionId;
+        userBySession.put(sessionId, userId);
+    }
+
+    private void untrack(int sessionId) {
+        if (removedDuringRebuild != null) {
+            removedDuringRebuild.put(sessionId, 1);
+        }
+        int userId = userBySession.remove(sessionId, NO_USER);
+        if (userId == NO_USER) {
+            return;
+        }
+        int[] ids = sessionsByUser.get(userId);
+        if (ids == null) {
+            return;
+        }
+        for (int i = 1; i <= ids[0]; i++) {
+            if (ids[i] == sessionId) {
+                ids[i] = ids[ids[0]];
+                ids[0]--;
+                break;
+            }
+        }
+        if (ids[0] == 0) {
+            sessionsByUser.remove(userId);
+        }
+    }
+
+    /** Forgets everything tracked and rebuilds from the session store. */
+    public void reset() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            sessionsByUser.clear();
+            userBySession.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        rebuildOnStartup();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        Thread.ofVirtual().name("active-session-registry-rebuild").start(this::rebuild);
+    }
+
+    void rebuild() {
+        String methodName = "rebuild";
+        long started = System.currentTimeMillis();
+        int loaded = 0;
+        lock.writeLock().lock();
+        try {
+            removedDuringRebuild = new IntIntHashMap(64);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            int afterId = 0;
+            while (true) {
+                List<Object[]> page = sessionStore.findActivePage(afterId, rebuildPageSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                lock.writeLock().lock();
+                try {
+                    for (Object[] row : page) {
+                        Integer sessionId = (Integer) row[0];
+                        Integer userId = (Integer) row[3];
+                        if (userId != null && removedDuringRebuild.get(sessionId, 0) == 0) {
+                            track(userId, sessionId);
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                loaded += page.size();
+                afterId = (Integer) page.get(page.size() - 1)[0];
+            }
+            ready = true;
+            logger.info("{} {} loaded : {} users : {} in {} ms", className, methodName, loaded, users(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                removedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return userBySession.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int users() {
+        lock.readLock().lock();
+        try {
+            return sessionsByUser.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
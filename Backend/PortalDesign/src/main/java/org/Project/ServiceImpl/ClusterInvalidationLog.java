@@ -0,0 +1,383 @@
+package org.Project.ServiceImpl;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.Project.Entity.Sessions;
+import org.Project.Repository.SessionStore;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the per-node session structures (cache, index, revocation filter, expiry wheel, per-user registry, SSE streams)
+ * coherent across instances with the database as the only shared service. Writers append rows to TBL_INVALIDATION_LOG in
+ * the same transaction as the change they describe; every node tails the table by LOG_ID every
+ * {@code session.invalidation.poll-ms} and applies rows written by other nodes (its own were applied locally already).
+ * <p>
+ * Auto-increment ids become visible out of order when transactions commit out of order, and a rolled back append leaves a
+ * hole. A skipped id is therefore remembered and re-queried until it shows up or {@code session.invalidation.gap-timeout-ms}
+ * passes; an id that never appears, or a jump too wide to track, may hide a missed invalidation, so the node flushes and
+ * rebuilds its local structures from the database.
+ */
+@Component
+public class ClusterInvalidationLog {
+
+    private static final Logger logger = LogManager.getLogger(ClusterInvalidationLog.class);
+    private final String className = "ClusterInvalidationLog";
+
+    public static final String SESSION = "SESSION";
+    public static final String ROLE = "ROLE";
+    public static final String CREATED = "created";
+
+    private static final String LOCK_NAME = "invalidation-log-prune";
+    private static final String INSERT = "INSERT INTO TBL_INVALIDATION_LOG (KIND, EVENT, SESSION_ID, USER_ID, TOKEN_HASH, EXPIRES_AT, "
+            + "ROLE_SET_ID, ROLE_NAME, ORIGIN_NODE, CREATED_AT, PREVIOUS_EXPIRES_AT) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT = "SELECT LOG_ID, KIND, EVENT, SESSION_ID, USER_ID, TOKEN_HASH, EXPIRES_AT, ROLE_SET_ID, "
+            + "ROLE_NAME, ORIGIN_NODE, PREVIOUS_EXPIRES_AT FROM TBL_INVALIDATION_LOG";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ClusterLock clusterLock;
+
+    @Autowired
+    RoleSetRegistry roleSetRegistry;
+
+    @Autowired
+    SessionCache sessionCache;
+
+    @Autowired
+    SessionIndex sessionIndex;
+
+    @Autowired
+    SessionRevocationFilter revocationFilter;
+
+    @Autowired
+    SessionExpiryScheduler expiryScheduler;
+
+    @Autowired
+    ActiveSessionRegistry activeSessions;
+
+    @Autowired
+    SessionEventHub eventHub;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    SessionStore sessionStore;
+
+    @Value("${session.invalidation.enabled:true}")
+    boolean enabled;
+
+    @Value("${session.invalidation.batch-size:500}")
+    int batchSize;
+
+    @Value("${session.invalidation.gap-timeout-ms:5000}")
+    long gapTimeoutMs;
+
+    @Value("${session.invalidation.max-gap-ids:10000}")
+    int maxGapIds;
+
+    @Value("${session.invalidation.retention-minutes:30}")
+    int retentionMinutes;
+
+    private volatile boolean started;
+    private long cursor;
+    // ids skipped over by the cursor, with when they were first missed
+    private final TreeMap<Long, Long> missing = new TreeMap<>();
+    private final AtomicInteger missingCount = new AtomicInteger();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+
+    /** previousExpiresAt is only set on EXTENDED, the expiry of the tokens the extend superseded. */
+    public record Entry(String kind, String event, Integer sessionId, Integer userId, byte[] tokenHash, LocalDateTime expiresAt,
+                        Integer roleSetId, String roleName, LocalDateTime previousExpiresAt) {
+    }
+
+    private record Row(long logId, Entry entry, String originNode) {
+    }
+
+    private static final RowMapper<Row> ROW_MAPPER = (rs, rowNum) -> {
+        Timestamp expiresAt = rs.getTimestamp(7);
+        Timestamp previousExpiresAt = rs.getTimestamp(11);
+        return new Row(rs.getLong(1), new Entry(rs.getString(2), rs.getString(3), (Integer) rs.getObject(4, Integer.class),
+                (Integer) rs.getObject(5, Integer.class), rs.getBytes(6), expiresAt == null ? null : expiresAt.toLocalDateTime(),
+                (Integer) rs.getObject(8, Integer.class), rs.getString(9),
+                previousExpiresAt == null ? null : previousExpiresAt.toLocalDateTime()), rs.getString(10));
+    };
+
+    @PostConstruct
+    void registerMetrics() {
+        FunctionCounter.builder("session.invalidation.applied", applied, LongAdder::sum)
+                .description("Invalidation log entries from other nodes applied locally").register(meterRegistry);
+        FunctionCounter.builder("session.invalidation.flushes", flushes, LongAdder::sum)
+                .description("Full local flushes after an unresolved gap in the invalidation log").register(meterRegistry);
+        Gauge.builder("session.invalidation.missing", missingCount, AtomicInteger::get)
+                .description("Invalidation log ids skipped and still awaited").register(meterRegistry);
+    }
+
+    // a store that keeps nothing in the database is local to this node, there is nobody to tell
+    private boolean active() {
+        return enabled && sessionStore.usesDatabase();
+    }
+
+    public static Entry session(String event, Integer sessionId, Integer userId, byte[] tokenHash, LocalDateTime expiresAt) {
+        return new Entry(SESSION, event, sessionId, userId, tokenHash, expiresAt, null, null, null);
+    }
+
+    public static Entry extended(Integer sessionId, Integer userId, byte[] tokenHash, LocalDateTime expiresAt, LocalDateTime previousExpiresAt) {
+        return new Entry(SESSION, SessionEventHub.EXTENDED, sessionId, userId, tokenHash, expiresAt, null, null, previousExpiresAt);
+    }
+
+    public static Entry role(String roleName) {
+        return new Entry(ROLE, null, null, null, null, null, null, roleName, null);
+    }
+
+    public void sessionsCreated(Collection<Sessions> sessions) {
+        List<Entry> entries = new ArrayList<>(sessions.size());
+        for (Sessions session : sessions) {
+            entries.add(new Entry(SESSION, CREATED, session.getSessionId(), session.getUserId(), SessionTokenStorage.hashOf(session),
+                    session.getExpiresAt(), roleSetRegistry.intern(session.getRoleName()), null, null));
+        }
+        append(entries);
+    }
+
+    /** Appends in the caller's transaction, so other nodes only ever see changes that committed. */
+    public void append(List<Entry> entries) {
+        if (!active() || entries.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Entry entry = entries.get(i);
+                ps.setString(1, entry.kind());
+                ps.setString(2, entry.event());
+                ps.setObject(3, entry.sessionId(), Types.INTEGER);
+                ps.setObject(4, entry.userId(), Types.INTEGER);
+                ps.setBytes(5, entry.tokenHash());
+                ps.setTimestamp(6, entry.expiresAt() == null ? null : Timestamp.valueOf(entry.expiresAt()));
+                ps.setObject(7, entry.roleSetId(), Types.INTEGER);
+                ps.setString(8, entry.roleName());
+                ps.setString(9, clusterLock.nodeId());
+                ps.setTimestamp(10, now);
+                ps.setTimestamp(11, entry.previousExpiresAt() == null ? null : Timestamp.valueOf(entry.previousExpiresAt()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+    }
+
+    // nothing before startup matters: every local structure is built from the database after this point
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        String methodName = "start";
+        if (!active()) {
+            return;
+        }
+        try {
+            Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(LOG_ID), 0) FROM TBL_INVALIDATION_LOG", Long.class);
+            synchronized (this) {
+                cursor = max == null ? 0 : max;
+            }
+            started = true;
+            logger.info("{} {} node : {} cursor : {}", className, methodName, clusterLock.nodeId(), cursor);
+        } catch (Exception e) {
+            logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${session.invalidation.poll-ms:200}")
+    public synchronized void poll() {
+        String methodName = "poll";
+        if (!enabled || !started) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            boolean overflow = false;
+            List<Row> rows;
+            do {
+                rows = jdbcTemplate.query(SELECT + " WHERE LOG_ID > ? ORDER BY LOG_ID LIMIT ?", ROW_MAPPER, cursor, batchSize);
+                for (Row row : rows) {
+                    long skipped = row.logId() - cursor - 1;
+                    if (skipped > maxGapIds - missing.size()) {
+                        overflow = true;
+                    } else {
+                        for (long id = cursor + 1; id < row.logId(); id++) {
+                            missing.put(id, now);
+                        }
+                    }
+                    cursor = row.logId();
+                }
+                apply(rows);
+            } while (rows.size() == batchSize);
+            if (overflow) {
+                missing.clear();
+                flush("gap wider than " + maxGapIds + " ids");
+                return;
+            }
+            resolveMissing(now);
+        } catch (Exception e) {
+            logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+        } finally {
+            missingCount.set(missing.size());
+        }
+    }
+
+    private void resolveMissing(long now) {
+        if (missing.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(missing.keySet());
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + batchSize));
+            String placeholders = chunk.stream().map(id -> "?").collect(Collectors.joining(", "));
+            List<Row> late = jdbcTemplate.query(SELECT + " WHERE LOG_ID IN (" + placeholders + ")", ROW_MAPPER, chunk.toArray());
+            late.forEach(row -> missing.remove(row.logId()));
+            apply(late);
+        }
+        boolean expired = false;
+        for (Iterator<Long> firstSeen = missing.values().iterator(); firstSeen.hasNext(); ) {
+            if (now - firstSeen.next() >= gapTimeoutMs) {
+                firstSeen.remove();
+                expired = true;
+            }
+        }
+        if (expired) {
+            // most likely a rolled back append, but a transaction slower than the timeout would look the same
+            flush("log id missing for " + gapTimeoutMs + " ms");
+        }
+    }
+
+    private void apply(List<Row> rows) {
+        Set<Integer> revokedWithoutHash = new HashSet<>();
+        for (Row row : rows) {
+            if (clusterLock.nodeId().equals(row.originNode())) {
+                continue;
+            }
+            Entry entry = row.entry();
+            if (ROLE.equals(entry.kind())) {
+                sessionCache.invalidateRoleName(entry.roleName());
+                revocationFilter.rolesChanged(List.of(entry.roleName()));
+            } else if (SESSION.equals(entry.kind()) && entry.sessionId() != null) {
+                applySession(entry, revokedWithoutHash);
+            }
+            applied.increment();
+        }
+        // one scan of the index for every revoked session that came without a token digest
+        sessionIndex.revokeSessionIds(revokedWithoutHash);
+    }
+
+    private void applySession(Entry entry, Set<Integer> revokedWithoutHash) {
+        Integer sessionId = entry.sessionId();
+        switch (entry.event()) {
+            case CREATED -> {
+                sessionIndex.putActive(entry.tokenHash(), sessionId, entry.userId(), entry.expiresAt(),
+                        entry.roleSetId() == null ? RoleSetRegistry.EMPTY_ROLE_SET : entry.roleSetId());
+                activeSessions.add(entry.userId(), sessionId);
+                expiryScheduler.schedule(sessionId, entry.expiresAt());
+            }
+            case SessionEventHub.REVOKED -> {
+                sessionCache.invalidateSessionId(sessionId);
+                if (entry.tokenHash() != null) {
+                    sessionIndex.markStatus(entry.tokenHash(), SessionIndex.REVOKED);
+                } else {
+                    revokedWithoutHash.add(sessionId);
+                }
+                revocationFilter.revoke(sessionId, entry.expiresAt());
+                expiryScheduler.cancel(sessionId);
+                activeSessions.remove(sessionId);
+                eventHub.publish(SessionEventHub.REVOKED, sessionId, entry.expiresAt());
+            }
+            case SessionEventHub.EXPIRED -> {
+                sessionCache.invalidateSessionId(sessionId);
+                if (entry.tokenHash() != null) {
+                    sessionIndex.markStatus(entry.tokenHash(), SessionIndex.EXPIRED);
+                }
+                expiryScheduler.cancel(sessionId);
+                activeSessions.remove(sessionId);
+                eventHub.publish(SessionEventHub.EXPIRED, sessionId, entry.expiresAt());
+            }
+            case SessionEventHub.EXTENDED -> {
+                sessionCache.invalidateSessionId(sessionId);
+                if (entry.tokenHash() != null) {
+                    sessionIndex.updateExpiry(entry.tokenHash(), entry.expiresAt());
+                }
+                revocationFilter.supersede(sessionId, entry.expiresAt(), entry.previousExpiresAt());
+                expiryScheduler.schedule(sessionId, entry.expiresAt());
+                eventHub.publish(SessionEventHub.EXTENDED, sessionId, entry.expiresAt());
+            }
+            default -> logger.warn("{} applySession unknown event : {}", className, entry.event());
+        }
+    }
+
+    private void flush(String reason) {
+        logger.warn("{} flush {}, rebuilding local session state", className, reason);
+        flushes.increment();
+        sessionCache.clear();
+        sessionIndex.reset();
+        activeSessions.reset();
+        Thread.ofVirtual().name("invalidation-flush").start(() -> {
+            revocationFilter.rebuild();
+            expiryScheduler.loadActiveSessions();
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${session.invalidation.prune-interval-ms:60000}")
+    public void prune() {
+        String methodName = "prune";
+        if (!active() || !clusterLock.tryLock(LOCK_NAME, Duration.ofMinutes(5))) {
+            return;
+        }
+        try {
+            Timestamp before = Timestamp.valueOf(LocalDateTime.now().minusMinutes(retentionMinutes));
+            int deleted;
+            int total = 0;
+            do {
+                deleted = jdbcTemplate.update("DELETE FROM TBL_INVALIDATION_LOG WHERE CREATED_AT < ? LIMIT 5000", before);
+                total += deleted;
+            } while (deleted == 5000);
+            if (total > 0) {
+                logger.info("{} {} deleted : {}", className, methodName, total);
+            }
+        } catch (Exception e) {
+            logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+        } finally {
+            clusterLock.unlock(LOCK_NAME);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.Project.ServiceImpl;
+
+import org.Project.Entity.SchedulerLock;
+import org.Project.Repository.SchedulerLockRepository;
+import org.Project.Repository.SessionStore;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Lease-based leader lock on a TBL_SCHEDULER_LOCK row, so a job runs on one node at a time with the DB as the only shared service.
+ * A lease is taken with a conditional UPDATE that only succeeds once the previous holder's lease ran out; renewing is the same
+ * call by the holder. A node that dies simply stops renewing. With a store that keeps no sessions in the database the node is
+ * on its own, so every lease is granted without touching the table. The store is injected lazily because the JPA store's
+ * purger holds this lock.
+ */
+@Component
+public class ClusterLock {
+
+    private static final Logger logger = LogManager.getLogger(ClusterLock.class);
+    private final String className = "ClusterLock";
+
+    @Autowired
+    SchedulerLockRepository schedulerLockRepository;
+
+    @Lazy
+    @Autowired
+    SessionStore sessionStore;
+
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /** Takes or renews the named lease; returns false while another node holds it. */
+    public boolean tryLock(String lockName, Duration lease) {
+        if (!sessionStore.usesDatabase()) {
+            return true;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (!schedulerLockRepository.existsById(lockName)) {
+            SchedulerLock lock = new SchedulerLock();
+            lock.setLockName(lockName);
+            lock.setLockedUntil(now.minusSeconds(1));
+            try {
+                schedulerLockRepository.saveAndFlush(lock);
+            } catch (DataIntegrityViolationException e) {
+                logger.debug("{} tryLock {} row created concurrently", className, lockName);
+            }
+        }
+        return schedulerLockRepository.tryAcquire(lockName, nodeId, now, now.plus(lease)) > 0;
+    }
+
+    public void unlock(String lockName) {
+        if (!sessionStore.usesDatabase()) {
+            return;
+        }
+        schedulerLockRepository.release(lockName, nodeId, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,149 @@
+package org.Project.ServiceImpl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel of int keys (Varghese and Lauck). Four levels of 64 slots each cover 64^4 ticks; deadlines further out are
+ * parked in the last level and re-placed when they come round. Schedule, reschedule and cancel are O(1); {@link #advance} costs
+ * O(1) per elapsed tick plus the entries it fires or cascades. Not thread-safe, callers serialise access.
+ */
+public class HierarchicalTimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private static final class Node {
+        final int key;
+        long deadlineTick;
+        Node prev;
+        Node next;
+
+        Node(int key) {
+            this.key = key;
+        }
+    }
+
+    private final Node[][] wheels = new Node[LEVELS][SLOTS];
+    private final Map<Integer, Node> nodes = new HashMap<>();
+    private long currentTick;
+
+    public HierarchicalTimingWheel(long startTick) {
+        this.currentTick = startTick;
+        for (Node[] level : wheels) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                Node head = new Node(-1);
+                head.prev = head;
+                head.next = head;
+                level[slot] = head;
+            }
+        }
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public long currentTick() {
+        return currentTick;
+    }
+
+    /** Schedules the key for the given tick, replacing any earlier deadline. */
+    public void schedule(int key, long deadlineTick) {
+        Node node = nodes.get(key);
+        if (node == null) {
+            node = new Node(key);
+            nodes.put(key, node);
+        } else {
+            unlink(node);
+        }
+        node.deadlineTick = deadlineTick;
+        place(node);
+    }
+
+    /** Schedules the key for the given tick unless it is already scheduled; returns false if it was. */
+    public boolean scheduleIfAbsent(int key, long deadlineTick) {
+        if (nodes.containsKey(key)) {
+            return false;
+        }
+        schedule(key, deadlineTick);
+        return true;
+    }
+
+    public boolean cancel(int key) {
+        Node node = nodes.remove(key);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    /** Moves the wheel up to and including {@code nowTick} and returns every key whose deadline has been reached. */
+    public List<Integer> advance(long nowTick) {
+        List<Integer> due = new ArrayList<>();
+        while (currentTick < nowTick) {
+            currentTick++;
+            // cascade from the top so entries re-placed by a higher level can fall through the lower ones in the same tick
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level, (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK));
+                }
+            }
+            Node head = wheels[0][(int) (currentTick & SLOT_MASK)];
+            Node node = head.next;
+            while (node != head) {
+                Node next = node.next;
+                unlink(node);
+                if (node.deadlineTick <= currentTick) {
+                    nodes.remove(node.key);
+                    due.add(node.key);
+                } else {
+                    place(node);
+                }
+                node = next;
+            }
+        }
+        return due;
+    }
+
+    private void cascade(int level, int slot) {
+        Node head = wheels[level][slot];
+        Node node = head.next;
+        while (node != head) {
+            Node next = node.next;
+            unlink(node);
+            place(node);
+            node = next;
+        }
+    }
+
+    private void place(Node node) {
+        long ticks = node.deadlineTick - currentTick;
+        long target = ticks <= 0 ? currentTick + 1 : Math.min(node.deadlineTick, currentTick + MAX_SPAN - 1);
+        long span = target - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && span >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        Node head = wheels[level][(int) ((target >>> (SLOT_BITS * level)) & SLOT_MASK)];
+        node.prev = head.prev;
+        node.next = head;
+        head.prev.next = node;
+        head.prev = node;
+    }
+
+    private static void unlink(Node node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+        }
+    }
+}
@@ -0,0 +1,459 @@
+package org.Project.ServiceImpl;
+
+import org.Project.Entity.Sessions;
+import org.Project.Repository.SessionStore;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Process-local store for edge nodes and test rigs, selected with {@code session.store.type=memory}; nothing survives a
+ * restart. Sessions live in a ConcurrentHashMap by id with secondary maps from token digest, legacy token, userId and userName
+ * to ids. Stored sessions are never handed out: reads return copies and every change swaps in a new copy with an atomic
+ * per-key compute, so readers never lock and a revoke or expiry only applies if the session is still active at that moment.
+ */
+@Component
+@ConditionalOnProperty(name = "session.store.type", havingValue = "memory")
+public class InMemorySessionStore implements SessionStore {
+
+    private static final Logger logger = LogManager.getLogger(InMemorySessionStore.class);
+    private final String className = "InMemorySessionStore";
+
+    private static final Comparator<Sessions> NEWEST_FIRST = Comparator
+            .comparing(Sessions::getCreatedDate, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Sessions::getSessionId, Comparator.reverseOrder());
+
+    @Value("${session.purge.retention-days:30}")
+    int retentionDays;
+
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final ConcurrentHashMap<Integer, Sessions> byId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<ByteBuffer, Integer> idByTokenHash = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> idByLegacyToken = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Set<Integer>> idsByUserId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<Integer>> idsByUserName = new ConcurrentHashMap<>();
+
+    @Override
+    public Sessions save(Sessions session) {
+        if (session.getSessionId() == null) {
+            session.setSessionId(nextId.incrementAndGet());
+        } else {
+            nextId.accumulateAndGet(session.getSessionId(), Math::max);
+        }
+        Sessions stored = copy(session);
+        byId.compute(stored.getSessionId(), (id, current) -> {
+            if (current != null && !Objects.equals(current.getVersion(), session.getVersion())) {
+                throw new OptimisticLockingFailureException("Session " + id + " was changed since it was read");
+            }
+            stored.setVersion(current == null ? Objects.requireNonNullElse(session.getVersion(), 0L) : current.getVersion() + 1);
+            return stored;
+        });
+        session.setVersion(stored.getVersion());
+        index(stored);
+        return session;
+    }
+
+    @Override
+    public void insertAll(List<Sessions> sessions) {
+        sessions.forEach(this::save);
+    }
+
+    @Override
+    public Optional<Sessions> findById(Integer sessionId) {
+        return Optional.ofNullable(sessionId == null ? null : byId.get(sessionId)).map(InMemorySessionStore::copy);
+    }
+
+    @Override
+    public Optional<Sessions> findActiveById(Integer sessionId) {
+        return findById(sessionId).filter(InMemorySessionStore::isActive);
+    }
+
+    @Override
+    public Optional<Sessions> findActiveByTokenHash(byte[] sessionTokenHash) {
+        return sessionTokenHash == null ? Optional.empty() : findActiveById(idByTokenHash.get(ByteBuffer.wrap(sessionTokenHash)));
+    }
+
+    @Override
+    public Optional<Sessions> findActiveByLegacyToken(String legacySessionToken) {
+        return legacySessionToken == null ? Optional.empty() : findActiveById(idByLegacyToken.get(legacySessionToken));
+    }
+
+    @Override
+    public Optional<Sessions> findByTokenHash(byte[] sessionTokenHash) {
+        return sessionTokenHash == null ? Optional.empty() : findById(idByTokenHash.get(ByteBuffer.wrap(sessionTokenHash)));
+    }
+
+    @Override
+    public Optional<Sessions> findByLegacyToken(String legacySessionToken) {
+        return legacySessionToken == null ? Optional.empty() : findById(idByLegacyToken.get(legacySessionToken));
+    }
+
+    @Override
+    public List<Sessions> findActiveByIds(Collection<Integer> sessionIds) {
+        return activeCopies(sessionIds.stream());
+    }
+
+    @Override
+    public List<Sessions> findActiveByTokenHashes(Collection<byte[]> sessionTokenHashes) {
+        return activeCopies(sessionTokenHashes.stream().map(hash -> idByTokenHash.get(ByteBuffer.wrap(hash))));
+    }
+
+    @Override
+    public List<Sessions> findActiveByLegacyTokens(Collection<String> legacySessionTokens) {
+        return activeCopies(legacySessionTokens.stream().map(idByLegacyToken::get));
+    }
+
+    @Override
+    public List<Object[]> findActiveExpiryByUserId(Integer userId) {
+        return activeOf(userId == null ? null : idsByUserId.get(userId)).map(s -> new Object[]{s.getSessionId(), s.getExpiresAt()}).toList();
+    }
+
+    @Override
+    public List<Object[]> findActiveTokensByUserNames(Collection<String> userNames) {
+        return userNames.stream().filter(Objects::nonNull).flatMap(userName -> activeOf(idsByUserName.get(userName)))
+                .map(s -> new Object[]{s.getSessionId(), s.getSessionTokenHash(), s.getLegacySessionToken(), s.getExpiresAt()}).toList();
+    }
+
+    @Override
+    public List<Object[]> findActiveExpiryByUserIds(Collection<Integer> userIds) {
+        return userIds.stream().filter(Objects::nonNull).distinct().flatMap(userId -> activeOf(idsByUserId.get(userId)))
+                .map(InMemorySessionStore::expiryRow).toList();
+    }
+
+    @Override
+    public List<Object[]> findSupersededUnexpired(LocalDateTime now) {
+        return byId.values().stream().filter(s -> s.getSupersededUntil() != null && s.getSupersededUntil().isAfter(now))
+                .map(s -> new Object[]{s.getSessionId(), s.getExpiresAt(), s.getSupersededUntil(), isActive(s)}).toList();
+    }
+
+    @Override
+    public List<Object[]> findActiveExpiryByTokenHashes(Collection<byte[]> sessionTokenHashes) {
+        return findActiveByTokenHashes(sessionTokenHashes).stream().map(InMemorySessionStore::expiryRow).toList();
+    }
+
+    @Override
+    public List<Object[]> findActiveExpiryByLegacyTokens(Collection<String> legacySessionTokens) {
+        return findActiveByLegacyTokens(legacySessionTokens).stream().filter(s -> s.getSessionTokenHash() == null)
+                .map(InMemorySessionStore::expiryRow).toList();
+    }
+
+    @Override
+    public List<Object[]> findActiveExpiryByIds(Collection<Integer> sessionIds) {
+        return findActiveByIds(sessionIds).stream().map(InMemorySessionStore::expiryRow).toList();
+    }
+
+    @Override
+    public List<Object[]> findActiveExpiryByRole(String roleName, Integer afterId, int limit) {
+        String role = roleName == null ? "" : roleName.trim();
+        return activeAfter(afterId).filter(s -> s.getRoleName() != null && s.getRoleName().contains(role)).limit(limit)
+                .map(InMemorySessionStore::expiryRow).toList();
+    }
+
+    @Override
+    public List<Object[]> findActivePage(Integer afterId, int limit) {
+        return activeAfter(afterId).limit(limit).map(s -> new Object[]{s.getSessionId(), s.getSessionTokenHash(),
+                s.getLegacySessionToken(), s.getUserId(), s.getExpiresAt(), List.copyOf(s.getRoleName()), s.getUserName()}).toList();
+    }
+
+    @Override
+    public List<Object[]> findRevokedUnexpired(LocalDateTime now) {
+        return byId.values().stream().filter(s -> !isActive(s) && s.getExpiresAt() != null && s.getExpiresAt().isAfter(now))
+                .map(InMemorySessionStore::expiryRow).toList();
+    }
+
+    @Override
+    public int touch(Map<Integer, LocalDateTime> lastSeen) {
+        AtomicInteger touched = new AtomicInteger();
+        // last-seen only moves forward and is not a change a reader could lose, so like the JDBC batch it leaves the version alone
+        lastSeen.forEach((sessionId, seenAt) -> byId.computeIfPresent(sessionId, (id, current) -> {
+            if (current.getLastSeenAt() != null && !current.getLastSeenAt().isBefore(seenAt)) {
+                return current;
+            }
+            Sessions next = copy(current);
+            next.setLastSeenAt(seenAt);
+            touched.incrementAndGet();
+            return next;
+        }));
+        return touched.get();
+    }
+
+    @Override
+    public int extendActive(Integer sessionId, LocalDateTime expiresAt, LocalDateTime seenAt, LocalDateTime now) {
+        boolean extended = update(sessionId, s -> isActive(s) && s.getExpiresAt() != null && s.getExpiresAt().isAfter(now), s -> {
+            if (s.getSupersededUntil() == null || s.getSupersededUntil().isBefore(s.getExpiresAt())) {
+                s.setSupersededUntil(s.getExpiresAt());
+            }
+            s.setExpiresAt(expiresAt);
+            s.setLastSeenAt(seenAt);
+        });
+        return extended ? 1 : 0;
+    }
+
+    @Override
+    public int revokeByIds(Collection<Integer> sessionIds, LocalDateTime revokedAt, String revokedBy) {
+        return revokeActiveByIds(sessionIds, revokedAt, revokedBy).size();
+    }
+
+    @Override
+    public List<Integer> revokeActiveByIds(Collection<Integer> sessionIds, LocalDateTime revokedAt, String revokedBy) {
+        List<Integer> revoked = new ArrayList<>();
+        for (Integer sessionId : sessionIds) {
+            if (update(sessionId, InMemorySessionStore::isActive, s -> {
+                s.setActiveFlag(false);
+                s.setRevokedAt(revokedAt);
+                s.setRevokedBy(revokedBy);
+                s.setStatus(Sessions.SessionStatus.REVOKED);
+            })) {
+                revoked.add(sessionId);
+            }
+        }
+        return revoked;
+    }
+
+    @Override
+    public int revokeByTokenHash(byte[] sessionTokenHash, LocalDateTime revokedAt, String revokedBy) {
+        Integer sessionId = sessionTokenHash == null ? null : idByTokenHash.get(ByteBuffer.wrap(sessionTokenHash));
+        return sessionId == null ? 0 : revokeByIds(List.of(sessionId), revokedAt, revokedBy);
+    }
+
+    @Override
+    public int revokeByLegacyToken(String legacySessionToken, LocalDateTime revokedAt, String revokedBy) {
+        Integer sessionId = legacySessionToken == null ? null : idByLegacyToken.get(legacySessionToken);
+        return sessionId == null ? 0 : revokeByIds(List.of(sessionId), revokedAt, revokedBy);
+    }
+
+    @Override
+    public int revokeByUserId(Integer userId, LocalDateTime revokedAt, String revokedBy) {
+        Set<Integer> sessionIds = userId == null ? null : idsByUserId.get(userId);
+        return sessionIds == null ? 0 : revokeByIds(List.copyOf(sessionIds), revokedAt, revokedBy);
+    }
+
+    @Override
+    public int revokeByUserNames(Collection<String> userNames, LocalDateTime revokedAt, String revokedBy) {
+        int revoked = 0;
+        for (String userName : userNames) {
+            Set<Integer> sessionIds = userName == null ? null : idsByUserName.get(userName);
+            if (sessionIds != null) {
+                revoked += revokeByIds(List.copyOf(sessionIds), revokedAt, revokedBy);
+            }
+        }
+        return revoked;
+    }
+
+    @Override
+    public List<Integer> expireByIds(List<Integer> sessionIds, LocalDateTime now) {
+        List<Integer> expired = new ArrayList<>();
+        for (Integer sessionId : sessionIds) {
+            if (update(sessionId, s -> isActive(s) && s.getExpiresAt() != null && !s.getExpiresAt().isAfter(now), s -> {
+                s.setActiveFlag(false);
+                s.setStatus(Sessions.SessionStatus.EXPIRED);
+            })) {
+                expired.add(sessionId);
+            }
+        }
+        return expired;
+    }
+
+    @Override
+    public Page<Sessions> list(Integer userId, String userName, Sessions.SessionStatus status, Boolean activeFlag, Pageable pageable) {
+        List<Sessions> matching = byId.values().stream().filter(filter(userId, userName, status, activeFlag)).sorted(NEWEST_FIRST).toList();
+        int from = (int) Math.min(matching.size(), pageable.getOffset());
+        int to = Math.min(matching.size(), from + pageable.getPageSize());
+        return new PageImpl<>(matching.subList(from, to).stream().map(InMemorySessionStore::copy).toList(), pageable, matching.size());
+    }
+
+    @Override
+    public Slice<Sessions> listAfter(Integer userId, String userName, Sessions.SessionStatus status, Boolean activeFlag,
+                                     LocalDateTime createdDate, Integer sessionId, Pageable pageable) {
+        Predicate<Sessions> matches = filter(userId, userName, status, activeFlag);
+        if (createdDate != null && sessionId != null) {
+            matches = matches.and(s -> s.getCreatedDate() != null && (s.getCreatedDate().isBefore(createdDate)
+                    || (s.getCreatedDate().isEqual(createdDate) && s.getSessionId() < sessionId)));
+        }
+        List<Sessions> page = byId.values().stream().filter(matches).sorted(NEWEST_FIRST)
+                .limit(pageable.getPageSize() + 1L).map(InMemorySessionStore::copy).toList();
+        boolean hasNext = page.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? page.subList(0, pageable.getPageSize()) : page, pageable, hasNext);
+    }
+
+    @Override
+    public long count(Integer userId, String userName, Sessions.SessionStatus status, Boolean activeFlag) {
+        return byId.values().stream().filter(filter(userId, userName, status, activeFlag)).count();
+    }
+
+    @Override
+    public PurgeResult purge(LocalDateTime before) {
+        int deleted = 0;
+        for (Sessions session : byId.values()) {
+            boolean closed = !isActive(session) || session.getStatus() == Sessions.SessionStatus.EXPIRED;
+            boolean old = session.getExpiresAt() != null && session.getExpiresAt().isBefore(before)
+                    && (session.getCreatedDate() == null || session.getCreatedDate().isBefore(before));
+            if (closed && old && byId.remove(session.getSessionId(), session)) {
+                unindex(session);
+                deleted++;
+            }
+        }
+        return new PurgeResult(true, deleted, 1, 0);
+    }
+
+    @Override
+    public boolean usesDatabase() {
+        return false;
+    }
+
+    /** The stored sessions themselves; safe to read without copying since a stored session is never changed in place. */
+    List<Sessions> storedSessions() {
+        return new ArrayList<>(byId.values());
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    int allocateId() {
+        return nextId.incrementAndGet();
+    }
+
+    /** Makes new ids start above the given one, e.g. the highest id already used elsewhere. */
+    void reserveIdsUpTo(int sessionId) {
+        nextId.accumulateAndGet(sessionId, Math::max);
+    }
+
+    @Scheduled(cron = "${session.purge.cron:0 */15 * * * *}")
+    public void scheduledPurge() {
+        PurgeResult result = purge(LocalDateTime.now().minusDays(retentionDays));
+        logger.debug("{} scheduledPurge deleted : {} remaining : {}", className, result.sessionsDeleted(), byId.size());
+    }
+
+    // swaps in a changed copy when the condition holds at the time of the swap; true if it did
+    private boolean update(Integer sessionId, Predicate<Sessions> condition, Consumer<Sessions> change) {
+        if (sessionId == null) {
+            return false;
+        }
+        boolean[] changed = new boolean[1];
+        byId.computeIfPresent(sessionId, (id, current) -> {
+            if (!condition.test(current)) {
+                return current;
+            }
+            Sessions next = copy(current);
+            change.accept(next);
+            next.setVersion(current.getVersion() == null ? 1L : current.getVersion() + 1);
+            changed[0] = true;
+            return next;
+        });
+        return changed[0];
+    }
+
+    private List<Sessions> activeCopies(Stream<Integer> sessionIds) {
+        return sessionIds.filter(Objects::nonNull).distinct().map(byId::get)
+                .filter(s -> s != null && isActive(s)).map(InMemorySessionStore::copy).toList();
+    }
+
+    private Stream<Sessions> activeOf(Set<Integer> sessionIds) {
+        return sessionIds == null ? Stream.empty() : sessionIds.stream().map(byId::get).filter(s -> s != null && isActive(s));
+    }
+
+    private Stream<Sessions> activeAfter(Integer afterId) {
+        int after = afterId == null ? 0 : afterId;
+        return byId.values().stream().filter(s -> s.getSessionId() > after && isActive(s)).sorted(Comparator.comparing(Sessions::getSessionId));
+    }
+
+    private static Object[] expiryRow(Sessions session) {
+        return new Object[]{session.getSessionId(), session.getExpiresAt()};
+    }
+
+    private void index(Sessions session) {
+        Integer sessionId = session.getSessionId();
+        if (session.getSessionTokenHash() != null) {
+            idByTokenHash.put(ByteBuffer.wrap(session.getSessionTokenHash().clone()), sessionId);
+        }
+        if (session.getLegacySessionToken() != null) {
+            idByLegacyToken.put(session.getLegacySessionToken(), sessionId);
+        }
+        if (session.getUserId() != null) {
+            idsByUserId.computeIfAbsent(session.getUserId(), k -> ConcurrentHashMap.newKeySet()).add(sessionId);
+        }
+        if (session.getUserName() != null) {
+            idsByUserName.computeIfAbsent(session.getUserName(), k -> ConcurrentHashMap.newKeySet()).add(sessionId);
+        }
+    }
+
+    private void unindex(Sessions session) {
+        Integer sessionId = session.getSessionId();
+        if (session.getSessionTokenHash() != null) {
+            idByTokenHash.remove(ByteBuffer.wrap(session.getSessionTokenHash()), sessionId);
+        }
+        if (session.getLegacySessionToken() != null) {
+            idByLegacyToken.remove(session.getLegacySessionToken(), sessionId);
+        }
+        removeFromSet(idsByUserId, session.getUserId(), sessionId);
+        removeFromSet(idsByUserName, session.getUserName(), sessionId);
+    }
+
+    private static <K> void removeFromSet(ConcurrentHashMap<K, Set<Integer>> index, K key, Integer sessionId) {
+        if (key != null) {
+            index.computeIfPresent(key, (k, ids) -> ids.remove(sessionId) && ids.isEmpty() ? null : ids);
+        }
+    }
+
+    private static Predicate<Sessions> filter(Integer userId, String userName, Sessions.SessionStatus status, Boolean activeFlag) {
+        return s -> (userId == null || userId.equals(s.getUserId()))
+                && (userName == null || userName.equals(s.getUserName()))
+                && (status == null || status == s.getStatus())
+                && (activeFlag == null || activeFlag.equals(s.getActiveFlag()));
+    }
+
+    private static boolean isActive(Sessions session) {
+        return Boolean.TRUE.equals(session.getActiveFlag());
+    }
+
+    private static Sessions copy(Sessions source) {
+        Sessions copy = new Sessions();
+        copy.setSessionId(source.getSessionId());
+        copy.setSessionTokenHash(source.getSessionTokenHash());
+        copy.setLegacySessionToken(source.getLegacySessionToken());
+        copy.setUserId(source.getUserId());
+        copy.setUserName(source.getUserName());
+        copy.setRoleName(source.getRoleName() == null ? new ArrayList<>() : new ArrayList<>(source.getRoleName()));
+        copy.setStatus(source.getStatus());
+        copy.setIpAddress(source.getIpAddress());
+        copy.setUserAgent(source.getUserAgent());
+        copy.setCreatedBy(source.getCreatedBy());
+        copy.setCreatedDate(source.getCreatedDate());
+        copy.setLastSeenAt(source.getLastSeenAt());
+        copy.setExpiresAt(source.getExpiresAt());
+        copy.setSupersededUntil(source.getSupersededUntil());
+        copy.setRevokedAt(source.getRevokedAt());
+        copy.setRevokedBy(source.getRevokedBy());
+        copy.setMetaData(source.getMetaData());
+        copy.setMetaDataBin(source.getMetaDataBin());
+        copy.setActiveFlag(source.getActiveFlag());
+        copy.setVersion(source.getVersion());
+        return copy;
+    }
+}
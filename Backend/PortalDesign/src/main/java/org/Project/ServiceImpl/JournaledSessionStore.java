@@ -0,0 +1,758 @@
+package org.Project.ServiceImpl;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.Project.Entity.Sessions;
+import org.Project.Repository.SessionRepository;
+import org.Project.Repository.SessionStore;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Sessions held in an {@link InMemorySessionStore} and made crash safe by a {@link SessionJournal}, selected with
+ * {@code session.store.type=journal}. Reads never touch the journal. Every change is applied and journaled under the journal
+ * lock, then waits for the fsync policy ({@code session.journal.fsync}: group, async or none). A snapshot every
+ * {@code session.journal.snapshot-interval-ms} lets older segments be deleted, and startup replays the latest snapshot plus
+ * the segments after it.
+ * <p>
+ * With {@code session.journal.mirror-to-db} the same records are queued and replayed against TBL_SESSION in order every
+ * {@code session.journal.mirror-interval-ms}, so the table is a lagging secondary copy that reporting, the partition manager
+ * and the purger keep working on. Each batch records the journal position it reached in TBL_JOURNAL_MIRROR in the same
+ * transaction, and a restart queues only the replayed records past it. The queue holds at most
+ * {@code session.journal.mirror-queue-capacity} records; when it overflows, or the recorded position is no longer in the
+ * journal, the mirror upserts every stored session as of one journal position instead and carries on from there.
+ * <p>
+ * Mirroring runs on one node only: new ids start above the table's highest id as seen at startup, so two journal nodes would
+ * hand out the same ids and overwrite each other's rows. The node holds the "session-journal" lease while it runs, and a second
+ * node that cannot take it within {@code session.journal.lease-seconds} refuses to start.
+ */
+@Component
+@ConditionalOnProperty(name = "session.store.type", havingValue = "journal")
+public class JournaledSessionStore implements SessionStore, SmartInitializingSingleton {
+
+    private static final Logger logger = LogManager.getLogger(JournaledSessionStore.class);
+    private final String className = "JournaledSessionStore";
+
+    private static final byte SAVE = SessionJournal.SAVE;
+    private static final byte TOUCH = 2;
+    private static final byte REVOKE_IDS = 3;
+    private static final byte REVOKE_USER_ID = 4;
+    private static final byte REVOKE_USER_NAMES = 5;
+    private static final byte EXPIRE_IDS = 6;
+    private static final byte PURGE = 7;
+    private static final byte EXTEND = 8;
+
+    private static final String UPSERT_SESSION = "INSERT INTO TBL_SESSION (SESSION_ID, SESSION_TOKEN_HASH, SESSION_TOKEN, USER_ID, USER_NAME, "
+            + "ROLE_SET_ID, STATUS, IP_ADDRESS, USER_AGENT, CREATED_BY, CREATED_DATE, LAST_SEEN_AT, EXPIRES_AT, REVOKED_AT, REVOKED_BY, "
+            + "META_DATA, META_DATA_BIN, ACTIVE_FLAG, VERSION, SUPERSEDED_UNTIL) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE SESSION_TOKEN_HASH = VALUES(SESSION_TOKEN_HASH), SESSION_TOKEN = VALUES(SESSION_TOKEN), "
+            + "ROLE_SET_ID = VALUES(ROLE_SET_ID), STATUS = VALUES(STATUS), LAST_SEEN_AT = VALUES(LAST_SEEN_AT), "
+            + "EXPIRES_AT = VALUES(EXPIRES_AT), SUPERSEDED_UNTIL = VALUES(SUPERSEDED_UNTIL), REVOKED_AT = VALUES(REVOKED_AT), "
+            + "REVOKED_BY = VALUES(REVOKED_BY), "
+            + "META_DATA = VALUES(META_DATA), META_DATA_BIN = VALUES(META_DATA_BIN), ACTIVE_FLAG = VALUES(ACTIVE_FLAG), "
+            + "VERSION = VALUES(VERSION)";
+    private static final String MIRROR_NAME = "session-journal";
+    private static final String LEASE_NAME = "session-journal";
+    private static final String SAVE_POSITION = "INSERT INTO TBL_JOURNAL_MIRROR (MIRROR_NAME, POSITION, UPDATED_AT) VALUES (?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE POSITION = VALUES(POSITION), UPDATED_AT = VALUES(UPDATED_AT)";
+    private static final String UPDATE_LAST_SEEN =
+            "UPDATE TBL_SESSION SET LAST_SEEN_AT = ? WHERE SESSION_ID = ? AND (LAST_SEEN_AT IS NULL OR LAST_SEEN_AT < ?)";
+
+    @Autowired
+    SessionRepository sessionRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    RoleSetRegistry roleSetRegistry;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    ClusterLock clusterLock;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${session.journal.dir:./session-journal}")
+    String dir;
+
+    @Value("${session.journal.segment-bytes:67108864}")
+    int segmentBytes;
+
+    // group | async | none
+    @Value("${session.journal.fsync:group}")
+    String fsync;
+
+    @Value("${session.journal.fsync-interval-ms:10}")
+    long fsyncIntervalMs;
+
+    @Value("${session.journal.mirror-to-db:true}")
+    boolean mirrorToDb;
+
+    @Value("${session.journal.mirror-batch-size:1000}")
+    int mirrorBatchSize;
+
+    @Value("${session.journal.mirror-queue-capacity:100000}")
+    int mirrorQueueCapacity;
+
+    @Value("${session.journal.lease-seconds:30}")
+    long leaseSeconds;
+
+    @Value("${session.purge.retention-days:30}")
+    int retentionDays;
+
+    private final InMemorySessionStore memory = new InMemorySessionStore();
+    private SessionJournal journal;
+
+    // SAVE payloads carry the session as stored, so the mirror writes the version the journal gave it
+    private record Record(byte type, byte[] payload, long position) {
+    }
+
+    private record Resync(List<Sessions> sessions, long position) {
+    }
+
+    private BlockingQueue<Record> mirrorQueue;
+    // records taken off the queue that have not reached the database yet; only the mirror thread touches it
+    private final ArrayDeque<Record> mirrorRetry = new ArrayDeque<>();
+    // set when queued records were dropped; only cleared under the journal lock, where records are queued
+    private volatile boolean resyncNeeded;
+    private long mirrorFrom = -1;
+    private long lastReplayed = -1;
+    private TransactionTemplate mirrorTransaction;
+    private long leaseRenewedAt;
+    private final AtomicLong recoveryMs = new AtomicLong();
+    private final LongAdder mirrored = new LongAdder();
+    private final LongAdder resyncs = new LongAdder();
+
+    @PostConstruct
+    void open() throws IOException {
+        String methodName = "open";
+        long started = System.currentTimeMillis();
+        mirrorQueue = new ArrayBlockingQueue<>(mirrorQueueCapacity);
+        mirrorTransaction = new TransactionTemplate(transactionManager);
+        if (mirrorToDb) {
+            mirrorFrom = jdbcTemplate.queryForList("SELECT POSITION FROM TBL_JOURNAL_MIRROR WHERE MIRROR_NAME = ?", Long.class, MIRROR_NAME)
+                    .stream().findFirst().orElse(-1L);
+        }
+        journal = new SessionJournal(Path.of(dir), segmentBytes, SessionJournal.FsyncMode.valueOf(fsync.toUpperCase()), fsyncIntervalMs);
+        long replayed = journal.open(this::replay);
+        recoveryMs.set(System.currentTimeMillis() - started);
+        logger.info("{} {} replayed : {} records sessions : {} in {} ms", className, methodName, replayed, memory.size(), recoveryMs.get());
+        if (mirrorToDb) {
+            Integer maxId = jdbcTemplate.queryForObject("SELECT MAX(SESSION_ID) FROM TBL_SESSION", Integer.class);
+            if (maxId != null) {
+                memory.reserveIdsUpTo(maxId);
+            }
+            // no position, one from before the oldest record still journaled, or one past the end of a replaced journal
+            if (mirrorFrom < journal.replayedFrom() || mirrorFrom > Math.max(lastReplayed, journal.replayedFrom())) {
+                logger.info("{} {} mirrored position {} is not in the journal, resyncing TBL_SESSION", className, methodName, mirrorFrom);
+                mirrorQueue.clear();
+                resyncNeeded = true;
+            }
+            logger.info("{} {} mirror backlog : {} records", className, methodName, mirrorQueue.size());
+        }
+        Gauge.builder("session.journal.recovery-ms", recoveryMs, AtomicLong::get)
+                .description("Time the last startup spent replaying the session journal").register(meterRegistry);
+        Gauge.builder("session.journal.mirror-backlog", mirrorQueue, BlockingQueue::size)
+                .description("Journal records not yet applied to TBL_SESSION").register(meterRegistry);
+        FunctionCounter.builder("session.journal.mirrored", mirrored, LongAdder::sum)
+                .description("Journal records applied to TBL_SESSION").register(meterRegistry);
+        FunctionCounter.builder("session.journal.mirror-resyncs", resyncs, LongAdder::sum)
+                .description("Times TBL_SESSION was rewritten from memory after mirror records were dropped").register(meterRegistry);
+    }
+
+    // after every bean exists, so the ClusterLock's store lookup resolves, and before the web server takes requests
+    @Override
+    public void afterSingletonsInstantiated() {
+        String methodName = "afterSingletonsInstantiated";
+        if (!mirrorToDb) {
+            return;
+        }
+        // a previous run of this node that crashed still holds the lease until it runs out
+        long deadline = System.currentTimeMillis() + (leaseSeconds + 5) * 1000;
+        while (!clusterLock.tryLock(LEASE_NAME, Duration.ofSeconds(leaseSeconds))) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Another node holds the " + LEASE_NAME + " lease; session.store.type=journal with "
+                        + "session.journal.mirror-to-db runs on one node per database");
+            }
+            logger.info("{} {} waiting for the {} lease", className, methodName, LEASE_NAME);
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for the " + LEASE_NAME + " lease", e);
+            }
+        }
+        leaseRenewedAt = System.currentTimeMillis();
+    }
+
+    @PreDestroy
+    void close() {
+        String methodName = "close";
+        journal.close();
+        if (mirrorToDb) {
+            try {
+                clusterLock.unlock(LEASE_NAME);
+            } catch (Exception e) {
+                // the lease runs out by itself
+                logger.warn("{} {} Error Exception : {}", className, methodName, e.toString());
+            }
+        }
+    }
+
+    @Override
+    public Sessions save(Sessions session) {
+        if (session.getSessionId() == null) {
+            session.setSessionId(memory.allocateId());
+        }
+        return journaledSaves(List.of(session), () -> memory.save(session));
+    }
+
+    @Override
+    public void insertAll(List<Sessions> sessions) {
+        for (Sessions session : sessions) {
+            if (session.getSessionId() == null) {
+                session.setSessionId(memory.allocateId());
+            }
+        }
+        journaledSaves(sessions, () -> {
+            memory.insertAll(sessions);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<Sessions> findById(Integer sessionId) {
+        return memory.findById(sessionId);
+    }
+
+    @Override
+    public Optional<Sessions> findActiveById(Integer sessionId) {
+        return memory.findActiveById(sessionId);
+    }
+
+    @Override
+    public Optional<Sessions> findActiveByTokenHash(byte[] sessionTokenHash) {
+        return memory.findActiveByTokenHash(sessionTokenHash);
+    }
+
+    @Override
+    public Optional<Sessions> findActiveByLegacyToken(String legacySessionToken) {
+        return memory.findActiveByLegacyToken(legacySessionToken);
+    }
+
+    @Override
+    public Optional<Sessions> findByTokenHash(byte[] sessionTokenHash) {
+        return memory.findByTokenHash(sessionTokenHash);
+    }
+
+    @Override
+    public Optional<Sessions> findByLegacyToken(String legacySessionToken) {
+        return memory.findByLegacyToken(legacySessionToken);
+    }
+
+    @Override
+    public List<Sessions> findActiveByIds(Collection<Integer> sessionIds) {
+        return memory.findActiveByIds(sessionIds);
+    }
+
+    @Override
+    public List<Sessions> findActiveByTokenHashes(Collection<byte[]> sessionTokenHashes) {
+        return memory.findActiveByTokenHashes(sessionTokenHashes);
+    }
+
+    @Override
+    public List<Sessions> findActiveByLegacyTokens(Collection<String> legacySessionTokens) {
+        return memory.findActiveByLegacyTokens(legacySessionTokens);
+    }
+
+    @Override
+    public List<Object[]> findActiveExpiryByUserId(Integer userId) {
+        return memory.findActiveExpiryByUserId(userId);
+    }
+
+    @Override
+    public List<Object[]> findActiveTokensByUserNames(Collection<String> userNames) {
+        return memory.findActiveTokensByUserNames(userNames);
+    }
+
+    @Override
+    public List<Object[]> findActiveExpiryByUserIds(Collection<Integer> userIds) {
+        return memory.findActiveExpiryByUserIds(userIds);
+    }
+
+    @Override
+    public List<Object[]> findActiveExpiryByTokenHashes(Collection<byte[]> sessionTokenHashes) {
+        return memory.findActiveExpiryByTokenHashes(sessionTokenHashes);
+    }
+
+    @Override
+    public List<Object[]> findActiveExpiryByLegacyTokens(Collection<String> legacySessionTokens) {
+        return memory.findActiveExpiryByLegacyTokens(legacySessionTokens);
+    }
+
+    @Override
+    public List<Object[]> findActiveExpiryByIds(Collection<Integer> sessionIds) {
+        return memory.findActiveExpiryByIds(sessionIds);
+    }
+
+    @Override
+    public List<Object[]> findActiveExpiryByRole(String roleName, Integer afterId, int limit) {
+        return memory.findActiveExpiryByRole(roleName, afterId, limit);
+    }
+
+    @Override
+    public List<Object[]> findActivePage(Integer afterId, int limit) {
+        return memory.findActivePage(afterId, limit);
+    }
+
+    @Override
+    public List<Object[]> findRevokedUnexpired(LocalDateTime now) {
+        return memory.findRevokedUnexpired(now);
+    }
+
+    @Override
+    public List<Object[]> findSupersededUnexpired(LocalDateTime now) {
+        return memory.findSupersededUnexpired(now);
+    }
+
+    @Override
+    public int touch(Map<Integer, LocalDateTime> lastSeen) {
+        byte[] payload = SessionJournal.payload(out -> {
+            out.writeInt(lastSeen.size());
+            for (Map.Entry<Integer, LocalDateTime> entry : lastSeen.entrySet()) {
+                out.writeInt(entry.getKey());
+                SessionJournal.writeTime(out, entry.getValue());
+            }
+        });
+        return journaled(TOUCH, List.of(payload), () -> memory.touch(lastSeen));
+    }
+
+    @Override
+    public int extendActive(Integer sessionId, LocalDateTime expiresAt, LocalDateTime seenAt, LocalDateTime now) {
+        byte[] payload = SessionJournal.payload(out -> {
+            SessionJournal.writeInteger(out, sessionId);
+            SessionJournal.writeTime(out, expiresAt);
+            SessionJournal.writeTime(out, seenAt);
+            SessionJournal.writeTime(out, now);
+        });
+        return journaled(EXTEND, List.of(payload), () -> memory.extendActive(sessionId, expiresAt, seenAt, now));
+    }
+
+    @Override
+    public int revokeByIds(Collection<Integer> sessionIds, LocalDateTime revokedAt, String revokedBy) {
+        return revokeActiveByIds(sessionIds, revokedAt, revokedBy).size();
+    }
+
+    // journaled as the ids asked for; replayed over the same state it changes the same sessions
+    @Override
+    public List<Integer> revokeActiveByIds(Collection<Integer> sessionIds, LocalDateTime revokedAt, String revokedBy) {
+        byte[] payload = SessionJournal.payload(out -> {
+            writeIds(out, sessionIds);
+            SessionJournal.writeTime(out, revokedAt);
+            SessionJournal.writeString(out, revokedBy);
+        });
+        return journaled(REVOKE_IDS, List.of(payload), () -> memory.revokeActiveByIds(sessionIds, revokedAt, revokedBy));
+    }
+
+    // the token is resolved in memory, which costs nothing, and journaled as a revoke by id
+    @Override
+    public int revokeByTokenHash(byte[] sessionTokenHash, LocalDateTime revokedAt, String revokedBy) {
+        return memory.findActiveByTokenHash(sessionTokenHash).map(s -> revokeByIds(List.of(s.getSessionId()), revokedAt, revokedBy)).orElse(0);
+    }
+
+    @Override
+    public int revokeByLegacyToken(String legacySessionToken, LocalDateTime revokedAt, String revokedBy) {
+        return memory.findActiveByLegacyToken(legacySessionToken).map(s -> revokeByIds(List.of(s.getSessionId()), revokedAt, revokedBy)).orElse(0);
+    }
+
+    @Override
+    public int revokeByUserId(Integer userId, LocalDateTime revokedAt, String revokedBy) {
+        byte[] payload = SessionJournal.payload(out -> {
+            SessionJournal.writeInteger(out, userId);
+            SessionJournal.writeTime(out, revokedAt);
+            SessionJournal.writeString(out, revokedBy);
+        });
+        return journaled(REVOKE_USER_ID, List.of(payload), () -> memory.revokeByUserId(userId, revokedAt, revokedBy));
+    }
+
+    @Override
+    public int revokeByUserNames(Collection<String> userNames, LocalDateTime revokedAt, String revokedBy) {
+        byte[] payload = SessionJournal.payload(out -> {
+            out.writeInt(userNames.size());
+            for (String userName : userNames) {
+                SessionJournal.writeString(out, userName);
+            }
+            SessionJournal.writeTime(out, revokedAt);
+            SessionJournal.writeString(out, revokedBy);
+        });
+        return journaled(REVOKE_USER_NAMES, List.of(payload), () -> memory.revokeByUserNames(userNames, revokedAt, revokedBy));
+    }
+
+    @Override
+    public List<Integer> expireByIds(List<Integer> sessionIds, LocalDateTime now) {
+        byte[] payload = SessionJournal.payload(out -> {
+            writeIds(out, sessionIds);
+            SessionJournal.writeTime(out, now);
+        });
+        return journaled(EXPIRE_IDS, List.of(payload), () -> memory.expireByIds(sessionIds, now));
+    }
+
+    @Override
+    public Page<Sessions> list(Integer userId, String userName, Sessions.SessionStatus status, Boolean activeFlag, Pageable pageable) {
+        return memory.list(userId, userName, status, activeFlag, pageable);
+    }
+
+    @Override
+    public Slice<Sessions> listAfter(Integer userId, String userName, Sessions.SessionStatus status, Boolean activeFlag,
+                                     LocalDateTime createdDate, Integer sessionId, Pageable pageable) {
+        return memory.listAfter(userId, userName, status, activeFlag, createdDate, sessionId, pageable);
+    }
+
+    // the purge is journaled as its cutoff; replayed over the same state it removes the same sessions
+    @Override
+    public long count(Integer userId, String userName, Sessions.SessionStatus status, Boolean activeFlag) {
+        return memory.count(userId, userName, status, activeFlag);
+    }
+
+    @Override
+    public PurgeResult purge(LocalDateTime before) {
+        byte[] payload = SessionJournal.payload(out -> SessionJournal.writeTime(out, before));
+        return journaled(PURGE, List.of(payload), () -> memory.purge(before));
+    }
+
+    // the mirror is the only SQL this store runs
+    @Override
+    public boolean usesDatabase() {
+        return mirrorToDb;
+    }
+
+    @Scheduled(cron = "${session.purge.cron:0 */15 * * * *}")
+    public void scheduledPurge() {
+        purge(LocalDateTime.now().minusDays(retentionDays));
+    }
+
+    @Scheduled(fixedDelayString = "${session.journal.snapshot-interval-ms:600000}", initialDelayString = "${session.journal.snapshot-interval-ms:600000}")
+    public void snapshot() {
+        String methodName = "snapshot";
+        try {
+            long started = System.currentTimeMillis();
+            int sessions = journal.snapshot(memory::storedSessions, SessionJournal::encodeSession);
+            logger.info("{} {} sessions : {} in {} ms", className, methodName, sessions, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${session.journal.mirror-interval-ms:1000}")
+    public synchronized void mirror() {
+        String methodName = "mirror";
+        if (!mirrorToDb) {
+            return;
+        }
+        try {
+            if (!holdLease()) {
+                return;
+            }
+            if (resyncNeeded) {
+                resync();
+            }
+            while (true) {
+                while (mirrorRetry.size() < mirrorBatchSize) {
+                    Record next = mirrorQueue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    mirrorRetry.add(next);
+                }
+                if (mirrorRetry.isEmpty() || !holdLease()) {
+                    return;
+                }
+                applyToDb();
+            }
+        } catch (Exception e) {
+            // the failed record stays at the head of mirrorRetry and is retried first next time
+            logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+        }
+    }
+
+    private <T> T journaled(byte type, List<byte[]> payloads, Supplier<T> change) {
+        return journal.append(type, payloads, change, (i, position) -> enqueue(type, payloads.get(i), position));
+    }
+
+    // journaled as the sessions were handed in, which replays through the same version check; mirrored as they were stored
+    private <T> T journaledSaves(List<Sessions> sessions, Supplier<T> change) {
+        List<byte[]> payloads = sessions.stream().map(SessionJournal::encodeSession).toList();
+        return journal.append(SAVE, payloads, change, (i, position) -> {
+            if (mirrorToDb) {
+                enqueue(SAVE, SessionJournal.encodeSession(sessions.get(i)), position);
+            }
+        });
+    }
+
+    // called under the journal lock, or from open before any append
+    private void enqueue(byte type, byte[] payload, long position) {
+        if (!mirrorToDb || type == PURGE || resyncNeeded) {
+            return;
+        }
+        if (!mirrorQueue.offer(new Record(type, payload, position))) {
+            // the resync copies the state these records would have brought the table to
+            logger.warn("{} enqueue mirror queue full at {} records, resyncing TBL_SESSION", className, mirrorQueue.size());
+            mirrorQueue.clear();
+            resyncNeeded = true;
+        }
+    }
+
+    private void replay(byte type, ByteBuffer in, long position) {
+        lastReplayed = position;
+        boolean mirror = mirrorFrom >= 0 && position > mirrorFrom;
+        if (type == SAVE) {
+            Sessions session = SessionJournal.decodeSession(in);
+            memory.save(session);
+            if (mirror) {
+                enqueue(SAVE, SessionJournal.encodeSession(session), position);
+            }
+            return;
+        }
+        if (mirror) {
+            byte[] payload = new byte[in.remaining()];
+            in.duplicate().get(payload);
+            enqueue(type, payload, position);
+        }
+        switch (type) {
+            case TOUCH -> memory.touch(readTouches(in));
+            case REVOKE_IDS -> memory.revokeByIds(readIds(in), SessionJournal.readTime(in), SessionJournal.readString(in));
+            case REVOKE_USER_ID -> memory.revokeByUserId(SessionJournal.readInteger(in), SessionJournal.readTime(in), SessionJournal.readString(in));
+            case REVOKE_USER_NAMES -> memory.revokeByUserNames(readUserNames(in), SessionJournal.readTime(in), SessionJournal.readString(in));
+            case EXPIRE_IDS -> memory.expireByIds(readIds(in), SessionJournal.readTime(in));
+            case PURGE -> memory.purge(SessionJournal.readTime(in));
+            case EXTEND -> memory.extendActive(SessionJournal.readInteger(in), SessionJournal.readTime(in), SessionJournal.readTime(in), SessionJournal.readTime(in));
+            default -> throw new IllegalStateException("Unknown session journal record type " + type);
+        }
+    }
+
+    // upserts every stored session as of one journal position; the queue carries on from that position
+    private void resync() {
+        String methodName = "resync";
+        long started = System.currentTimeMillis();
+        Resync resync = journal.capture(position -> {
+            mirrorQueue.clear();
+            resyncNeeded = false;
+            return new Resync(memory.storedSessions(), position);
+        });
+        mirrorRetry.clear();
+        try {
+            List<Sessions> sessions = resync.sessions();
+            int from = 0;
+            do {
+                if (!holdLease()) {
+                    throw new IllegalStateException("Lost the " + LEASE_NAME + " lease during a resync");
+                }
+                List<Sessions> batch = sessions.subList(from, Math.min(sessions.size(), from + mirrorBatchSize));
+                boolean last = from + batch.size() >= sessions.size();
+                mirrorTransaction.executeWithoutResult(status -> {
+                    if (!batch.isEmpty()) {
+                        upsert(batch);
+                    }
+                    if (last) {
+                        savePosition(resync.position());
+                    }
+                });
+                from += batch.size();
+            } while (from < sessions.size());
+        } catch (RuntimeException e) {
+            // what was queued meanwhile has been dropped, so only another resync can catch up
+            resyncNeeded = true;
+            throw e;
+        }
+        resyncs.increment();
+        logger.info("{} {} sessions : {} in {} ms", className, methodName, resync.sessions().size(), System.currentTimeMillis() - started);
+    }
+
+    // renews the lease once a third of it has gone by; false, and nothing is mirrored, if another node has taken it
+    private boolean holdLease() {
+        long now = System.currentTimeMillis();
+        if (now - leaseRenewedAt < leaseSeconds * 1000 / 3) {
+            return true;
+        }
+        if (!clusterLock.tryLock(LEASE_NAME, Duration.ofSeconds(leaseSeconds))) {
+            logger.error("{} holdLease another node holds the {} lease, not mirroring", className, LEASE_NAME);
+            return false;
+        }
+        leaseRenewedAt = now;
+        return true;
+    }
+
+    private void savePosition(long position) {
+        jdbcTemplate.update(SAVE_POSITION, MIRROR_NAME, position, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    /**
+     * Applies runs of SAVE and TOUCH records as one JDBC batch each, everything else one statement per record, in order. Each
+     * run commits together with the position it reached.
+     */
+    private void applyToDb() {
+        Record head = mirrorRetry.peek();
+        List<Record> run = new ArrayList<>();
+        for (Record record : mirrorRetry) {
+            if (record.type() != head.type() || (head.type() != SAVE && head.type() != TOUCH && !run.isEmpty())) {
+                break;
+            }
+            run.add(record);
+        }
+        mirrorTransaction.executeWithoutResult(status -> {
+            applyRun(head, run);
+            savePosition(run.get(run.size() - 1).position());
+        });
+        for (int i = 0; i < run.size(); i++) {
+            mirrorRetry.poll();
+        }
+        mirrored.add(run.size());
+    }
+
+    private void applyRun(Record head, List<Record> run) {
+        switch (head.type()) {
+            case SAVE -> upsert(run.stream().map(r -> SessionJournal.decodeSession(ByteBuffer.wrap(r.payload()))).toList());
+            case TOUCH -> {
+                List<Object[]> args = new ArrayList<>();
+                run.forEach(r -> readTouches(ByteBuffer.wrap(r.payload())).forEach((sessionId, seenAt) -> {
+                    Timestamp ts = Timestamp.valueOf(seenAt);
+                    args.add(new Object[]{ts, sessionId, ts});
+                }));
+                jdbcTemplate.batchUpdate(UPDATE_LAST_SEEN, args);
+            }
+            case REVOKE_IDS -> {
+                ByteBuffer in = ByteBuffer.wrap(head.payload());
+                List<Integer> sessionIds = readIds(in);
+                if (!sessionIds.isEmpty()) {
+                    sessionRepository.revokeAllByIds(sessionIds, SessionJournal.readTime(in), SessionJournal.readString(in), Sessions.SessionStatus.REVOKED);
+                }
+            }
+            case REVOKE_USER_ID -> {
+                ByteBuffer in = ByteBuffer.wrap(head.payload());
+                sessionRepository.revokeAllByUserId(SessionJournal.readInteger(in), SessionJournal.readTime(in), SessionJournal.readString(in), Sessions.SessionStatus.REVOKED);
+            }
+            case REVOKE_USER_NAMES -> {
+                ByteBuffer in = ByteBuffer.wrap(head.payload());
+                List<String> userNames = readUserNames(in);
+                if (!userNames.isEmpty()) {
+                    sessionRepository.revokeAllByUserNames(userNames, SessionJournal.readTime(in), SessionJournal.readString(in), Sessions.SessionStatus.REVOKED);
+                }
+            }
+            case EXPIRE_IDS -> {
+                ByteBuffer in = ByteBuffer.wrap(head.payload());
+                List<Integer> sessionIds = readIds(in);
+                if (!sessionIds.isEmpty()) {
+                    sessionRepository.expireByIds(sessionIds, SessionJournal.readTime(in), Sessions.SessionStatus.EXPIRED);
+                }
+            }
+            case EXTEND -> {
+                ByteBuffer in = ByteBuffer.wrap(head.payload());
+                sessionRepository.extendActive(SessionJournal.readInteger(in), SessionJournal.readTime(in), SessionJournal.readTime(in), SessionJournal.readTime(in));
+            }
+            default -> logger.warn("{} applyRun skipping record type {}", className, head.type());
+        }
+    }
+
+    private void upsert(List<Sessions> sessions) {
+        jdbcTemplate.batchUpdate(UPSERT_SESSION, sessions, sessions.size(), (ps, session) -> {
+            ps.setInt(1, session.getSessionId());
+            ps.setBytes(2, session.getSessionTokenHash());
+            ps.setString(3, session.getLegacySessionToken());
+            ps.setObject(4, session.getUserId(), Types.INTEGER);
+            ps.setString(5, session.getUserName());
+            ps.setInt(6, roleSetRegistry.intern(session.getRoleName()));
+            ps.setString(7, session.getStatus() == null ? null : session.getStatus().name());
+            ps.setString(8, session.getIpAddress());
+            ps.setString(9, session.getUserAgent());
+            ps.setString(10, session.getCreatedBy());
+            ps.setTimestamp(11, timestamp(session.getCreatedDate()));
+            ps.setTimestamp(12, timestamp(session.getLastSeenAt()));
+            ps.setTimestamp(13, timestamp(session.getExpiresAt()));
+            ps.setTimestamp(14, timestamp(session.getRevokedAt()));
+            ps.setString(15, session.getRevokedBy());
+            ps.setString(16, session.getMetaData());
+            ps.setBytes(17, session.getMetaDataBin());
+            ps.setObject(18, session.getActiveFlag(), Types.BOOLEAN);
+            ps.setLong(19, session.getVersion() == null ? 0L : session.getVersion());
+            ps.setTimestamp(20, timestamp(session.getSupersededUntil()));
+        });
+    }
+
+    private static void writeIds(DataOutputStream out, Collection<Integer> sessionIds) throws IOException {
+        out.writeInt(sessionIds.size());
+        for (Integer sessionId : sessionIds) {
+            out.writeInt(sessionId);
+        }
+    }
+
+    private static List<Integer> readIds(ByteBuffer in) {
+        int count = in.getInt();
+        List<Integer> sessionIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sessionIds.add(in.getInt());
+        }
+        return sessionIds;
+    }
+
+    private static List<String> readUserNames(ByteBuffer in) {
+        int count = in.getInt();
+        List<String> userNames = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            userNames.add(SessionJournal.readString(in));
+        }
+        return userNames;
+    }
+
+    private static Map<Integer, LocalDateTime> readTouches(ByteBuffer in) {
+        int count = in.getInt();
+        Map<Integer, LocalDateTime> lastSeen = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            lastSeen.put(in.getInt(), SessionJournal.readTime(in));
+        }
+        return lastSeen;
+    }
+
+    private static Timestamp timestamp(LocalDateTime dateTime) {
+        return dateTime == null ? null : Timestamp.valueOf(dateTime);
+    }
+}
@@ -0,0 +1,255 @@
+package org.Project.ServiceImpl;
+
+import org.Project.Entity.Sessions;
+import org.Project.Repository.SessionRepository;
+import org.Project.Repository.SessionStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/** TBL_SESSION through {@link SessionRepository}, the batch inserter and the purger; the default store. */
+@Component
+@ConditionalOnProperty(name = "session.store.type", havingValue = "jpa", matchIfMissing = true)
+public class JpaSessionStore implements SessionStore {
+
+    private static final String UPDATE_LAST_SEEN =
+            "UPDATE TBL_SESSION SET LAST_SEEN_AT = ? WHERE SESSION_ID = ? AND (LAST_SEEN_AT IS NULL OR LAST_SEEN_AT < ?)";
+
+    @Autowired
+    SessionRepository sessionRepository;
+
+    @Autowired
+    RoleSetRegistry roleSetRegistry;
+
+    @Autowired
+    SessionBatchInserter batchInserter;
+
+    @Autowired
+    SessionPurger sessionPurger;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Sessions save(Sessions session) {
+        return sessionRepository.save(session);
+    }
+
+    @Override
+    public void insertAll(List<Sessions> sessions) {
+        batchInserter.insert(sessions);
+    }
+
+    @Override
+    public Optional<Sessions> findById(Integer sessionId) {
+        return sessionRepository.findById(sessionId);
+    }
+
+    @Override
+    public Optional<Sessions> findActiveById(Integer sessionId) {
+        return sessionRepository.findBySessionIdAndActiveFlag(sessionId, true);
+    }
+
+    @Override
+    public Optional<Sessions> findActiveByTokenHash(byte[] sessionTokenHash) {
+        return sessionRepository.findBySessionTokenHashAndActiveFlag(sessionTokenHash, true);
+    }
+
+    @Override
+    public Optional<Sessions> findActiveByLegacyToken(String legacySessionToken) {
+        return sessionRepository.findByLegacySessionTokenAndActiveFlag(legacySessionToken, true);
+    }
+
+    @Override
+    public Optional<Sessions> findByTokenHash(byte[] sessionTokenHash) {
+        return sessionRepository.findBySessionTokenHash(sessionTokenHash);
+    }
+
+    @Override
+    public Optional<Sessions> findByLegacyToken(String legacySessionToken) {
+        return sessionRepository.findByLegacySessionToken(legacySessionToken);
+    }
+
+    @Override
+    public List<Sessions> findActiveByIds(Collection<Integer> sessionIds) {
+        return sessionRepository.findActiveByIds(sessionIds);
+    }
+
+    @Override
+    public List<Sessions> findActiveByTokenHashes(Collection<byte[]> sessionTokenHashes) {
+        return sessionRepository.findActiveByTokenHashes(sessionTokenHashes);
+    }
+
+    @Override
+    public List<Sessions> findActiveByLegacyTokens(Collection<String> legacySessionTokens) {
+        return sessionRepository.findActiveByLegacyTokens(legacySessionTokens);
+    }
+
+    @Override
+    public List<Object[]> findActiveExpiryByUserId(Integer userId) {
+        return sessionRepository.findActiveExpiryByUserId(userId);
+    }
+
+    @Override
+    public List<Object[]> findActiveTokensByUserNames(Collection<String> userNames) {
+        return sessionRepository.findActiveTokensByUserNames(userNames);
+    }
+
+    @Override
+    public List<Object[]> findActiveExpiryByUserIds(Collection<Integer> userIds) {
+        return sessionRepository.findActiveExpiryByUserIds(userIds);
+    }
+
+    @Override
+    public List<Object[]> findActiveExpiryByTokenHashes(Collection<byte[]> sessionTokenHashes) {
+        return sessionRepository.findActiveExpiryByTokenHashes(sessionTokenHashes);
+    }
+
+    @Override
+    public List<Object[]> findActiveExpiryByLegacyTokens(Collection<String> legacySessionTokens) {
+        return sessionRepository.findActiveExpiryByLegacyTokens(legacySessionTokens);
+    }
+
+    @Override
+    public List<Object[]> findActiveExpiryByIds(Collection<Integer> sessionIds) {
+        return sessionRepository.findActiveExpiryByIds(sessionIds);
+    }
+
+    // role sets are resolved per page, so a set interned while a long revoke runs is still picked up
+    @Override
+    public List<Object[]> findActiveExpiryByRole(String roleName, Integer afterId, int limit) {
+        List<Integer> roleSetIds = roleSetRegistry.roleSetIdsContaining(roleName);
+        if (roleSetIds.isEmpty()) {
+            return List.of();
+        }
+        List<Object[]> rows = sessionRepository.findActiveExpiryByRoleSetIds(roleSetIds, afterId, limit);
+        // the native query hands back java.sql.Timestamp, the JPQL projections LocalDateTime
+        rows.forEach(row -> row[1] = row[1] instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : row[1]);
+        return rows;
+    }
+
+    @Override
+    public List<Object[]> findActivePage(Integer afterId, int limit) {
+        return sessionRepository.findActiveIndexPage(afterId, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<Object[]> findRevokedUnexpired(LocalDateTime now) {
+        return sessionRepository.findRevokedUnexpired(now);
+    }
+
+    @Override
+    public List<Object[]> findSupersededUnexpired(LocalDateTime now) {
+        return sessionRepository.findSupersededUnexpired(now);
+    }
+
+    @Override
+    public int touch(Map<Integer, LocalDateTime> lastSeen) {
+        List<Object[]> args = new ArrayList<>(lastSeen.size());
+        lastSeen.forEach((sessionId, seenAt) -> {
+            Timestamp ts = Timestamp.valueOf(seenAt);
+            args.add(new Object[]{ts, sessionId, ts});
+        });
+        int touched = 0;
+        for (int count : jdbcTemplate.batchUpdate(UPDATE_LAST_SEEN, args)) {
+            // a rewritten batch may not report per-row counts
+            touched += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+        }
+        return touched;
+    }
+
+    @Override
+    public int extendActive(Integer sessionId, LocalDateTime expiresAt, LocalDateTime seenAt, LocalDateTime now) {
+        return sessionRepository.extendActive(sessionId, expiresAt, seenAt, now);
+    }
+
+    @Override
+    public int revokeByIds(Collection<Integer> sessionIds, LocalDateTime revokedAt, String revokedBy) {
+        return sessionRepository.revokeAllByIds(sessionIds, revokedAt, revokedBy, Sessions.SessionStatus.REVOKED);
+    }
+
+    @Override
+    @Transactional
+    public List<Integer> revokeActiveByIds(Collection<Integer> sessionIds, LocalDateTime revokedAt, String revokedBy) {
+        List<Integer> active = sessionRepository.lockActiveIds(sessionIds);
+        if (!active.isEmpty()) {
+            sessionRepository.revokeAllByIds(active, revokedAt, revokedBy, Sessions.SessionStatus.REVOKED);
+        }
+        return active;
+    }
+
+    @Override
+    public int revokeByTokenHash(byte[] sessionTokenHash, LocalDateTime revokedAt, String revokedBy) {
+        return sessionRepository.revokeByTokenHash(sessionTokenHash, revokedAt, revokedBy, Sessions.SessionStatus.REVOKED);
+    }
+
+    @Override
+    public int revokeByLegacyToken(String legacySessionToken, LocalDateTime revokedAt, String revokedBy) {
+        return sessionRepository.revokeByLegacyToken(legacySessionToken, revokedAt, revokedBy, Sessions.SessionStatus.REVOKED);
+    }
+
+    @Override
+    public int revokeByUserId(Integer userId, LocalDateTime revokedAt, String revokedBy) {
+        return sessionRepository.revokeAllByUserId(userId, revokedAt, revokedBy, Sessions.SessionStatus.REVOKED);
+    }
+
+    @Override
+    public int revokeByUserNames(Collection<String> userNames, LocalDateTime revokedAt, String revokedBy) {
+        return sessionRepository.revokeAllByUserNames(userNames, revokedAt, revokedBy, Sessions.SessionStatus.REVOKED);
+    }
+
+    @Override
+    @Transactional
+    public List<Integer> expireByIds(List<Integer> sessionIds, LocalDateTime now) {
+        List<Integer> expirable = sessionRepository.lockExpirableIds(sessionIds, now);
+        if (!expirable.isEmpty()) {
+            sessionRepository.expireByIds(expirable, now, Sessions.SessionStatus.EXPIRED);
+        }
+        return expirable;
+    }
+
+    @Override
+    public Page<Sessions> list(Integer userId, String userName, Sessions.SessionStatus status, Boolean activeFlag, Pageable pageable) {
+        return sessionRepository.findByFilters(userId, userName, status, activeFlag, pageable);
+    }
+
+    @Override
+    public Slice<Sessions> listAfter(Integer userId, String userName, Sessions.SessionStatus status, Boolean activeFlag,
+                                     LocalDateTime createdDate, Integer sessionId, Pageable pageable) {
+        if (createdDate == null || sessionId == null) {
+            return sessionRepository.findSliceByFilters(userId, userName, status, activeFlag, pageable);
+        }
+        return sessionRepository.findSliceByFiltersAfter(userId, userName, status, activeFlag, createdDate, sessionId, pageable);
+    }
+
+    @Override
+    public long count(Integer userId, String userName, Sessions.SessionStatus status, Boolean activeFlag) {
+        return Objects.requireNonNullElse(sessionRepository.countByFilters(userId, userName, status, activeFlag), 0L);
+    }
+
+    @Override
+    public PurgeResult purge(LocalDateTime before) {
+        return sessionPurger.purge(before);
+    }
+
+    @Override
+    public boolean usesDatabase() {
+        return true;
+    }
+}
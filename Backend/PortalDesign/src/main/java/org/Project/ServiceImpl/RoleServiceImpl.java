@@ -18,6 +18,7 @@ import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class RoleServiceImpl implements RoleService {
@@ -25,6 +26,15 @@ public class RoleServiceImpl implements RoleService {
     @Autowired
     RoleRepository roleRepository;
 
+    @Autowired
+    SessionCache sessionCache;
+
+    @Autowired
+    ClusterInvalidationLog invalidationLog;
+
+    @Autowired
+    SessionRevocationFilter revocationFilter;
+
     private static final Logger logger = LogManager.getLogger(RoleServiceImpl.class);
     String className = "RoleServiceImpl";
 
@@ -83,6 +93,7 @@ public class RoleServiceImpl implements RoleService {
                 updateRole.setModifiedDate(LocalDateTime.now());
             }
             roleRepository.save(updateRole);
+            invalidateRoleSessions(Set.of(updateRole.getRoleName()));
             return ResponseEntity.status(HttpStatus.OK).body(Collections.singletonMap("message","Role Approved Successfully."));
         }catch (Exception e){
             logger.error("{} {} Error Exception", className, methodName, e);
@@ -119,15 +130,24 @@ public class RoleServiceImpl implements RoleService {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Collections.singletonMap("error","Role Name or Id does not exist"));
             }
             RoleMaster update = updateRole.get();
+            String previousName = update.getRoleName();
             update.setRoleName(role.getRoleName());
             update.setRoleDesc(role.getRoleDesc());
             update.setCreatedBy(role.getCreatedBy());
             update.setCreatedDate(LocalDateTime.now());
             update.setActiveFlag(false);
             roleRepository.save(update);
+            invalidateRoleSessions(previousName == null ? Set.of(role.getRoleName()) : Set.copyOf(List.of(previousName, role.getRoleName())));
             return ResponseEntity.status(HttpStatus.OK).body(Collections.singletonMap("message","Role Updated Successfully. Sent for Approval"));
         }catch (Exception e){
             logger.error("{} {} Error Exception", className, methodName, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Collections.singletonMap("error","Failed To Create Role"));
         }    }
+
+    // cached validations and signed tokens carry role names; drop them here and on every other node through the invalidation log
+    private void invalidateRoleSessions(Set<String> roleNames) {
+        roleNames.forEach(sessionCache::invalidateRoleName);
+        revocationFilter.rolesChanged(roleNames);
+        invalidationLog.append(roleNames.stream().map(ClusterInvalidationLog::role).toList());
+    }
 }
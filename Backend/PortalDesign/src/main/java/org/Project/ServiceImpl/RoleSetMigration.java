@@ -0,0 +1,108 @@
+package org.Project.ServiceImpl;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-off move of legacy SESSION_ROLES rows onto TBL_SESSION.ROLE_SET_ID. Runs at startup ahead of the index and expiry
+ * rebuilds, a chunk of sessions per transaction, deleting the child rows it has converted so an interrupted run simply resumes.
+ * Once SESSION_ROLES is empty (or absent) this is a single cheap query and the table can be dropped.
+ */
+@Component
+@ConditionalOnProperty(name = "session.store.type", havingValue = "jpa", matchIfMissing = true)
+public class RoleSetMigration {
+
+    private static final Logger logger = LogManager.getLogger(RoleSetMigration.class);
+    private final String className = "RoleSetMigration";
+
+    private static final String LOCK_NAME = "role-set-migration";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    RoleSetRegistry roleSetRegistry;
+
+    @Autowired
+    ClusterLock clusterLock;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Value("${session.roles.migration-chunk-size:1000}")
+    int chunkSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void migrate() {
+        String methodName = "migrate";
+        try {
+            jdbcTemplate.queryForList("SELECT SESSION_ID FROM SESSION_ROLES LIMIT 1", Integer.class);
+        } catch (DataAccessException e) {
+            logger.info("{} {} no SESSION_ROLES table, nothing to migrate", className, methodName);
+            return;
+        }
+        if (!clusterLock.tryLock(LOCK_NAME, Duration.ofMinutes(10))) {
+            logger.info("{} {} skipped, another node is migrating", className, methodName);
+            return;
+        }
+        TransactionTemplate chunkTransaction = new TransactionTemplate(transactionManager);
+        chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        int migrated = 0;
+        try {
+            while (true) {
+                Integer converted = chunkTransaction.execute(status -> migrateChunk());
+                if (converted == null || converted == 0) {
+                    break;
+                }
+                migrated += converted;
+                clusterLock.tryLock(LOCK_NAME, Duration.ofMinutes(10));
+            }
+            int withoutRoles = jdbcTemplate.update("UPDATE TBL_SESSION SET ROLE_SET_ID = ? WHERE ROLE_SET_ID IS NULL", RoleSetRegistry.EMPTY_ROLE_SET);
+            logger.info("{} {} migrated : {} withoutRoles : {}", className, methodName, migrated, withoutRoles);
+        } catch (Exception e) {
+            logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+        } finally {
+            clusterLock.unlock(LOCK_NAME);
+        }
+    }
+
+    private int migrateChunk() {
+        List<Integer> sessionIds = jdbcTemplate.queryForList(
+                "SELECT DISTINCT SESSION_ID FROM SESSION_ROLES ORDER BY SESSION_ID LIMIT ?", Integer.class, chunkSize);
+        if (sessionIds.isEmpty()) {
+            return 0;
+        }
+        int fromId = sessionIds.get(0);
+        int toId = sessionIds.get(sessionIds.size() - 1);
+        Map<Integer, List<String>> roles = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT SESSION_ID, ROLE_NAME FROM SESSION_ROLES WHERE SESSION_ID BETWEEN ? AND ?",
+                rs -> {
+                    roles.computeIfAbsent(rs.getInt(1), id -> new ArrayList<>()).add(rs.getString(2));
+                }, fromId, toId);
+        List<Object[]> args = new ArrayList<>(roles.size());
+        roles.forEach((sessionId, roleNames) -> args.add(new Object[]{roleSetRegistry.intern(roleNames), sessionId}));
+        jdbcTemplate.batchUpdate("UPDATE TBL_SESSION SET ROLE_SET_ID = ? WHERE SESSION_ID = ?", args);
+        jdbcTemplate.update("DELETE FROM SESSION_ROLES WHERE SESSION_ID BETWEEN ? AND ?", fromId, toId);
+        return roles.size();
+    }
+}
@@ -0,0 +1,211 @@
+package org.Project.ServiceImpl;
+
+import org.Project.Entity.RoleSet;
+import org.Project.Repository.RoleSetRepository;
+import org.Project.Repository.SessionStore;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns role-name sets in TBL_ROLE_SET so sessions sharing the same roles share one small integer id, resolved back to names
+ * from memory. Id 0 is always the empty set and has no row. Sets are keyed by content digest, so every node agrees on the id;
+ * a set created on another node is loaded on first sight. The repository is injected lazily because the JPA converter that
+ * uses this registry is built while the EntityManagerFactory itself is being created. With a store that keeps no sessions in
+ * the database, ids are handed out from memory instead and never outlive the process, as the sessions using them do not.
+ */
+@Component
+public class RoleSetRegistry {
+
+    private static final Logger logger = LogManager.getLogger(RoleSetRegistry.class);
+    private final String className = "RoleSetRegistry";
+
+    public static final int EMPTY_ROLE_SET = 0;
+
+    @Lazy
+    @Autowired
+    RoleSetRepository roleSetRepository;
+
+    @Lazy
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Lazy
+    @Autowired
+    SessionStore sessionStore;
+
+    private final Map<List<String>, Integer> idsByRoles = new ConcurrentHashMap<>();
+    private final Map<Integer, List<String>> rolesById = new ConcurrentHashMap<>();
+    private final Map<Long, List<String>> rolesByDigest = new ConcurrentHashMap<>();
+    private volatile TransactionTemplate ownTransaction;
+    private int lastLocalId = EMPTY_ROLE_SET;
+
+    public RoleSetRegistry() {
+        register(EMPTY_ROLE_SET, List.of());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        String methodName = "load";
+        if (!sessionStore.usesDatabase()) {
+            return;
+        }
+        try {
+            List<RoleSet> roleSets = inOwnTransaction().execute(status -> roleSetRepository.findAll());
+            roleSets.forEach(this::register);
+            logger.info("{} {} loaded : {}", className, methodName, roleSets.size());
+        } catch (Exception e) {
+            logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+        }
+    }
+
+    public int intern(Collection<String> roleNames) {
+        List<String> canonical = canonical(roleNames);
+        Integer id = idsByRoles.get(canonical);
+        if (id != null) {
+            return id;
+        }
+        if (!sessionStore.usesDatabase()) {
+            return internLocally(canonical);
+        }
+        // a new set is committed on its own so the id stays valid even if the caller's transaction rolls back
+        RoleSet roleSet = inOwnTransaction().execute(status -> findOrCreate(canonical));
+        register(roleSet);
+        return roleSet.getRoleSetId();
+    }
+
+    public List<String> resolve(int roleSetId) {
+        List<String> roles = rolesById.get(roleSetId);
+        if (roles == null) {
+            RoleSet roleSet = sessionStore.usesDatabase()
+                    ? inOwnTransaction().execute(status -> roleSetRepository.findById(roleSetId).orElse(null)) : null;
+            if (roleSet == null) {
+                logger.warn("{} resolve unknown roleSetId : {}", className, roleSetId);
+                return List.of();
+            }
+            roles = register(roleSet);
+        }
+        return roles;
+    }
+
+    /** Ids of every role set, on any node, that includes the given role. Re-reads TBL_ROLE_SET, which holds one row per distinct set. */
+    public List<Integer> roleSetIdsContaining(String roleName) {
+        String role = roleName == null ? "" : roleName.trim();
+        List<Integer> ids = new ArrayList<>();
+        if (!sessionStore.usesDatabase()) {
+            rolesById.forEach((id, roles) -> {
+                if (roles.contains(role)) {
+                    ids.add(id);
+                }
+            });
+            return ids;
+        }
+        List<RoleSet> roleSets = inOwnTransaction().execute(status -> roleSetRepository.findAll());
+        for (RoleSet roleSet : roleSets) {
+            if (register(roleSet).contains(role)) {
+                ids.add(roleSet.getRoleSetId());
+            }
+        }
+        return ids;
+    }
+
+    /** Content digest of a role set, stable across nodes and restarts; first eight bytes of SHA-256 over the sorted names. */
+    public long digest(Collection<String> roleNames) {
+        return digestOf(canonical(roleNames));
+    }
+
+    /** Role names for a digest produced by {@link #digest}, or null if no node has interned that set. */
+    public List<String> resolveDigest(long digest) {
+        List<String> roles = rolesByDigest.get(digest);
+        if (roles == null && sessionStore.usesDatabase()) {
+            RoleSet roleSet = inOwnTransaction().execute(status -> roleSetRepository.findByRoleDigest(digest).orElse(null));
+            roles = roleSet == null ? null : register(roleSet);
+        }
+        return roles;
+    }
+
+    private synchronized int internLocally(List<String> canonical) {
+        Integer id = idsByRoles.get(canonical);
+        if (id == null) {
+            id = ++lastLocalId;
+            register(id, canonical);
+        }
+        return id;
+    }
+
+    private RoleSet findOrCreate(List<String> canonical) {
+        long digest = digestOf(canonical);
+        return roleSetRepository.findByRoleDigest(digest).orElseGet(() -> {
+            RoleSet roleSet = new RoleSet();
+            roleSet.setRoleDigest(digest);
+            roleSet.setRoleNames(String.join("\n", canonical));
+            try {
+                return roleSetRepository.saveAndFlush(roleSet);
+            } catch (DataIntegrityViolationException e) {
+                // another node interned the same set first
+                return roleSetRepository.findByRoleDigest(digest).orElseThrow(() -> e);
+            }
+        });
+    }
+
+    private List<String> register(RoleSet roleSet) {
+        List<String> roles = roleSet.getRoleNames() == null || roleSet.getRoleNames().isEmpty()
+                ? List.of() : List.copyOf(Arrays.asList(roleSet.getRoleNames().split("\n")));
+        register(roleSet.getRoleSetId(), roles);
+        return roles;
+    }
+
+    private void register(int roleSetId, List<String> roles) {
+        idsByRoles.put(roles, roleSetId);
+        rolesById.put(roleSetId, roles);
+        rolesByDigest.put(digestOf(roles), roles);
+    }
+
+    private TransactionTemplate inOwnTransaction() {
+        TransactionTemplate template = ownTransaction;
+        if (template == null) {
+            template = new TransactionTemplate(transactionManager);
+            template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            ownTransaction = template;
+        }
+        return template;
+    }
+
+    private static long digestOf(List<String> canonical) {
+        byte[] hash = TokenDigest.sha256(String.join("\n", canonical));
+        long digest = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            digest = (digest << 8) | (hash[i] & 0xFF);
+        }
+        return digest;
+    }
+
+    static List<String> canonical(Collection<String> roleNames) {
+        if (roleNames == null || roleNames.isEmpty()) {
+            return List.of();
+        }
+        TreeSet<String> sorted = new TreeSet<>();
+        for (String roleName : roleNames) {
+            if (roleName != null && !roleName.isBlank()) {
+                sorted.add(roleName.trim());
+            }
+        }
+        return List.copyOf(sorted);
+    }
+}
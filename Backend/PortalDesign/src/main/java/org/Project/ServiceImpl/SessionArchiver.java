@@ -0,0 +1,348 @@
+package org.Project.ServiceImpl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.Project.Entity.Sessions;
+import org.Project.Repository.SessionRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves closed sessions (REVOKED, EXPIRED, LOGGED_OUT) out of TBL_SESSION into gzip NDJSON segment files under
+ * {@code session.archive.dir}, one directory per CREATED_DATE day ({@code dt=yyyy-MM-dd}). Rows are read through a
+ * streaming JPA query and detached as they go, so memory stays flat however large the backlog. A segment is written to a
+ * temp file, fsynced, renamed into place and recorded in the day's manifest.ndjson with its record count, id range and the
+ * SHA-256 of the file; only then are its rows deleted, so a crash can at worst archive a row twice, never lose one.
+ * Runs on the node holding the "session-archive" lease; the directory should be shared storage if more than one node
+ * serves the read-back endpoint.
+ */
+@Component
+public class SessionArchiver {
+
+    private static final Logger logger = LogManager.getLogger(SessionArchiver.class);
+    private final String className = "SessionArchiver";
+
+    private static final String LOCK_NAME = "session-archive";
+    private static final String MANIFEST = "manifest.ndjson";
+    private static final EnumSet<Sessions.SessionStatus> CLOSED =
+            EnumSet.of(Sessions.SessionStatus.REVOKED, Sessions.SessionStatus.EXPIRED, Sessions.SessionStatus.LOGGED_OUT);
+
+    @Autowired
+    SessionRepository sessionRepository;
+
+    @Autowired
+    ClusterLock clusterLock;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    SessionMetaDataCodec metaDataCodec;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Value("${session.archive.enabled:false}")
+    boolean enabled;
+
+    @Value("${session.archive.dir:./session-archive}")
+    String archiveDir;
+
+    @Value("${session.archive.after-days:7}")
+    int afterDays;
+
+    @Value("${session.archive.segment-records:50000}")
+    int segmentRecords;
+
+    @Value("${session.archive.delete-batch-size:1000}")
+    int deleteBatchSize;
+
+    @Value("${session.archive.lease-seconds:600}")
+    long leaseSeconds;
+
+    private TransactionTemplate streamTransaction;
+    private TransactionTemplate deleteTransaction;
+    private final LongAdder archived = new LongAdder();
+    private final LongAdder segments = new LongAdder();
+
+    public record ArchiveResult(boolean ran, long sessionsArchived, int segments) {
+    }
+
+    @PostConstruct
+    void init() {
+        streamTransaction = new TransactionTemplate(transactionManager);
+        streamTransaction.setReadOnly(true);
+        deleteTransaction = new TransactionTemplate(transactionManager);
+        deleteTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        FunctionCounter.builder("session.archive.sessions", archived, LongAdder::sum)
+                .description("Closed sessions written to archive segments and deleted from TBL_SESSION").register(meterRegistry);
+        FunctionCounter.builder("session.archive.segments", segments, LongAdder::sum)
+                .description("Archive segment files written").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${session.archive.cron:0 0 3 * * *}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archive(LocalDateTime.now().minusDays(afterDays));
+        }
+    }
+
+    /** Archives sessions closed and created before the cutoff; returns ran=false if another node holds the lease. */
+    public ArchiveResult archive(LocalDateTime before) {
+        String methodName = "archive";
+        Duration lease = Duration.ofSeconds(leaseSeconds);
+        if (!clusterLock.tryLock(LOCK_NAME, lease)) {
+            logger.info("{} {} skipped, lease held by another node", className, methodName);
+            return new ArchiveResult(false, 0, 0);
+        }
+        long started = System.currentTimeMillis();
+        Run run = new Run(lease);
+        try {
+            streamTransaction.executeWithoutResult(status -> {
+                try (Stream<Sessions> closed = sessionRepository.streamClosedBefore(CLOSED, before)) {
+                    closed.forEach(run::append);
+                }
+            });
+            run.finishSegment();
+        } catch (Exception e) {
+            logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+            run.abandonSegment();
+        } finally {
+            clusterLock.unlock(LOCK_NAME);
+        }
+        logger.info("{} {} before : {} archived : {} segments : {} in {} ms", className, methodName, before, run.archivedCount,
+                run.segmentCount, System.currentTimeMillis() - started);
+        return new ArchiveResult(true, run.archivedCount, run.segmentCount);
+    }
+
+    /** Streams the archived sessions of one user as NDJSON, oldest day first; from and to are inclusive and optional. */
+    public void readUserHistory(int userId, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        Path root = Paths.get(archiveDir);
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        List<Path> days;
+        try (Stream<Path> listing = Files.list(root)) {
+            days = listing.filter(dir -> dir.getFileName().toString().startsWith("dt=")).sorted().toList();
+        }
+        // lines are written by this class with sessionId then userId first; quotes inside string values are escaped
+        String needle = ",\"userId\":" + userId + ",";
+        for (Path day : days) {
+            LocalDate date = LocalDate.parse(day.getFileName().toString().substring(3));
+            if ((from != null && date.isBefore(from)) || (to != null && date.isAfter(to)) || !Files.exists(day.resolve(MANIFEST))) {
+                continue;
+            }
+            for (String entry : Files.readAllLines(day.resolve(MANIFEST), StandardCharsets.UTF_8)) {
+                Path segment = day.resolve(objectMapper.readTree(entry).get("file").asText());
+                try (InputStream in = new GZIPInputStream(Files.newInputStream(segment), 64 * 1024);
+                     BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.contains(needle)) {
+                            out.write(line.getBytes(StandardCharsets.UTF_8));
+                            out.write('\n');
+                        }
+                    }
+                }
+                out.flush();
+            }
+        }
+    }
+
+    private Map<String, Object> record(Sessions session) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("sessionId", session.getSessionId());
+        line.put("userId", session.getUserId());
+        line.put("userName", session.getUserName());
+        line.put("roles", session.getRoleName());
+        line.put("status", session.getStatus());
+        line.put("ipAddress", session.getIpAddress());
+        line.put("userAgent", session.getUserAgent());
+        line.put("createdBy", session.getCreatedBy());
+        line.put("createdDate", session.getCreatedDate());
+        line.put("lastSeenAt", session.getLastSeenAt());
+        line.put("expiresAt", session.getExpiresAt());
+        line.put("revokedAt", session.getRevokedAt());
+        line.put("revokedBy", session.getRevokedBy());
+        line.put("metaData", metaDataCodec.json(session));
+        return line;
+    }
+
+    private final class Run {
+        final Duration lease;
+        long archivedCount;
+        int segmentCount;
+        Segment segment;
+
+        Run(Duration lease) {
+            this.lease = lease;
+        }
+
+        void append(Sessions session) {
+            try {
+                LocalDate day = session.getCreatedDate().toLocalDate();
+                if (segment != null && (!segment.day.equals(day) || segment.count >= segmentRecords)) {
+                    finishSegment();
+                }
+                if (segment == null) {
+                    segment = new Segment(day);
+                }
+                segment.write(session.getSessionId(), objectMapper.writeValueAsBytes(record(session)));
+                entityManager.detach(session);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to write archive segment", e);
+            }
+        }
+
+        void finishSegment() throws IOException {
+            if (segment == null) {
+                return;
+            }
+            Segment finished = segment;
+            segment = null;
+            finished.commit();
+            int deleted = 0;
+            for (int from = 0; from < finished.count; from += deleteBatchSize) {
+                List<Integer> ids = new ArrayList<>(Math.min(deleteBatchSize, finished.count - from));
+                for (int i = from; i < Math.min(finished.count, from + deleteBatchSize); i++) {
+                    ids.add(finished.sessionIds[i]);
+                }
+                deleted += deleteTransaction.execute(status -> sessionRepository.deleteArchived(ids));
+            }
+            archivedCount += deleted;
+            segmentCount++;
+            archived.add(deleted);
+            segments.increment();
+            if (!clusterLock.tryLock(LOCK_NAME, lease)) {
+                throw new IllegalStateException("Lost the archive lease");
+            }
+        }
+
+        void abandonSegment() {
+            if (segment != null) {
+                segment.discard();
+                segment = null;
+            }
+        }
+    }
+
+    private final class Segment {
+        final LocalDate day;
+        final Path dir;
+        final Path temp;
+        final FileChannel channel;
+        final DigestOutputStream digestOut;
+        final GZIPOutputStream gzip;
+        int[] sessionIds = new int[1024];
+        int count;
+
+        Segment(LocalDate day) throws IOException {
+            this.day = day;
+            this.dir = Paths.get(archiveDir, "dt=" + day);
+            Files.createDirectories(dir);
+            this.temp = Files.createTempFile(dir, "segment-", ".tmp");
+            this.channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+            MessageDigest sha256;
+            try {
+                sha256 = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            // the checksum covers the compressed bytes, i.e. exactly what is on disk
+            this.digestOut = new DigestOutputStream(Channels.newOutputStream(channel), sha256);
+            this.gzip = new GZIPOutputStream(digestOut, 64 * 1024);
+        }
+
+        void write(int sessionId, byte[] json) throws IOException {
+            gzip.write(json);
+            gzip.write('\n');
+            if (count == sessionIds.length) {
+                sessionIds = Arrays.copyOf(sessionIds, count * 2);
+            }
+            sessionIds[count++] = sessionId;
+        }
+
+        void commit() throws IOException {
+            gzip.finish();
+            digestOut.flush();
+            channel.force(true);
+            long bytes = channel.size();
+            channel.close();
+            int firstId = sessionIds[0];
+            int lastId = sessionIds[count - 1];
+            String file = "sessions-" + firstId + "-" + lastId + "-" + System.currentTimeMillis() + ".ndjson.gz";
+            Files.move(temp, dir.resolve(file), StandardCopyOption.ATOMIC_MOVE);
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("file", file);
+            entry.put("records", count);
+            entry.put("firstSessionId", firstId);
+            entry.put("lastSessionId", lastId);
+            entry.put("bytes", bytes);
+            entry.put("sha256", HexFormat.of().formatHex(digestOut.getMessageDigest().digest()));
+            entry.put("archivedAt", LocalDateTime.now());
+            try (FileChannel manifest = FileChannel.open(dir.resolve(MANIFEST), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                manifest.write(ByteBuffer.wrap((objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8)));
+                manifest.force(true);
+            }
+        }
+
+        void discard() {
+            try {
+                channel.close();
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                logger.warn("{} discard could not remove {} : {}", className, temp, e.toString());
+            }
+        }
+    }
+}
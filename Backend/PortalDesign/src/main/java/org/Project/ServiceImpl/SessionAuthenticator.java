@@ -0,0 +1,110 @@
+package org.Project.ServiceImpl;
+
+import org.Project.Entity.Sessions;
+import org.Project.Repository.SessionStore;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Resolves a presented token to its session for request authentication, cache first: a near-cache hit costs one map lookup
+ * and touches nothing else. Misses go through the same checks as validate-session-token (signature and revocation filter for
+ * signed tokens, the off-heap index for opaque ones). A signed token carrying its userName is then answered from its claims
+ * and an active index hit from the index; anything else costs one primary key or digest lookup, and the result is cached.
+ * Never writes; an expired session is simply not authenticated and is left to the timing wheel.
+ */
+@Component
+public class SessionAuthenticator {
+
+    private static final Logger logger = LogManager.getLogger(SessionAuthenticator.class);
+    private final String className = "SessionAuthenticator";
+
+    @Autowired
+    SessionCache sessionCache;
+
+    @Autowired
+    SessionStore sessionStore;
+
+    @Autowired
+    SignedSessionTokens signedTokens;
+
+    @Autowired
+    SessionRevocationFilter revocationFilter;
+
+    @Autowired
+    SessionIndex sessionIndex;
+
+    @Autowired
+    SessionTokenStorage tokenStorage;
+
+    @Autowired
+    SessionLastSeenBuffer lastSeenBuffer;
+
+    /** The active session behind the token, or null when it is unknown, revoked or expired. */
+    public SessionCache.CachedSession resolve(String sessionToken) {
+        String methodName = "resolve";
+        if (sessionToken == null || sessionToken.isBlank()) {
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        SessionCache.CachedSession cached = sessionCache.get(sessionToken);
+        if (cached != null) {
+            lastSeenBuffer.touch(cached.sessionId(), now);
+            return cached;
+        }
+        try {
+            long nowSecond = SessionIndex.epochSecond(now);
+            SignedSessionTokens.Claims claims = null;
+            if (signedTokens.isSigned(sessionToken)) {
+                claims = signedTokens.verify(sessionToken);
+                if (claims == null || revocationFilter.rejects(claims) || claims.expiresAtEpochSecond() <= nowSecond) {
+                    return null;
+                }
+                SessionCache.CachedSession fromClaims = signedTokens.toSession(claims);
+                if (fromClaims != null) {
+                    lastSeenBuffer.touch(fromClaims.sessionId(), now);
+                    return fromClaims;
+                }
+            } else {
+                SessionIndex.Entry indexed = sessionIndex.get(sessionToken);
+                if (indexed == null ? sessionIndex.isAuthoritative() : !indexed.isActiveAt(nowSecond)) {
+                    return null;
+                }
+                SessionCache.CachedSession fromIndex = indexed == null ? null : sessionIndex.toSession(indexed);
+                if (fromIndex != null) {
+                    lastSeenBuffer.touch(fromIndex.sessionId(), now);
+                    return fromIndex;
+                }
+            }
+            long cacheStamp = sessionCache.stamp();
+            Optional<Sessions> found = load(sessionToken, claims);
+            if (found.isEmpty() || (found.get().getExpiresAt() != null && found.get().getExpiresAt().isBefore(now))) {
+                return null;
+            }
+            Sessions session = found.get();
+            lastSeenBuffer.touch(session.getSessionId(), now);
+            sessionCache.put(sessionToken, session, cacheStamp);
+            return SessionCache.CachedSession.of(session, null);
+        } catch (Exception e) {
+            logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+            return null;
+        }
+    }
+
+    // claims is set for a signed token that has already been verified
+    private Optional<Sessions> load(String sessionToken, SignedSessionTokens.Claims claims) {
+        if (claims != null) {
+            return sessionStore.findActiveById(claims.sessionId()).filter(session -> SignedSessionTokens.describes(claims, session));
+        }
+        Optional<Sessions> session = sessionStore.findActiveByTokenHash(TokenDigest.sha256(sessionToken));
+        if (session.isEmpty() && tokenStorage.dualRead()) {
+            session = sessionStore.findActiveByLegacyToken(sessionToken);
+        }
+        session.ifPresent(s -> s.setSessionToken(sessionToken));
+        return session;
+    }
+}
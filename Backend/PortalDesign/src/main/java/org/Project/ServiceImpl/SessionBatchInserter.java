@@ -0,0 +1,84 @@
+package org.Project.ServiceImpl;
+
+import org.Project.Entity.Sessions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserts new sessions with one JDBC batch instead of a persist per row, and writes the generated SESSION_IDs back onto the
+ * passed objects. Runs in the caller's transaction. With MySQL, {@code rewriteBatchedStatements=true} on the JDBC URL turns
+ * the batch into multi-row INSERTs.
+ */
+@Component
+@ConditionalOnProperty(name = "session.store.type", havingValue = "jpa", matchIfMissing = true)
+public class SessionBatchInserter {
+
+    private static final String INSERT_SESSION = "INSERT INTO TBL_SESSION (SESSION_TOKEN_HASH, SESSION_TOKEN, USER_ID, USER_NAME, ROLE_SET_ID, STATUS, "
+            + "IP_ADDRESS, USER_AGENT, CREATED_BY, CREATED_DATE, LAST_SEEN_AT, EXPIRES_AT, META_DATA, META_DATA_BIN, ACTIVE_FLAG) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    RoleSetRegistry roleSetRegistry;
+
+    public void insert(List<Sessions> sessions) {
+        if (sessions.isEmpty()) {
+            return;
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SESSION, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Sessions session = sessions.get(i);
+                        ps.setBytes(1, session.getSessionTokenHash());
+                        ps.setString(2, session.getLegacySessionToken());
+                        ps.setObject(3, session.getUserId(), Types.INTEGER);
+                        ps.setString(4, session.getUserName());
+                        ps.setInt(5, roleSetRegistry.intern(session.getRoleName()));
+                        ps.setString(6, session.getStatus().name());
+                        ps.setString(7, session.getIpAddress());
+                        ps.setString(8, session.getUserAgent());
+                        ps.setString(9, session.getCreatedBy());
+                        ps.setTimestamp(10, timestamp(session.getCreatedDate()));
+                        ps.setTimestamp(11, timestamp(session.getLastSeenAt()));
+                        ps.setTimestamp(12, timestamp(session.getExpiresAt()));
+                        ps.setString(13, session.getMetaData());
+                        ps.setBytes(14, session.getMetaDataBin());
+                        ps.setBoolean(15, session.getActiveFlag());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return sessions.size();
+                    }
+                }, keyHolder);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != sessions.size()) {
+            throw new IllegalStateException("Expected " + sessions.size() + " generated session ids, got " + keys.size());
+        }
+        for (int i = 0; i < sessions.size(); i++) {
+            sessions.get(i).setSessionId(((Number) keys.get(i).values().iterator().next()).intValue());
+        }
+    }
+
+    private static Timestamp timestamp(LocalDateTime dateTime) {
+        return dateTime == null ? null : Timestamp.valueOf(dateTime);
+    }
+}
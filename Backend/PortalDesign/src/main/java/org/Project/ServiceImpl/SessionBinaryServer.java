@@ -0,0 +1,361 @@
+package org.Project.ServiceImpl;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token validation for sidecars on the same host without HTTP and JSON, enabled with {@code session.binary.enabled=true}. Listens
+ * on TCP ({@code session.binary.port}, loopback by default) and on a Unix domain socket ({@code session.binary.unix-socket-path})
+ * with one selector thread. Every frame is a 4-byte big-endian length and a body: a request body is the token in UTF-8, a
+ * response body is [valid u8][userId i32][expiresAt epoch second i64][roleSetId i32], zeros when invalid. The roleSetId is the
+ * interned ROLE_SET_ID the session carries. Requests can be pipelined and are answered in order on their connection.
+ * <p>
+ * Validation is {@link SessionAuthenticator#resolve}, the check the request filter uses, so a near-cache hit is one map lookup
+ * and a miss reads the store. A miss can block, so the selector never validates: each connection drains its parsed requests on
+ * a virtual thread and hands the responses back to the selector to write. Reading stops while a connection has
+ * {@code session.binary.max-pipelined} requests waiting, and a frame longer than {@code session.binary.max-token-bytes} closes it.
+ */
+@Component
+@ConditionalOnProperty(name = "session.binary.enabled", havingValue = "true")
+public class SessionBinaryServer {
+
+    private static final Logger logger = LogManager.getLogger(SessionBinaryServer.class);
+    private final String className = "SessionBinaryServer";
+
+    static final int LENGTH_BYTES = 4;
+    static final int RESPONSE_BYTES = 1 + 4 + 8 + 4;
+
+    @Autowired
+    SessionAuthenticator authenticator;
+
+    @Autowired
+    RoleSetRegistry roleSetRegistry;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    // 0 disables the TCP listener
+    @Value("${session.binary.port:7071}")
+    int port;
+
+    @Value("${session.binary.bind-address:127.0.0.1}")
+    String bindAddress;
+
+    // empty disables the Unix domain socket listener
+    @Value("${session.binary.unix-socket-path:}")
+    String unixSocketPath;
+
+    @Value("${session.binary.max-token-bytes:1024}")
+    int maxTokenBytes;
+
+    @Value("${session.binary.max-pipelined:1024}")
+    int maxPipelined;
+
+    private Selector selector;
+    private Thread selectorThread;
+    private volatile boolean running;
+    private final List<ServerSocketChannel> listeners = new ArrayList<>();
+    // connections whose worker queued responses or freed pipeline room, for the selector to pick up
+    private final ConcurrentLinkedQueue<Connection> ready = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final LongAdder valid = new LongAdder();
+    private final LongAdder invalid = new LongAdder();
+
+    private final class Connection {
+        final SocketChannel channel;
+        final SelectionKey key;
+        final ByteBuffer in;
+        // parsed tokens and encoded responses, guarded by the connection
+        final ArrayDeque<String> requests = new ArrayDeque<>();
+        final ArrayDeque<ByteBuffer> responses = new ArrayDeque<>();
+        boolean draining;
+        boolean closed;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+            this.in = ByteBuffer.allocate(LENGTH_BYTES + maxTokenBytes);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        String methodName = "start";
+        try {
+            selector = Selector.open();
+            if (port > 0) {
+                ServerSocketChannel tcp = ServerSocketChannel.open(StandardProtocolFamily.INET);
+                tcp.bind(new InetSocketAddress(bindAddress, port), 1024);
+                listen(tcp);
+                logger.info("{} {} tcp : {}:{}", className, methodName, bindAddress, port);
+            }
+            if (!unixSocketPath.isBlank()) {
+                Path path = Path.of(unixSocketPath);
+                // a socket file left by a previous run would fail the bind
+                Files.deleteIfExists(path);
+                ServerSocketChannel unix = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+                unix.bind(UnixDomainSocketAddress.of(path), 1024);
+                listen(unix);
+                logger.info("{} {} unix : {}", className, methodName, path);
+            }
+            FunctionCounter.builder("session.binary.requests", valid, LongAdder::sum).tag("result", "valid")
+                    .description("Binary protocol validations").register(meterRegistry);
+            FunctionCounter.builder("session.binary.requests", invalid, LongAdder::sum).tag("result", "invalid")
+                    .description("Binary protocol validations").register(meterRegistry);
+            Gauge.builder("session.binary.connections", connections, AtomicInteger::get)
+                    .description("Open binary protocol connections").register(meterRegistry);
+            running = true;
+            selectorThread = Thread.ofPlatform().name("session-binary-selector").daemon().start(this::selectLoop);
+        } catch (IOException e) {
+            logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+            stop();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        if (selectorThread != null) {
+            try {
+                selectorThread.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else if (selector != null) {
+            closeQuietly(selector);
+        }
+        for (ServerSocketChannel listener : listeners) {
+            closeQuietly(listener);
+        }
+        if (!unixSocketPath.isBlank()) {
+            try {
+                Files.deleteIfExists(Path.of(unixSocketPath));
+            } catch (IOException ignored) {
+                // nothing to clean up
+            }
+        }
+    }
+
+    private void listen(ServerSocketChannel listener) throws IOException {
+        listener.configureBlocking(false);
+        listener.register(selector, SelectionKey.OP_ACCEPT);
+        listeners.add(listener);
+    }
+
+    private void selectLoop() {
+        String methodName = "selectLoop";
+        while (running) {
+            try {
+                selector.select();
+                Connection connection;
+                while ((connection = ready.poll()) != null) {
+                    updateInterest(connection);
+                }
+                var selected = selector.selectedKeys().iterator();
+                while (selected.hasNext()) {
+                    SelectionKey key = selected.next();
+                    selected.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept((ServerSocketChannel) key.channel());
+                        continue;
+                    }
+                    Connection conn = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            read(conn);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            write(conn);
+                        }
+                    } catch (IOException e) {
+                        close(conn);
+                    }
+                }
+            } catch (Exception e) {
+                logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+            }
+        }
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection conn) {
+                close(conn);
+            }
+        }
+        closeQuietly(selector);
+    }
+
+    private void accept(ServerSocketChannel listener) throws IOException {
+        SocketChannel channel = listener.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        // responses are tiny; without this a pipelined window stalls on Nagle against the client's delayed ACK
+        if (channel.supportedOptions().contains(StandardSocketOptions.TCP_NODELAY)) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        }
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        key.attach(new Connection(channel, key));
+        connections.incrementAndGet();
+    }
+
+    // parses every complete frame in the buffer; a partial frame stays for the next read
+    private void read(Connection conn) throws IOException {
+        if (conn.channel.read(conn.in) < 0) {
+            close(conn);
+            return;
+        }
+        conn.in.flip();
+        List<String> parsed = new ArrayList<>();
+        while (conn.in.remaining() >= LENGTH_BYTES) {
+            int length = conn.in.getInt(conn.in.position());
+            if (length <= 0 || length > maxTokenBytes) {
+                logger.warn("{} read closing connection, frame length : {}", className, length);
+                close(conn);
+                return;
+            }
+            if (conn.in.remaining() < LENGTH_BYTES + length) {
+                break;
+            }
+            conn.in.position(conn.in.position() + LENGTH_BYTES);
+            byte[] token = new byte[length];
+            conn.in.get(token);
+            parsed.add(new String(token, StandardCharsets.UTF_8));
+        }
+        conn.in.compact();
+        if (parsed.isEmpty()) {
+            return;
+        }
+        boolean startWorker;
+        synchronized (conn) {
+            conn.requests.addAll(parsed);
+            startWorker = !conn.draining;
+            conn.draining = true;
+            if (conn.requests.size() >= maxPipelined) {
+                conn.key.interestOps(conn.key.interestOps() & ~SelectionKey.OP_READ);
+            }
+        }
+        if (startWorker) {
+            Thread.ofVirtual().name("session-binary-worker").start(() -> drain(conn));
+        }
+    }
+
+    // runs on the connection's virtual thread until its request queue is empty
+    private void drain(Connection conn) {
+        while (true) {
+            String token;
+            synchronized (conn) {
+                token = conn.requests.poll();
+                if (token == null || conn.closed) {
+                    conn.draining = false;
+                    return;
+                }
+            }
+            ByteBuffer response = encode(authenticator.resolve(token));
+            synchronized (conn) {
+                conn.responses.add(response);
+            }
+            ready.add(conn);
+            selector.wakeup();
+        }
+    }
+
+    private ByteBuffer encode(SessionCache.CachedSession session) {
+        ByteBuffer response = ByteBuffer.allocate(LENGTH_BYTES + RESPONSE_BYTES);
+        response.putInt(RESPONSE_BYTES);
+        if (session == null) {
+            invalid.increment();
+            response.put((byte) 0).putInt(0).putLong(0).putInt(0);
+        } else {
+            valid.increment();
+            response.put((byte) 1)
+                    .putInt(session.userId() == null ? 0 : session.userId())
+                    .putLong(session.expiresAt() == null ? 0 : SessionIndex.epochSecond(session.expiresAt()))
+                    .putInt(roleSetRegistry.intern(session.roles()));
+        }
+        return response.flip();
+    }
+
+    // one gathering write per readiness for everything queued, so a pipelined window goes out in as few segments as possible
+    private void write(Connection conn) throws IOException {
+        synchronized (conn) {
+            ByteBuffer[] queued = conn.responses.toArray(new ByteBuffer[0]);
+            conn.channel.write(queued);
+            while (!conn.responses.isEmpty() && !conn.responses.peek().hasRemaining()) {
+                conn.responses.poll();
+            }
+        }
+        updateInterest(conn);
+    }
+
+    // selector thread only: write while responses wait, read while the pipeline has room
+    private void updateInterest(Connection conn) {
+        synchronized (conn) {
+            if (conn.closed || !conn.key.isValid()) {
+                return;
+            }
+            int ops = conn.requests.size() < maxPipelined ? SelectionKey.OP_READ : 0;
+            if (!conn.responses.isEmpty()) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            conn.key.interestOps(ops);
+        }
+    }
+
+    private void close(Connection conn) {
+        synchronized (conn) {
+            if (conn.closed) {
+                return;
+            }
+            conn.closed = true;
+            conn.requests.clear();
+            conn.responses.clear();
+        }
+        conn.key.cancel();
+        closeQuietly(conn.channel);
+        connections.decrementAndGet();
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception ignored) {
+            // already closed
+        }
+    }
+}
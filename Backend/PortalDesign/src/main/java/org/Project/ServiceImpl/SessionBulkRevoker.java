@@ -0,0 +1,236 @@
+package org.Project.ServiceImpl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.Project.Repository.SessionStore;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Revokes sessions in bulk for user ids, session tokens or a role. Targets are resolved and revoked a bounded batch at a time,
+ * each batch in its own short transaction with the same set-based UPDATE as revoke-all-session, and one NDJSON progress line
+ * is written per batch so an incident responder sees counts while the job is still running.
+ */
+@Component
+public class SessionBulkRevoker {
+
+    private static final Logger logger = LogManager.getLogger(SessionBulkRevoker.class);
+    private final String className = "SessionBulkRevoker";
+
+    @Autowired
+    SessionStore sessionStore;
+
+    @Autowired
+    SignedSessionTokens signedTokens;
+
+    @Autowired
+    SessionTokenStorage tokenStorage;
+
+    @Autowired
+    SessionCache sessionCache;
+
+    @Autowired
+    SessionEventHub eventHub;
+
+    @Autowired
+    ActiveSessionRegistry activeSessions;
+
+    @Autowired
+    SessionIndex sessionIndex;
+
+    @Autowired
+    SessionRevocationFilter revocationFilter;
+
+    @Autowired
+    SessionExpiryScheduler expiryScheduler;
+
+    @Autowired
+    ClusterInvalidationLog invalidationLog;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${session.bulk-revoke.batch-size:500}")
+    int defaultBatchSize;
+
+    @Value("${session.bulk-revoke.max-batch-size:5000}")
+    int maxBatchSize;
+
+    private TransactionTemplate batchTransaction;
+
+    public record Request(List<Integer> userIds, List<String> sessionTokens, String roleName, String revokedBy, Integer batchSize) {
+    }
+
+    @PostConstruct
+    void init() {
+        batchTransaction = new TransactionTemplate(transactionManager);
+        batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public void revoke(Request request, OutputStream out) throws IOException {
+        String methodName = "revoke";
+        int batchSize = request.batchSize() == null || request.batchSize() <= 0 ? defaultBatchSize : Math.min(request.batchSize(), maxBatchSize);
+        String revokedBy = request.revokedBy() == null ? "SYSTEM" : request.revokedBy();
+        Progress progress = new Progress(out, batchSize, revokedBy);
+        long started = System.currentTimeMillis();
+        try {
+            if (request.userIds() != null) {
+                for (List<Integer> userIds : partition(new ArrayList<>(new HashSet<>(request.userIds())), batchSize)) {
+                    progress.revoke("userIds", userIds.size(), sessionStore.findActiveExpiryByUserIds(userIds));
+                }
+            }
+            if (request.sessionTokens() != null) {
+                for (List<String> tokens : partition(new ArrayList<>(new HashSet<>(request.sessionTokens())), batchSize)) {
+                    progress.revoke("sessionTokens", tokens.size(), findActiveByTokens(tokens));
+                }
+            }
+            if (request.roleName() != null && !request.roleName().isBlank()) {
+                int afterId = 0;
+                while (true) {
+                    // revoked rows drop out of the ACTIVE_FLAG predicate, the id cursor only skips rows that were already inactive
+                    List<Object[]> page = sessionStore.findActiveExpiryByRole(request.roleName(), afterId, batchSize);
+                    if (page.isEmpty()) {
+                        break;
+                    }
+                    progress.revoke("roleName", page.size(), page);
+                    afterId = ((Number) page.get(page.size() - 1)[0]).intValue();
+                }
+            }
+            progress.write(Map.of("done", true, "batches", progress.batches, "matched", progress.matched,
+                    "revoked", progress.revoked, "elapsedMs", System.currentTimeMillis() - started));
+        } catch (IOException e) {
+            logger.warn("{} {} client went away after {} batches, {} revoked", className, methodName, progress.batches, progress.revoked);
+            throw e;
+        } catch (Exception e) {
+            logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+            progress.write(Map.of("done", false, "error", "INTERNAL_ERROR", "batches", progress.batches, "revoked", progress.revoked));
+        }
+        logger.info("{} {} batches : {} matched : {} revoked : {} by : {}", className, methodName, progress.batches,
+                progress.matched, progress.revoked, revokedBy);
+    }
+
+    // signed tokens carry their sessionId, opaque ones are matched on the stored token
+    private List<Object[]> findActiveByTokens(List<String> tokens) {
+        List<String> opaque = new ArrayList<>();
+        List<Integer> signedIds = new ArrayList<>();
+        for (String token : tokens) {
+            if (signedTokens.isSigned(token)) {
+                SignedSessionTokens.Claims claims = signedTokens.verify(token);
+                if (claims != null) {
+                    signedIds.add(claims.sessionId());
+                }
+            } else if (token != null) {
+                opaque.add(token);
+            }
+        }
+        List<Object[]> rows = new ArrayList<>();
+        if (!opaque.isEmpty()) {
+            List<byte[]> hashes = new ArrayList<>(opaque.size());
+            opaque.forEach(token -> hashes.add(TokenDigest.sha256(token)));
+            rows.addAll(sessionStore.findActiveExpiryByTokenHashes(hashes));
+            if (tokenStorage.dualRead()) {
+                rows.addAll(sessionStore.findActiveExpiryByLegacyTokens(opaque));
+            }
+        }
+        if (!signedIds.isEmpty()) {
+            rows.addAll(sessionStore.findActiveExpiryByIds(signedIds));
+        }
+        return rows;
+    }
+
+    private static <T> List<List<T>> partition(List<T> values, int size) {
+        List<List<T>> batches = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += size) {
+            batches.add(values.subList(from, Math.min(values.size(), from + size)));
+        }
+        return batches;
+    }
+
+    private final class Progress {
+        final OutputStream out;
+        final int batchSize;
+        final String revokedBy;
+        int batches;
+        long matched;
+        long revoked;
+
+        Progress(OutputStream out, int batchSize, String revokedBy) {
+            this.out = out;
+            this.batchSize = batchSize;
+            this.revokedBy = revokedBy;
+        }
+
+        void revoke(String target, int requested, List<Object[]> sessions) throws IOException {
+            for (List<Object[]> batch : partition(sessions, batchSize)) {
+                Set<Integer> sessionIds = new HashSet<>();
+                for (Object[] row : batch) {
+                    sessionIds.add(((Number) row[0]).intValue());
+                }
+                // a session revoked or expired since it was matched is not this job's change to announce
+                List<Object[]> revokedRows = batchTransaction.execute(status -> {
+                    Set<Integer> changed = new HashSet<>(sessionStore.revokeActiveByIds(sessionIds, LocalDateTime.now(), revokedBy));
+                    List<Object[]> rows = batch.stream().filter(row -> changed.contains(((Number) row[0]).intValue())).toList();
+                    invalidationLog.append(rows.stream().map(row -> ClusterInvalidationLog.session(SessionEventHub.REVOKED,
+                            ((Number) row[0]).intValue(), null, null, (LocalDateTime) row[1])).toList());
+                    return rows;
+                });
+                Set<Integer> revokedIds = new HashSet<>();
+                revokedRows.forEach(row -> revokedIds.add(((Number) row[0]).intValue()));
+                if (!revokedIds.isEmpty()) {
+                    sessionCache.invalidateSessionIds(revokedIds);
+                    eventHub.publishAll(SessionEventHub.REVOKED, revokedIds);
+                    sessionIndex.revokeSessionIds(revokedIds);
+                    activeSessions.removeAll(revokedIds);
+                }
+                for (Object[] row : revokedRows) {
+                    Integer sessionId = ((Number) row[0]).intValue();
+                    revocationFilter.revoke(sessionId, (LocalDateTime) row[1]);
+                    expiryScheduler.cancel(sessionId);
+                }
+                report(target, requested, sessionIds.size(), revokedIds.size());
+            }
+            if (sessions.isEmpty()) {
+                report(target, requested, 0, 0);
+            }
+        }
+
+        void report(String target, int requested, int matchedInBatch, int revokedInBatch) throws IOException {
+            batches++;
+            matched += matchedInBatch;
+            revoked += revokedInBatch;
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("batch", batches);
+            line.put("target", target);
+            line.put("requested", requested);
+            line.put("matched", matchedInBatch);
+            line.put("revoked", revokedInBatch);
+            line.put("totalRevoked", revoked);
+            write(line);
+        }
+
+        void write(Map<String, Object> line) throws IOException {
+            out.write(objectMapper.writeValueAsBytes(line));
+            out.write('\n');
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package org.Project.ServiceImpl;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.Project.Entity.Sessions;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Bounded near-cache of validated sessions keyed by session token.
+ * Entries live for at most {@code session.cache.ttl-seconds} and never past the session's expiresAt.
+ * Every invalidation bumps a stamp so a validate that read the DB before a concurrent revoke cannot re-populate a stale entry.
+ */
+@Component
+public class SessionCache {
+
+    private static final Logger logger = LogManager.getLogger(SessionCache.class);
+    private final String className = "SessionCache";
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${session.cache.enabled:true}")
+    boolean enabled;
+
+    @Value("${session.cache.max-size:10000}")
+    int maxSize;
+
+    @Value("${session.cache.ttl-seconds:60}")
+    long ttlSeconds;
+
+    private final ConcurrentHashMap<String, CachedSession> entries = new ConcurrentHashMap<>();
+    private final AtomicLong stamp = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public record CachedSession(Integer sessionId, Integer userId, String userName, List<String> roles,
+                                Sessions.SessionStatus status, LocalDateTime createdDate, LocalDateTime lastSeenAt,
+                                LocalDateTime expiresAt, String ipAddress, String userAgent, LocalDateTime cachedUntil) {
+
+        public static CachedSession of(Sessions session, LocalDateTime cachedUntil) {
+            return new CachedSession(session.getSessionId(), session.getUserId(), session.getUserName(),
+                    session.getRoleName() == null ? List.of() : List.copyOf(session.getRoleName()),
+                    session.getStatus(), session.getCreatedDate(), session.getLastSeenAt(), session.getExpiresAt(),
+                    session.getIpAddress(), session.getUserAgent(), cachedUntil);
+        }
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        FunctionCounter.builder("session.cache.requests", hits, LongAdder::sum).tag("result", "hit")
+                .description("Session validations answered from the near-cache").register(meterRegistry);
+        FunctionCounter.builder("session.cache.requests", misses, LongAdder::sum).tag("result", "miss")
+                .description("Session validations that went to the database").register(meterRegistry);
+        FunctionCounter.builder("session.cache.evictions", evictions, LongAdder::sum)
+                .description("Session cache entries dropped for size or ttl").register(meterRegistry);
+        Gauge.builder("session.cache.size", entries, ConcurrentHashMap::size)
+                .description("Session cache entries").register(meterRegistry);
+        logger.info("{} registerMetrics enabled : {} maxSize : {} ttlSeconds : {}", className, enabled, maxSize, ttlSeconds);
+    }
+
+    /** Stamp to read before loading a session from the DB and pass back to {@link #put}. */
+    public long stamp() {
+        return stamp.get();
+    }
+
+    public CachedSession get(String sessionToken) {
+        if (!enabled || sessionToken == null) {
+            return null;
+        }
+        CachedSession cached = entries.get(sessionToken);
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        if (!cached.cachedUntil().isAfter(LocalDateTime.now())) {
+            if (entries.remove(sessionToken, cached)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return cached;
+    }
+
+    public void put(String sessionToken, Sessions session, long readStamp) {
+        if (!enabled || sessionToken == null || session.getExpiresAt() == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime ttlLimit = now.plusSeconds(ttlSeconds);
+        LocalDateTime cachedUntil = session.getExpiresAt().isBefore(ttlLimit) ? session.getExpiresAt() : ttlLimit;
+        if (!cachedUntil.isAfter(now)) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict(now);
+        }
+        entries.put(sessionToken, CachedSession.of(session, cachedUntil));
+        // an invalidation raced with the DB read that produced this session, drop what we just cached
+        if (stamp.get() != readStamp) {
+            entries.remove(sessionToken);
+        }
+    }
+
+    public void invalidate(String sessionToken) {
+        if (sessionToken == null) {
+            return;
+        }
+        stamp.incrementAndGet();
+        entries.remove(sessionToken);
+    }
+
+    public void invalidateSessionId(Integer sessionId) {
+        removeIf(c -> Objects.equals(c.sessionId(), sessionId));
+    }
+
+    public void invalidateSessionIds(Collection<Integer> sessionIds) {
+        if (!sessionIds.isEmpty()) {
+            removeIf(c -> sessionIds.contains(c.sessionId()));
+        }
+    }
+
+    public void invalidateUserId(Integer userId) {
+        removeIf(c -> Objects.equals(c.userId(), userId));
+    }
+
+    public void invalidateUserName(String userName) {
+        removeIf(c -> c.userName() != null && c.userName().equals(userName));
+    }
+
+    public void invalidateRoleName(String roleName) {
+        removeIf(c -> c.roles().contains(roleName));
+    }
+
+    public void clear() {
+        stamp.incrementAndGet();
+        entries.clear();
+    }
+
+    private void removeIf(Predicate<CachedSession> predicate) {
+        stamp.incrementAndGet();
+        entries.values().removeIf(predicate);
+    }
+
+    private void evict(LocalDateTime now) {
+        int before = entries.size();
+        entries.values().removeIf(c -> !c.cachedUntil().isAfter(now));
+        // still full after dropping stale entries, shed roughly a tenth of the cache
+        int toShed = entries.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<String> it = entries.keySet().iterator();
+        while (toShed-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+        evictions.add(Math.max(0, before - entries.size()));
+    }
+}
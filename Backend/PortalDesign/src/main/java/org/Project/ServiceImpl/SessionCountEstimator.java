@@ -0,0 +1,61 @@
+package org.Project.ServiceImpl;
+
+import org.Project.Entity.Sessions;
+import org.Project.Repository.SessionStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Approximate session-list totals for cursor pagination. A COUNT per filter combination is computed at most once every
+ * {@code session.list.count-cache-seconds} and served from memory in between.
+ */
+@Component
+public class SessionCountEstimator {
+
+    @Autowired
+    SessionStore sessionStore;
+
+    @Value("${session.list.count-cache-seconds:60}")
+    long cacheSeconds;
+
+    @Value("${session.list.count-cache-max-size:1000}")
+    int maxSize;
+
+    private record FilterKey(Integer userId, String userName, Sessions.SessionStatus status, Boolean activeFlag) {
+    }
+
+    private record Estimate(long count, long computedAtMillis) {
+    }
+
+    private final ConcurrentHashMap<FilterKey, Estimate> estimates = new ConcurrentHashMap<>();
+
+    public long estimate(Integer userId, String userName, Sessions.SessionStatus status, Boolean activeFlag) {
+        FilterKey key = new FilterKey(userId, userName, status, activeFlag);
+        long now = System.currentTimeMillis();
+        Estimate cached = estimates.get(key);
+        if (cached != null && now - cached.computedAtMillis() < cacheSeconds * 1000) {
+            return cached.count();
+        }
+        if (estimates.size() >= maxSize) {
+            evict(now);
+        }
+        long count = sessionStore.count(userId, userName, status, activeFlag);
+        estimates.put(key, new Estimate(count, now));
+        return count;
+    }
+
+    private void evict(long now) {
+        estimates.values().removeIf(e -> now - e.computedAtMillis() >= cacheSeconds * 1000);
+        // still full with fresh entries (many distinct userName filters), shed roughly a tenth so the map stays bounded
+        int toShed = estimates.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<FilterKey> it = estimates.keySet().iterator();
+        while (toShed-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
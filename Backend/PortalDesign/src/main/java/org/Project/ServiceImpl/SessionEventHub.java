@@ -0,0 +1,234 @@
+package org.Project.ServiceImpl;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fans session lifecycle events (revoked, expired, extended) out to SSE subscribers of that session, so the frontend learns
+ * about them without polling. Publishing never blocks on a client: each subscriber has a small bounded queue drained by a
+ * virtual thread, and a subscriber whose queue overflows is closed, after which the client reconnects and revalidates.
+ * A terminal event (revoked, expired) completes the stream. Subscriptions are per node; events published on another node
+ * are not seen here.
+ */
+@Component
+public class SessionEventHub {
+
+    private static final Logger logger = LogManager.getLogger(SessionEventHub.class);
+    private final String className = "SessionEventHub";
+
+    public static final String REVOKED = "revoked";
+    public static final String EXPIRED = "expired";
+    public static final String EXTENDED = "extended";
+    private static final String HEARTBEAT = "heartbeat";
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${session.events.enabled:true}")
+    boolean enabled;
+
+    @Value("${session.events.timeout-ms:1800000}")
+    long timeoutMs;
+
+    @Value("${session.events.queue-size:16}")
+    int queueSize;
+
+    @Value("${session.events.max-subscribers:10000}")
+    int maxSubscribers;
+
+    @Value("${session.events.max-per-session:8}")
+    int maxPerSession;
+
+    private final ConcurrentHashMap<Integer, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    private record Event(String name, Object data) {
+    }
+
+    private final class Subscriber {
+        final int sessionId;
+        final SseEmitter emitter;
+        final ArrayBlockingQueue<Event> queue = new ArrayBlockingQueue<>(queueSize);
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(int sessionId, SseEmitter emitter) {
+            this.sessionId = sessionId;
+            this.emitter = emitter;
+        }
+
+        void offer(Event event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                // too slow to keep up, drop the stream rather than buffer without bound
+                dropped.increment();
+                close();
+                emitter.complete();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        void drain() {
+            try {
+                Event event;
+                while ((event = queue.poll()) != null) {
+                    if (HEARTBEAT.equals(event.name())) {
+                        emitter.send(SseEmitter.event().comment(HEARTBEAT));
+                    } else {
+                        emitter.send(SseEmitter.event().name(event.name()).data(event.data()));
+                    }
+                    if (REVOKED.equals(event.name()) || EXPIRED.equals(event.name())) {
+                        close();
+                        emitter.complete();
+                        return;
+                    }
+                }
+            } catch (Exception e) {
+                close();
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // an offer that raced with the end of the loop found draining still set
+            if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                subscriberCount.decrementAndGet();
+                subscribers.computeIfPresent(sessionId, (id, set) -> {
+                    set.remove(this);
+                    return set.isEmpty() ? null : set;
+                });
+            }
+        }
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("session.events.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open session event streams").register(meterRegistry);
+        FunctionCounter.builder("session.events.published", published, LongAdder::sum)
+                .description("Session events published to at least one subscriber").register(meterRegistry);
+        FunctionCounter.builder("session.events.dropped", dropped, LongAdder::sum)
+                .description("Session event streams closed because the client fell behind").register(meterRegistry);
+    }
+
+    /** Opens a stream for the session, or returns null when the node is at its subscriber limit. */
+    public SseEmitter subscribe(int sessionId) {
+        if (!enabled) {
+            return null;
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(sessionId, emitter);
+        AtomicBoolean added = new AtomicBoolean();
+        // atomic with close(), which drops the set once it is empty
+        subscribers.compute(sessionId, (id, set) -> {
+            Set<Subscriber> forSession = set == null ? ConcurrentHashMap.newKeySet() : set;
+            if (forSession.size() < maxPerSession) {
+                added.set(forSession.add(subscriber));
+            }
+            return forSession.isEmpty() ? null : forSession;
+        });
+        if (!added.get()) {
+            subscriberCount.decrementAndGet();
+            return null;
+        }
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        return emitter;
+    }
+
+    public void publish(String name, Integer sessionId, LocalDateTime expiresAt) {
+        if (!enabled || sessionId == null) {
+            return;
+        }
+        Set<Subscriber> forSession = subscribers.get(sessionId);
+        if (forSession == null) {
+            return;
+        }
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("sessionId", sessionId);
+        data.put("type", name);
+        data.put("expiresAt", expiresAt);
+        data.put("at", LocalDateTime.now());
+        Event event = new Event(name, data);
+        forSession.forEach(subscriber -> subscriber.offer(event));
+        published.increment();
+    }
+
+    public void publishAll(String name, Collection<Integer> sessionIds) {
+        if (!subscribers.isEmpty()) {
+            sessionIds.forEach(sessionId -> publish(name, sessionId, null));
+        }
+    }
+
+    /** Publishes once the current transaction commits, or right away outside one; a rolled back change is never announced. */
+    public void publishAfterCommit(Runnable publication) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publication.run();
+                }
+            });
+        } else {
+            publication.run();
+        }
+    }
+
+    // keeps proxies from idling the connection out and lets a dead client surface as a send failure
+    @Scheduled(fixedRateString = "${session.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        Event event = new Event(HEARTBEAT, null);
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.offer(event)));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+        senders.shutdown();
+        logger.info("{} shutdown", className);
+    }
+}
@@ -0,0 +1,91 @@
+package org.Project.ServiceImpl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One-time tickets that let an EventSource, which cannot set headers, open the session event stream without the session token
+ * ever appearing in a URL. A ticket is {@code t1.<payload>.<signature>}: the sessionId, an expiry {@code session.events.ticket-ttl-ms}
+ * out and a random nonce, signed with the session-token key so any node sharing the secret can check it. Each node remembers
+ * the nonces it has redeemed until they expire, so a ticket opens at most one stream there.
+ */
+@Component
+public class SessionEventTickets {
+
+    private static final String PREFIX = "t1.";
+    private static final int NONCE_LENGTH = 16;
+    private static final int PAYLOAD_LENGTH = 4 + 8 + NONCE_LENGTH;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    @Autowired
+    SignedSessionTokens signedTokens;
+
+    @Value("${session.events.ticket-ttl-ms:30000}")
+    long ticketTtlMs;
+
+    private final SecureRandom random = new SecureRandom();
+    // nonce to the ticket's expiry in epoch millis
+    private final ConcurrentHashMap<ByteBuffer, Long> redeemed = new ConcurrentHashMap<>();
+
+    public long ttlMs() {
+        return ticketTtlMs;
+    }
+
+    public String issue(int sessionId) {
+        byte[] nonce = new byte[NONCE_LENGTH];
+        random.nextBytes(nonce);
+        ByteBuffer payload = ByteBuffer.allocate(PAYLOAD_LENGTH);
+        payload.putInt(sessionId);
+        payload.putLong(System.currentTimeMillis() + ticketTtlMs);
+        payload.put(nonce);
+        String encodedPayload = ENCODER.encodeToString(payload.array());
+        return PREFIX + encodedPayload + "." + ENCODER.encodeToString(signedTokens.sign(encodedPayload));
+    }
+
+    /** The sessionId of a well-signed, unexpired ticket that has not been redeemed on this node before, or null. */
+    public Integer redeem(String ticket) {
+        if (ticket == null || !ticket.startsWith(PREFIX)) {
+            return null;
+        }
+        int dot = ticket.indexOf('.', PREFIX.length());
+        if (dot < 0) {
+            return null;
+        }
+        try {
+            String encodedPayload = ticket.substring(PREFIX.length(), dot);
+            if (!MessageDigest.isEqual(DECODER.decode(ticket.substring(dot + 1)), signedTokens.sign(encodedPayload))) {
+                return null;
+            }
+            byte[] payload = DECODER.decode(encodedPayload);
+            if (payload.length != PAYLOAD_LENGTH) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            int sessionId = buffer.getInt();
+            long expiresAt = buffer.getLong();
+            if (expiresAt <= System.currentTimeMillis()) {
+                return null;
+            }
+            ByteBuffer nonce = ByteBuffer.wrap(payload, 12, NONCE_LENGTH).slice();
+            return redeemed.putIfAbsent(nonce, expiresAt) == null ? sessionId : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** Forgets redeemed nonces whose tickets have expired; an expired ticket is refused before the nonce is looked at. */
+    @Scheduled(fixedDelayString = "${session.events.ticket-prune-interval-ms:60000}")
+    public void prune() {
+        long now = System.currentTimeMillis();
+        redeemed.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+}
@@ -0,0 +1,215 @@
+package org.Project.ServiceImpl;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.Project.Repository.SessionStore;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Marks sessions EXPIRED when their expiresAt passes instead of waiting for the next validate to notice.
+ * Deadlines live in a {@link HierarchicalTimingWheel} fed by create, refresh and extend; every tick the sessions that fell due
+ * are expired with one bulk UPDATE (split only past {@code session.expiry.batch-size} ids). Only the sessions that UPDATE
+ * actually changed are untracked, logged for other nodes and announced: one extended in the meantime stays active, and one
+ * another node already expired is announced by that node. A batch that fails goes back into the wheel
+ * {@code session.expiry.retry-ms} later.
+ */
+@Component
+public class SessionExpiryScheduler {
+
+    private static final Logger logger = LogManager.getLogger(SessionExpiryScheduler.class);
+    private final String className = "SessionExpiryScheduler";
+
+    @Autowired
+    SessionStore sessionStore;
+
+    @Autowired
+    SessionCache sessionCache;
+
+    @Autowired
+    SessionEventHub eventHub;
+
+    @Autowired
+    ActiveSessionRegistry activeSessions;
+
+    // the log applies other nodes' expiries through this scheduler, so it is resolved lazily
+    @Lazy
+    @Autowired
+    ClusterInvalidationLog invalidationLog;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${session.expiry.enabled:true}")
+    boolean enabled;
+
+    @Value("${session.expiry.tick-ms:1000}")
+    long tickMs;
+
+    @Value("${session.expiry.batch-size:1000}")
+    int batchSize;
+
+    @Value("${session.expiry.load-page-size:5000}")
+    int loadPageSize;
+
+    @Value("${session.expiry.retry-ms:5000}")
+    long retryMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder ticks = new LongAdder();
+    private HierarchicalTimingWheel wheel;
+    private TransactionTemplate batchTransaction;
+
+    @PostConstruct
+    void init() {
+        wheel = new HierarchicalTimingWheel(System.currentTimeMillis() / tickMs);
+        batchTransaction = new TransactionTemplate(transactionManager);
+        FunctionCounter.builder("session.expiry.expired", expired, LongAdder::sum)
+                .description("Sessions marked EXPIRED by the timing wheel").register(meterRegistry);
+        FunctionCounter.builder("session.expiry.ticks", ticks, LongAdder::sum)
+                .description("Timing wheel ticks that expired at least one session").register(meterRegistry);
+        Gauge.builder("session.expiry.scheduled", this, SessionExpiryScheduler::scheduled)
+                .description("Sessions waiting in the timing wheel").register(meterRegistry);
+    }
+
+    public void schedule(Integer sessionId, LocalDateTime expiresAt) {
+        if (!enabled || sessionId == null || expiresAt == null) {
+            return;
+        }
+        long deadlineTick = Math.floorDiv(expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() + tickMs - 1, tickMs);
+        lock.lock();
+        try {
+            wheel.schedule(sessionId, deadlineTick);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void cancel(Integer sessionId) {
+        if (!enabled || sessionId == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            wheel.cancel(sessionId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedRateString = "${session.expiry.tick-ms:1000}")
+    public void tick() {
+        String methodName = "tick";
+        if (!enabled) {
+            return;
+        }
+        List<Integer> due;
+        lock.lock();
+        try {
+            due = wheel.advance(System.currentTimeMillis() / tickMs);
+        } finally {
+            lock.unlock();
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Integer> changed = new ArrayList<>();
+        List<Integer> failed = new ArrayList<>();
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Integer> batch = due.subList(from, Math.min(due.size(), from + batchSize));
+            try {
+                changed.addAll(batchTransaction.execute(status -> {
+                    List<Integer> expiredIds = sessionStore.expireByIds(batch, now);
+                    invalidationLog.append(expiredIds.stream().map(sessionId -> ClusterInvalidationLog.session(SessionEventHub.EXPIRED,
+                            sessionId, null, null, null)).toList());
+                    return expiredIds;
+                }));
+            } catch (Exception e) {
+                logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+                failed.addAll(batch);
+            }
+        }
+        if (!failed.isEmpty()) {
+            reschedule(failed);
+        }
+        if (!changed.isEmpty()) {
+            sessionCache.invalidateSessionIds(new HashSet<>(changed));
+            activeSessions.removeAll(changed);
+            eventHub.publishAll(SessionEventHub.EXPIRED, changed);
+            expired.add(changed.size());
+            ticks.increment();
+        }
+        logger.debug("{} {} due : {} expired : {} retrying : {}", className, methodName, due.size(), changed.size(), failed.size());
+    }
+
+    // a session extended since it fell due is back in the wheel with its new deadline and keeps it; one revoked meanwhile comes
+    // round once more and the conditional UPDATE leaves it alone
+    private void reschedule(List<Integer> sessionIds) {
+        lock.lock();
+        try {
+            long retryTick = wheel.currentTick() + Math.max(1, retryMs / tickMs);
+            sessionIds.forEach(sessionId -> wheel.scheduleIfAbsent(sessionId, retryTick));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadActiveSessions() {
+        String methodName = "loadActiveSessions";
+        if (!enabled) {
+            return;
+        }
+        try {
+            int afterId = 0;
+            int loaded = 0;
+            while (true) {
+                List<Object[]> page = sessionStore.findActivePage(afterId, loadPageSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                for (Object[] row : page) {
+                    schedule((Integer) row[0], (LocalDateTime) row[4]);
+                }
+                loaded += page.size();
+                afterId = (Integer) page.get(page.size() - 1)[0];
+            }
+            logger.info("{} {} scheduled : {}", className, methodName, loaded);
+        } catch (Exception e) {
+            logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+        }
+    }
+
+    int scheduled() {
+        lock.lock();
+        try {
+            return wheel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,516 @@
+package org.Project.ServiceImpl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.Project.Entity.Sessions;
+import org.Project.Repository.SessionStore;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * Off-heap index of sessions keyed by the SHA-256 of the session token.
+ * Records are fixed 64 byte slots in native memory: token digest, sessionId, userId, expiresAt (epoch seconds),
+ * status byte, interned role-set id and interned userName, enough to answer a validate for an active session without a
+ * store read. userNames are interned on-heap, one String per user rather than per session. The table is split into power-of-two stripes, each an open-addressing
+ * (linear probing) table behind its own read/write lock, so reads run concurrently and writes only block one stripe.
+ */
+@Component
+public class SessionIndex {
+
+    private static final Logger logger = LogManager.getLogger(SessionIndex.class);
+    private final String className = "SessionIndex";
+
+    private static final long RECORD_SIZE = 64;
+    private static final long KEY_OFFSET = 0;
+    private static final long SESSION_ID_OFFSET = 32;
+    private static final long USER_ID_OFFSET = 36;
+    private static final long EXPIRES_AT_OFFSET = 40;
+    private static final long STATUS_OFFSET = 48;
+    private static final long ROLE_SET_OFFSET = 52;
+    private static final long USER_NAME_OFFSET = 56;
+    private static final int NO_USER_NAME = 0;
+
+    public static final byte EMPTY = 0;
+    public static final byte ACTIVE = 1;
+    public static final byte REVOKED = 2;
+    public static final byte EXPIRED = 3;
+
+    @Autowired
+    SessionStore sessionStore;
+
+    @Autowired
+    RoleSetRegistry roleSetRegistry;
+
+    @Autowired
+    SessionRevocationFilter revocationFilter;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${session.index.enabled:true}")
+    boolean enabled;
+
+    @Value("${session.index.stripes:64}")
+    int stripeCount;
+
+    @Value("${session.index.initial-capacity:1024}")
+    int initialCapacity;
+
+    @Value("${session.index.authoritative:false}")
+    boolean authoritative;
+
+    @Value("${session.index.rebuild-page-size:5000}")
+    int rebuildPageSize;
+
+    private Stripe[] stripes;
+    private int stripeMask;
+    private volatile boolean ready;
+    // never shrinks; bounded by the number of distinct users, not sessions
+    private final ConcurrentHashMap<String, Integer> userNameIds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, String> userNamesById = new ConcurrentHashMap<>();
+    private final AtomicInteger nextUserNameId = new AtomicInteger(NO_USER_NAME);
+
+    /** userName is null when the session was indexed without one, e.g. from another node's invalidation log entry. */
+    public record Entry(int sessionId, int userId, long expiresAtEpochSecond, byte status, int roleSetId, String userName) {
+
+        public boolean isActiveAt(long epochSecond) {
+            return status == ACTIVE && expiresAtEpochSecond > epochSecond;
+        }
+    }
+
+    private static final class Stripe {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        Arena arena;
+        MemorySegment records;
+        int capacity;
+        int live;
+    }
+
+    @PostConstruct
+    void init() {
+        int count = Integer.highestOneBit(Math.max(1, stripeCount));
+        int capacity = Integer.highestOneBit(Math.max(16, initialCapacity));
+        stripes = new Stripe[count];
+        stripeMask = count - 1;
+        for (int i = 0; i < count; i++) {
+            Stripe stripe = new Stripe();
+            allocate(stripe, capacity);
+            stripes[i] = stripe;
+        }
+        Gauge.builder("session.index.entries", this, SessionIndex::size)
+                .description("Sessions held in the off-heap index").register(meterRegistry);
+        Gauge.builder("session.index.bytes", this, SessionIndex::nativeBytes)
+                .description("Native memory reserved by the off-heap index").register(meterRegistry);
+        logger.info("{} init enabled : {} stripes : {} capacityPerStripe : {} authoritative : {}", className, enabled, count, capacity, authoritative);
+    }
+
+    @PreDestroy
+    void close() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.writeLock().lock();
+            try {
+                stripe.arena.close();
+                stripe.capacity = 0;
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /** True once the startup rebuild finished and {@code session.index.authoritative} is set, i.e. a miss means the token does not exist. */
+    public boolean isAuthoritative() {
+        return enabled && authoritative && ready;
+    }
+
+    public Entry get(String sessionToken) {
+        if (!enabled || sessionToken == null) {
+            return null;
+        }
+        byte[] key = TokenDigest.sha256(sessionToken);
+        MemorySegment keySegment = MemorySegment.ofArray(key);
+        long hash = hash(key);
+        Stripe stripe = stripes[(int) (hash & stripeMask)];
+        stripe.lock.readLock().lock();
+        try {
+            int slot = find(stripe, keySegment, hash);
+            if (slot < 0) {
+                return null;
+            }
+            long offset = slot * RECORD_SIZE;
+            MemorySegment records = stripe.records;
+            return new Entry(records.get(ValueLayout.JAVA_INT, offset + SESSION_ID_OFFSET),
+                    records.get(ValueLayout.JAVA_INT, offset + USER_ID_OFFSET),
+                    records.get(ValueLayout.JAVA_LONG, offset + EXPIRES_AT_OFFSET),
+                    records.get(ValueLayout.JAVA_BYTE, offset + STATUS_OFFSET),
+                    records.get(ValueLayout.JAVA_INT, offset + ROLE_SET_OFFSET),
+                    userNamesById.get(records.get(ValueLayout.JAVA_INT, offset + USER_NAME_OFFSET)));
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The session an active entry describes, built from the index alone with roles resolved through the role-set registry.
+     * Null when the entry carries no userName or holds a role changed since, in which case the caller loads the session. Fields the index does not hold
+     * (createdDate, lastSeenAt, ipAddress, userAgent) are left null, as for a session answered from signed claims.
+     */
+    public SessionCache.CachedSession toSession(Entry entry) {
+        if (entry.userName() == null) {
+            return null;
+        }
+        List<String> roles = roleSetRegistry.resolve(entry.roleSetId());
+        if (revocationFilter.holdsChangedRole(roles)) {
+            return null;
+        }
+        LocalDateTime expiresAt = toDateTime(entry.expiresAtEpochSecond());
+        return new SessionCache.CachedSession(entry.sessionId(), entry.userId() == 0 ? null : entry.userId(), entry.userName(),
+                roles, Sessions.SessionStatus.ACTIVE, null, null, expiresAt, null, null, expiresAt);
+    }
+
+    /** Indexes a session under its token digest, see {@link SessionTokenStorage#hashOf(Sessions)}. */
+    public void put(byte[] tokenHash, Sessions session) {
+        if (tokenHash == null || session.getSessionId() == null) {
+            return;
+        }
+        byte status = Boolean.TRUE.equals(session.getActiveFlag()) ? ACTIVE : toStatus(session.getStatus());
+        put(tokenHash, session.getSessionId(), session.getUserId(), session.getExpiresAt(),
+                status, roleSetRegistry.intern(session.getRoleName()), session.getUserName(), false);
+    }
+
+    /** Indexes a session known only from its columns, e.g. one created on another node. Existing entries are kept. */
+    public void putActive(byte[] tokenHash, int sessionId, Integer userId, LocalDateTime expiresAt, int roleSetId) {
+        if (tokenHash != null) {
+            put(tokenHash, sessionId, userId, expiresAt, ACTIVE, roleSetId, null, true);
+        }
+    }
+
+    public void markStatus(byte[] tokenHash, byte status) {
+        update(tokenHash, status, null);
+    }
+
+    public void updateExpiry(byte[] tokenHash, LocalDateTime expiresAt) {
+        update(tokenHash, (byte) -1, expiresAt);
+    }
+
+    public int revokeUser(Integer userId) {
+        if (userId == null) {
+            return 0;
+        }
+        return revokeWhere(USER_ID_OFFSET, id -> id == userId);
+    }
+
+    /** Marks the given sessions revoked; one scan of the index however many ids are passed. */
+    public int revokeSessionIds(Set<Integer> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return 0;
+        }
+        return revokeWhere(SESSION_ID_OFFSET, sessionIds::contains);
+    }
+
+    private int revokeWhere(long fieldOffset, IntPredicate matches) {
+        if (!enabled) {
+            return 0;
+        }
+        int revoked = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.writeLock().lock();
+            try {
+                for (long offset = 0; offset < stripe.capacity * RECORD_SIZE; offset += RECORD_SIZE) {
+                    if (stripe.records.get(ValueLayout.JAVA_BYTE, offset + STATUS_OFFSET) == ACTIVE
+                            && matches.test(stripe.records.get(ValueLayout.JAVA_INT, offset + fieldOffset))) {
+                        stripe.records.set(ValueLayout.JAVA_BYTE, offset + STATUS_OFFSET, REVOKED);
+                        revoked++;
+                    }
+                }
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+        }
+        return revoked;
+    }
+
+    /** Drops entries whose expiry has passed and shrinks or grows each stripe to fit what is left. */
+    @Scheduled(fixedDelayString = "${session.index.compact-interval-ms:300000}")
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+        long now = epochSecond(LocalDateTime.now());
+        int before = size();
+        for (Stripe stripe : stripes) {
+            stripe.lock.writeLock().lock();
+            try {
+                // sized for what survives the drop, not for what the stripe held before it
+                int kept = surviving(stripe, now);
+                int target = Integer.highestOneBit(Math.max(16, Math.max(initialCapacity, kept * 2)) - 1) << 1;
+                rehash(stripe, target, now);
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+        }
+        logger.info("{} compact entries before : {} after : {}", className, before, size());
+    }
+
+    /** Drops every entry and rebuilds from the session store; the index is not authoritative until the rebuild finishes. */
+    public void reset() {
+        if (!enabled) {
+            return;
+        }
+        ready = false;
+        int capacity = Integer.highestOneBit(Math.max(16, initialCapacity));
+        for (Stripe stripe : stripes) {
+            stripe.lock.writeLock().lock();
+            try {
+                Arena oldArena = stripe.arena;
+                allocate(stripe, capacity);
+                oldArena.close();
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+        }
+        rebuildOnStartup();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        Thread.ofVirtual().name("session-index-rebuild").start(this::rebuild);
+    }
+
+    void rebuild() {
+        String methodName = "rebuild";
+        long started = System.currentTimeMillis();
+        int loaded = 0;
+        try {
+            int afterId = 0;
+            while (true) {
+                List<Object[]> page = sessionStore.findActivePage(afterId, rebuildPageSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                for (Object[] row : page) {
+                    // sessions created or revoked while the rebuild runs are already indexed with fresher state
+                    byte[] tokenHash = SessionTokenStorage.hashOf((byte[]) row[1], (String) row[2]);
+                    if (tokenHash == null) {
+                        continue;
+                    }
+                    @SuppressWarnings("unchecked")
+                    List<String> roles = (List<String>) row[5];
+                    put(tokenHash, (Integer) row[0], (Integer) row[3], (LocalDateTime) row[4], ACTIVE,
+                            roleSetRegistry.intern(roles), (String) row[6], true);
+                }
+                loaded += page.size();
+                afterId = (Integer) page.get(page.size() - 1)[0];
+            }
+            ready = true;
+            logger.info("{} {} loaded : {} in {} ms", className, methodName, loaded, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+        }
+    }
+
+    public int size() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            total += stripe.live;
+        }
+        return total;
+    }
+
+    long nativeBytes() {
+        long total = 0;
+        for (Stripe stripe : stripes) {
+            total += stripe.capacity * RECORD_SIZE;
+        }
+        return total;
+    }
+
+    public static long epochSecond(LocalDateTime dateTime) {
+        return dateTime == null ? Long.MAX_VALUE : dateTime.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+
+    public static LocalDateTime toDateTime(long epochSecond) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault());
+    }
+
+    private void put(byte[] key, int sessionId, Integer userId, LocalDateTime expiresAt, byte status, int roleSetId, String userName,
+                     boolean onlyIfAbsent) {
+        if (!enabled) {
+            return;
+        }
+        int userNameId = internUserName(userName);
+        MemorySegment keySegment = MemorySegment.ofArray(key);
+        long hash = hash(key);
+        Stripe stripe = stripes[(int) (hash & stripeMask)];
+        stripe.lock.writeLock().lock();
+        try {
+            // entries are never removed one by one, only dropped wholesale by compact(), so the table only has to grow
+            if ((stripe.live + 1) * 4L > stripe.capacity * 3L) {
+                rehash(stripe, stripe.capacity << 1, Long.MIN_VALUE);
+            }
+            int mask = stripe.capacity - 1;
+            int slot = (int) ((hash >>> 20) & mask);
+            while (stripe.records.get(ValueLayout.JAVA_BYTE, slot * RECORD_SIZE + STATUS_OFFSET) != EMPTY) {
+                long offset = slot * RECORD_SIZE;
+                if (keyEquals(stripe.records, offset, keySegment)) {
+                    if (!onlyIfAbsent) {
+                        write(stripe.records, offset, sessionId, userId, expiresAt, status, roleSetId, userNameId);
+                    }
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            long offset = slot * RECORD_SIZE;
+            MemorySegment.copy(keySegment, 0, stripe.records, offset + KEY_OFFSET, TokenDigest.LENGTH);
+            write(stripe.records, offset, sessionId, userId, expiresAt, status, roleSetId, userNameId);
+            stripe.live++;
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    private void update(byte[] key, byte status, LocalDateTime expiresAt) {
+        if (!enabled || key == null) {
+            return;
+        }
+        MemorySegment keySegment = MemorySegment.ofArray(key);
+        long hash = hash(key);
+        Stripe stripe = stripes[(int) (hash & stripeMask)];
+        stripe.lock.writeLock().lock();
+        try {
+            int slot = find(stripe, keySegment, hash);
+            if (slot < 0) {
+                return;
+            }
+            long offset = slot * RECORD_SIZE;
+            if (status >= 0) {
+                stripe.records.set(ValueLayout.JAVA_BYTE, offset + STATUS_OFFSET, status);
+            }
+            if (expiresAt != null) {
+                stripe.records.set(ValueLayout.JAVA_LONG, offset + EXPIRES_AT_OFFSET, epochSecond(expiresAt));
+            }
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    private int find(Stripe stripe, MemorySegment keySegment, long hash) {
+        int mask = stripe.capacity - 1;
+        int slot = (int) ((hash >>> 20) & mask);
+        for (int probes = 0; probes < stripe.capacity; probes++) {
+            long offset = slot * RECORD_SIZE;
+            byte current = stripe.records.get(ValueLayout.JAVA_BYTE, offset + STATUS_OFFSET);
+            if (current == EMPTY) {
+                return -1;
+            }
+            if (keyEquals(stripe.records, offset, keySegment)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // caller holds the stripe write lock; entries expired before dropBefore are left behind
+    private void rehash(Stripe stripe, int newCapacity, long dropBefore) {
+        Arena oldArena = stripe.arena;
+        MemorySegment oldRecords = stripe.records;
+        int oldCapacity = stripe.capacity;
+        allocate(stripe, newCapacity);
+        int mask = newCapacity - 1;
+        for (long offset = 0; offset < oldCapacity * RECORD_SIZE; offset += RECORD_SIZE) {
+            byte status = oldRecords.get(ValueLayout.JAVA_BYTE, offset + STATUS_OFFSET);
+            if (status == EMPTY || oldRecords.get(ValueLayout.JAVA_LONG, offset + EXPIRES_AT_OFFSET) < dropBefore) {
+                continue;
+            }
+            int slot = (int) ((oldRecords.get(ValueLayout.JAVA_LONG, offset + KEY_OFFSET) >>> 20) & mask);
+            while (stripe.records.get(ValueLayout.JAVA_BYTE, slot * RECORD_SIZE + STATUS_OFFSET) != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            MemorySegment.copy(oldRecords, offset, stripe.records, slot * RECORD_SIZE, RECORD_SIZE);
+            stripe.live++;
+        }
+        oldArena.close();
+    }
+
+    // caller holds the stripe lock; the entries a rehash with this dropBefore carries over
+    private static int surviving(Stripe stripe, long dropBefore) {
+        int kept = 0;
+        for (long offset = 0; offset < stripe.capacity * RECORD_SIZE; offset += RECORD_SIZE) {
+            if (stripe.records.get(ValueLayout.JAVA_BYTE, offset + STATUS_OFFSET) != EMPTY
+                    && stripe.records.get(ValueLayout.JAVA_LONG, offset + EXPIRES_AT_OFFSET) >= dropBefore) {
+                kept++;
+            }
+        }
+        return kept;
+    }
+
+    private static void allocate(Stripe stripe, int capacity) {
+        stripe.arena = Arena.ofShared();
+        stripe.records = stripe.arena.allocate(capacity * RECORD_SIZE, RECORD_SIZE);
+        stripe.records.fill((byte) 0);
+        stripe.capacity = capacity;
+        stripe.live = 0;
+    }
+
+    private int internUserName(String userName) {
+        if (userName == null) {
+            return NO_USER_NAME;
+        }
+        return userNameIds.computeIfAbsent(userName, name -> {
+            int id = nextUserNameId.incrementAndGet();
+            userNamesById.put(id, name);
+            return id;
+        });
+    }
+
+    private static void write(MemorySegment records, long offset, int sessionId, Integer userId, LocalDateTime expiresAt, byte status,
+                              int roleSetId, int userNameId) {
+        records.set(ValueLayout.JAVA_INT, offset + SESSION_ID_OFFSET, sessionId);
+        records.set(ValueLayout.JAVA_INT, offset + USER_ID_OFFSET, userId == null ? 0 : userId);
+        records.set(ValueLayout.JAVA_LONG, offset + EXPIRES_AT_OFFSET, epochSecond(expiresAt));
+        records.set(ValueLayout.JAVA_INT, offset + ROLE_SET_OFFSET, roleSetId);
+        records.set(ValueLayout.JAVA_INT, offset + USER_NAME_OFFSET, userNameId);
+        records.set(ValueLayout.JAVA_BYTE, offset + STATUS_OFFSET, status);
+    }
+
+    private static boolean keyEquals(MemorySegment records, long offset, MemorySegment keySegment) {
+        return MemorySegment.mismatch(records, offset + KEY_OFFSET, offset + KEY_OFFSET + TokenDigest.LENGTH,
+                keySegment, 0, TokenDigest.LENGTH) == -1;
+    }
+
+    // the key is already a SHA-256 digest, so its first eight bytes (native order, as rehash reads them back) are hash enough
+    private static long hash(byte[] key) {
+        return MemorySegment.ofArray(key).get(ValueLayout.JAVA_LONG_UNALIGNED, 0);
+    }
+
+    private static byte toStatus(Sessions.SessionStatus status) {
+        if (status == Sessions.SessionStatus.REVOKED || status == Sessions.SessionStatus.LOGGED_OUT) {
+            return REVOKED;
+        }
+        return status == Sessions.SessionStatus.EXPIRED ? EXPIRED : ACTIVE;
+    }
+}
@@ -0,0 +1,587 @@
+package org.Project.ServiceImpl;
+
+import org.Project.Entity.Sessions;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal in fixed-size memory-mapped segment files ({@code segment-<seq>.log}) plus snapshots
+ * ({@code snapshot-<seq>.bin}, covering every segment before seq). A record is [int length][int crc32][byte type][payload]
+ * with length counting type and payload; a zero length ends a segment, a bad length or checksum is a torn tail and ends it too.
+ * <p>
+ * {@link #append} runs the caller's state change and writes its records under one lock, so the journal order is the order
+ * the changes were applied in. Durability then depends on {@link FsyncMode}: GROUP makes the writer wait until a background
+ * force covers its record, and one force serves every writer that queued behind it; ASYNC forces on a timer without waiting;
+ * NONE leaves it to the page cache.
+ * <p>
+ * Every record has a position, {@code segmentSeq << 32 | offset just past the record}, that grows with journal order and
+ * survives restarts. Snapshot records all take the position of the segment the snapshot starts at, since the records they
+ * replace are gone.
+ */
+final class SessionJournal implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger(SessionJournal.class);
+    private final String className = "SessionJournal";
+
+    enum FsyncMode {GROUP, ASYNC, NONE}
+
+    interface RecordHandler {
+        void apply(byte type, ByteBuffer payload, long position);
+    }
+
+    /** Told, under the append lock and in journal order, where each payload of an append was written. */
+    interface WriteListener {
+        void written(int index, long position);
+    }
+
+    static final byte SAVE = 1;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final int HEADER_BYTES = 8;
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final FsyncMode fsyncMode;
+    private final long fsyncIntervalMs;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long segmentSeq;
+    private long appended;
+    private long replayedFrom;
+
+    // ReentrantLock rather than synchronized so waiting writers on virtual threads do not pin their carrier
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition flushRequested = syncLock.newCondition();
+    private final Condition flushed = syncLock.newCondition();
+    private long requested;
+    private volatile long durable;
+    private volatile boolean closed;
+    private Thread flusher;
+
+    SessionJournal(Path dir, int segmentBytes, FsyncMode fsyncMode, long fsyncIntervalMs) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.fsyncMode = fsyncMode;
+        this.fsyncIntervalMs = fsyncIntervalMs;
+    }
+
+    /** Replays the latest snapshot and every segment after it, then opens a fresh segment for appends. Returns records replayed. */
+    long open(RecordHandler handler) throws IOException {
+        Files.createDirectories(dir);
+        long snapshotSeq = -1;
+        for (Path snapshot : list(SNAPSHOT_PREFIX, ".bin")) {
+            snapshotSeq = Math.max(snapshotSeq, seqOf(snapshot));
+        }
+        long replayed = 0;
+        if (snapshotSeq >= 0) {
+            replayedFrom = position(snapshotSeq, 0);
+            replayed += replaySnapshot(dir.resolve(SNAPSHOT_PREFIX + name(snapshotSeq) + ".bin"), replayedFrom, handler);
+        }
+        long lastSeq = snapshotSeq - 1;
+        for (Path file : list(SEGMENT_PREFIX, ".log")) {
+            long seq = seqOf(file);
+            if (seq >= snapshotSeq) {
+                replayed += replaySegment(file, seq, handler);
+            }
+            lastSeq = Math.max(lastSeq, seq);
+        }
+        // never append behind a possibly torn tail
+        openSegment(lastSeq + 1);
+        if (fsyncMode != FsyncMode.NONE) {
+            flusher = Thread.ofVirtual().name("session-journal-flusher").start(this::flushLoop);
+        }
+        return replayed;
+    }
+
+    /**
+     * Applies a state change and journals its records as one unit; returns what the change returned. The records always land in
+     * one segment, and room for them is made before the change runs, so a failed roll leaves nothing applied.
+     */
+    <T> T append(byte type, List<byte[]> payloads, Supplier<T> change) {
+        return append(type, payloads, change, null);
+    }
+
+    /** As {@link #append(byte, List, Supplier)}, telling the listener where each payload went once it is written. */
+    <T> T append(byte type, List<byte[]> payloads, Supplier<T> change, WriteListener listener) {
+        int needed = 0;
+        for (byte[] payload : payloads) {
+            needed += HEADER_BYTES + 1 + payload.length;
+        }
+        if (needed + 4 > segmentBytes) {
+            throw new IllegalArgumentException("Journal append of " + needed + " bytes does not fit a segment");
+        }
+        T result;
+        long seq;
+        appendLock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Session journal is closed");
+            }
+            if (segment.position() + needed + 4 > segmentBytes) {
+                roll();
+            }
+            result = change.get();
+            for (int i = 0; i < payloads.size(); i++) {
+                write(type, payloads.get(i));
+                if (listener != null) {
+                    listener.written(i, position(segmentSeq, segment.position()));
+                }
+            }
+            appended += payloads.size();
+            seq = appended;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            appendLock.unlock();
+        }
+        if (fsyncMode == FsyncMode.GROUP) {
+            awaitDurable(seq);
+        }
+        return result;
+    }
+
+    /**
+     * Rolls to a new segment, captures the state under the append lock, writes it out as a snapshot and deletes the segments and
+     * snapshots it supersedes. The captured objects must not change afterwards.
+     */
+    <T> int snapshot(Supplier<List<T>> capture, Function<T, byte[]> encoder) throws IOException {
+        List<T> state;
+        long coveredSeq;
+        appendLock.lock();
+        try {
+            roll();
+            coveredSeq = segmentSeq;
+            state = capture.get();
+        } finally {
+            appendLock.unlock();
+        }
+        Path target = dir.resolve(SNAPSHOT_PREFIX + name(coveredSeq) + ".bin");
+        Path tmp = dir.resolve(SNAPSHOT_PREFIX + name(coveredSeq) + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(out), 1 << 16));
+            CRC32 crc = new CRC32();
+            for (T item : state) {
+                byte[] payload = encoder.apply(item);
+                crc.reset();
+                crc.update(SAVE);
+                crc.update(payload);
+                data.writeInt(1 + payload.length);
+                data.writeInt((int) crc.getValue());
+                data.writeByte(SAVE);
+                data.write(payload);
+            }
+            data.writeInt(0);
+            data.flush();
+            out.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        for (Path file : list(SEGMENT_PREFIX, ".log")) {
+            if (seqOf(file) < coveredSeq) {
+                Files.deleteIfExists(file);
+            }
+        }
+        for (Path file : list(SNAPSHOT_PREFIX, ".bin")) {
+            if (seqOf(file) < coveredSeq) {
+                Files.deleteIfExists(file);
+            }
+        }
+        return state.size();
+    }
+
+    /** Forces what was appended and stops appends; writers still waiting for a force that never came get an exception. */
+    /** Runs capture under the append lock, so no record is written meanwhile, with the position of the last record written. */
+    <T> T capture(LongFunction<T> capture) {
+        appendLock.lock();
+        try {
+            return capture.apply(position(segmentSeq, segment.position()));
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /** Position of the oldest record the last {@link #open} replayed; anything before it is no longer in the journal. */
+    long replayedFrom() {
+        return replayedFrom;
+    }
+
+    static long position(long segmentSeq, int offset) {
+        return segmentSeq << 32 | offset;
+    }
+
+    @Override
+    public void close() {
+        appendLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (segment != null && fsyncMode != FsyncMode.NONE) {
+                segment.force();
+                markDurable(appended);
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (Exception e) {
+            logger.error("{} close Error Exception : {}", className, e.toString(), e);
+        } finally {
+            appendLock.unlock();
+        }
+        syncLock.lock();
+        try {
+            flushRequested.signalAll();
+            flushed.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // caller holds appendLock and has made room for the record
+    private void write(byte type, byte[] payload) {
+        int length = 1 + payload.length;
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload);
+        int start = segment.position();
+        segment.position(start + 4);
+        segment.putInt((int) crc.getValue());
+        segment.put(type);
+        segment.put(payload);
+        // length last: until it is there the record reads as the end of the segment
+        segment.putInt(start, length);
+    }
+
+    // caller holds appendLock; the current segment stays in place until the next one is mapped
+    private void roll() throws IOException {
+        if (fsyncMode != FsyncMode.NONE) {
+            segment.force();
+        }
+        FileChannel previous = channel;
+        openSegment(segmentSeq + 1);
+        previous.close();
+        markDurable(appended);
+    }
+
+    private void openSegment(long seq) throws IOException {
+        Path file = dir.resolve(SEGMENT_PREFIX + name(seq) + ".log");
+        FileChannel next = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer mapped;
+        try {
+            mapped = next.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        } catch (IOException | RuntimeException e) {
+            next.close();
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        channel = next;
+        segment = mapped;
+        segmentSeq = seq;
+    }
+
+    private void awaitDurable(long seq) {
+        syncLock.lock();
+        try {
+            if (requested < seq) {
+                requested = seq;
+                flushRequested.signal();
+            }
+            while (durable < seq) {
+                if (closed) {
+                    throw new IllegalStateException("Session journal closed before record " + seq + " was forced");
+                }
+                flushed.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for record " + seq + " to be forced", e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (!closed) {
+            try {
+                syncLock.lock();
+                try {
+                    if (requested <= durable) {
+                        flushRequested.await(fsyncIntervalMs, TimeUnit.MILLISECONDS);
+                    }
+                } finally {
+                    syncLock.unlock();
+                }
+                forceNow();
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                logger.error("{} flushLoop Error Exception : {}", className, e.toString(), e);
+            }
+        }
+    }
+
+    private void forceNow() {
+        MappedByteBuffer buffer;
+        int position;
+        long seq;
+        appendLock.lock();
+        try {
+            buffer = segment;
+            position = buffer.position();
+            seq = appended;
+        } finally {
+            appendLock.unlock();
+        }
+        if (seq > durable) {
+            buffer.force(0, position);
+            markDurable(seq);
+        }
+    }
+
+    private void markDurable(long seq) {
+        syncLock.lock();
+        try {
+            if (seq > durable) {
+                durable = seq;
+            }
+            flushed.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private long replaySegment(Path file, long seq, RecordHandler handler) throws IOException {
+        long replayed = 0;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            CRC32 crc = new CRC32();
+            while (buffer.remaining() >= HEADER_BYTES) {
+                int length = buffer.getInt();
+                if (length == 0) {
+                    break;
+                }
+                if (length < 1 || length > buffer.remaining() - 4) {
+                    logger.warn("{} replaySegment torn record in {} at {}", className, file.getFileName(), buffer.position() - 4);
+                    break;
+                }
+                int expected = buffer.getInt();
+                ByteBuffer body = buffer.slice(buffer.position(), length);
+                crc.reset();
+                crc.update(body.duplicate());
+                if ((int) crc.getValue() != expected) {
+                    logger.warn("{} replaySegment checksum mismatch in {} at {}", className, file.getFileName(), buffer.position() - HEADER_BYTES);
+                    break;
+                }
+                buffer.position(buffer.position() + length);
+                handler.apply(body.get(), body.slice(), position(seq, buffer.position()));
+                replayed++;
+            }
+        }
+        return replayed;
+    }
+
+    private long replaySnapshot(Path file, long position, RecordHandler handler) throws IOException {
+        long replayed = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            CRC32 crc = new CRC32();
+            while (true) {
+                int length = in.readInt();
+                if (length == 0) {
+                    break;
+                }
+                int expected = in.readInt();
+                byte[] body = new byte[length];
+                in.readFully(body);
+                crc.reset();
+                crc.update(body);
+                if ((int) crc.getValue() != expected) {
+                    throw new IOException("Snapshot " + file.getFileName() + " is corrupt at record " + replayed);
+                }
+                handler.apply(body[0], ByteBuffer.wrap(body, 1, length - 1).slice(), position);
+                replayed++;
+            }
+        } catch (EOFException e) {
+            throw new IOException("Snapshot " + file.getFileName() + " is truncated", e);
+        }
+        return replayed;
+    }
+
+    private List<Path> list(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().startsWith(prefix) && f.getFileName().toString().endsWith(suffix))
+                    .sorted().toList();
+        }
+    }
+
+    private static long seqOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(name.indexOf('-') + 1, name.lastIndexOf('.')));
+    }
+
+    private static String name(long seq) {
+        return String.format("%020d", seq);
+    }
+
+    // payload encoding shared by the store and its DB mirror
+
+    interface PayloadWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    static byte[] payload(PayloadWriter writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try {
+            writer.write(new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static byte[] encodeSession(Sessions session) {
+        return payload(out -> {
+            out.writeInt(session.getSessionId());
+            writeBytes(out, session.getSessionTokenHash());
+            writeString(out, session.getLegacySessionToken());
+            writeInteger(out, session.getUserId());
+            writeString(out, session.getUserName());
+            List<String> roles = session.getRoleName() == null ? List.of() : session.getRoleName();
+            out.writeInt(roles.size());
+            for (String role : roles) {
+                writeString(out, role);
+            }
+            out.writeByte(session.getStatus() == null ? -1 : session.getStatus().ordinal());
+            writeString(out, session.getIpAddress());
+            writeString(out, session.getUserAgent());
+            writeString(out, session.getCreatedBy());
+            writeTime(out, session.getCreatedDate());
+            writeTime(out, session.getLastSeenAt());
+            writeTime(out, session.getExpiresAt());
+            writeTime(out, session.getRevokedAt());
+            writeString(out, session.getRevokedBy());
+            writeString(out, session.getMetaData());
+            writeBytes(out, session.getMetaDataBin());
+            out.writeByte(session.getActiveFlag() == null ? -1 : session.getActiveFlag() ? 1 : 0);
+            out.writeLong(session.getVersion() == null ? -1 : session.getVersion());
+            writeTime(out, session.getSupersededUntil());
+        });
+    }
+
+    static Sessions decodeSession(ByteBuffer in) {
+        Sessions session = new Sessions();
+        session.setSessionId(in.getInt());
+        session.setSessionTokenHash(readBytes(in));
+        session.setLegacySessionToken(readString(in));
+        session.setUserId(readInteger(in));
+        session.setUserName(readString(in));
+        int roleCount = in.getInt();
+        List<String> roles = new ArrayList<>(roleCount);
+        for (int i = 0; i < roleCount; i++) {
+            roles.add(readString(in));
+        }
+        session.setRoleName(roles);
+        byte status = in.get();
+        session.setStatus(status < 0 ? null : Sessions.SessionStatus.values()[status]);
+        session.setIpAddress(readString(in));
+        session.setUserAgent(readString(in));
+        session.setCreatedBy(readString(in));
+        session.setCreatedDate(readTime(in));
+        session.setLastSeenAt(readTime(in));
+        session.setExpiresAt(readTime(in));
+        session.setRevokedAt(readTime(in));
+        session.setRevokedBy(readString(in));
+        session.setMetaData(readString(in));
+        session.setMetaDataBin(readBytes(in));
+        byte active = in.get();
+        session.setActiveFlag(active < 0 ? null : active == 1);
+        long version = in.getLong();
+        session.setVersion(version < 0 ? null : version);
+        // absent from records written before it was added
+        if (in.hasRemaining()) {
+            session.setSupersededUntil(readTime(in));
+        }
+        return session;
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String readString(ByteBuffer in) {
+        byte[] bytes = readBytes(in);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        out.writeInt(value == null ? -1 : value.length);
+        if (value != null) {
+            out.write(value);
+        }
+    }
+
+    static byte[] readBytes(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return bytes;
+    }
+
+    static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        out.writeInt(value == null ? 0 : value);
+    }
+
+    static Integer readInteger(ByteBuffer in) {
+        boolean present = in.get() != 0;
+        int value = in.getInt();
+        return present ? value : null;
+    }
+
+    // nanoseconds since the epoch, read as UTC; LocalDateTime carries no zone so none is applied either way
+    static void writeTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeLong(value == null ? Long.MIN_VALUE : value.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + value.getNano());
+    }
+
+    static LocalDateTime readTime(ByteBuffer in) {
+        long nanos = in.getLong();
+        return nanos == Long.MIN_VALUE ? null
+                : LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+}
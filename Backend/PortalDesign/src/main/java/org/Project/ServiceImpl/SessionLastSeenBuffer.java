@@ -0,0 +1,158 @@
+package org.Project.ServiceImpl;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.Project.Repository.SessionStore;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for session lastSeenAt.
+ * Validations record the latest sighting per session in memory; the buffer is written to the {@link SessionStore} as one batch
+ * every {@code session.last-seen.max-staleness-ms}, as soon as it holds {@code session.last-seen.flush-threshold} sessions,
+ * and once more on shutdown.
+ */
+@Component
+public class SessionLastSeenBuffer {
+
+    private static final Logger logger = LogManager.getLogger(SessionLastSeenBuffer.class);
+    private final String className = "SessionLastSeenBuffer";
+
+    @Autowired
+    SessionStore sessionStore;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${session.last-seen.flush-threshold:1000}")
+    int flushThreshold;
+
+    @Value("${session.last-seen.max-staleness-ms:5000}")
+    long maxStalenessMs;
+
+    private final ConcurrentHashMap<Integer, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "session-last-seen-flusher");
+        t.setDaemon(true);
+        return t;
+    });
+    private final LongAdder touches = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    @PostConstruct
+    void registerMetrics() {
+        FunctionCounter.builder("session.last-seen.touches", touches, LongAdder::sum)
+                .description("lastSeenAt updates requested by validations").register(meterRegistry);
+        FunctionCounter.builder("session.last-seen.coalesced", coalesced, LongAdder::sum)
+                .description("lastSeenAt updates absorbed by a newer pending update for the same session").register(meterRegistry);
+        FunctionCounter.builder("session.last-seen.rows-written", rowsWritten, LongAdder::sum)
+                .description("lastSeenAt rows written to TBL_SESSION").register(meterRegistry);
+        FunctionCounter.builder("session.last-seen.batches", batches, LongAdder::sum)
+                .description("lastSeenAt JDBC batches executed").register(meterRegistry);
+        Gauge.builder("session.last-seen.pending", pending, ConcurrentHashMap::size)
+                .description("Sessions waiting for a lastSeenAt write").register(meterRegistry);
+    }
+
+    public void touch(Integer sessionId, LocalDateTime seenAt) {
+        if (sessionId == null || seenAt == null) {
+            return;
+        }
+        touches.increment();
+        pending.compute(sessionId, (id, previous) -> {
+            if (previous == null) {
+                return seenAt;
+            }
+            coalesced.increment();
+            return previous.isAfter(seenAt) ? previous : seenAt;
+        });
+        if (pending.size() >= flushThreshold && flushQueued.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushQueued.set(false);
+                flush();
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${session.last-seen.max-staleness-ms:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    public int flush() {
+        String methodName = "flush";
+        if (!flushLock.tryLock()) {
+            return 0;
+        }
+        try {
+            return drain();
+        } catch (Exception e) {
+            logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+            return 0;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int drain() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        Map<Integer, LocalDateTime> drained = new HashMap<>();
+        for (Integer sessionId : pending.keySet()) {
+            LocalDateTime seenAt = pending.remove(sessionId);
+            if (seenAt != null) {
+                drained.put(sessionId, seenAt);
+            }
+        }
+        try {
+            sessionStore.touch(drained);
+        } catch (RuntimeException e) {
+            // put the sightings back so the next flush retries them, keeping any newer value recorded meanwhile
+            drained.forEach((id, seenAt) -> pending.merge(id, seenAt, (a, b) -> a.isAfter(b) ? a : b));
+            throw e;
+        }
+        rowsWritten.add(drained.size());
+        batches.increment();
+        return drained.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        String methodName = "shutdown";
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(maxStalenessMs, TimeUnit.MILLISECONDS);
+            flushLock.lock();
+            try {
+                int written = drain();
+                logger.info("{} {} flushed {} pending lastSeenAt updates", className, methodName, written);
+            } finally {
+                flushLock.unlock();
+            }
+        } catch (Exception e) {
+            logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package org.Project.ServiceImpl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.Project.Entity.Sessions;
+import org.Project.dto.SessionMetaData;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Stores {@link SessionMetaData} on a session row and reads it back only where it is shown (get-session-id, archival);
+ * create and validate never decode it. {@code session.metadata.encoding=json} (the default) writes the META_DATA JSON
+ * column through the application's ObjectMapper; {@code compact} writes META_DATA_BIN instead: a version byte, then per
+ * field a one byte tag (known fields) or tag 0 plus the name, and the value, strings as varint length + UTF-8. Reads accept
+ * either column so the encoding can be switched at any time. Encoded metadata larger than {@code session.metadata.max-bytes}
+ * is rejected.
+ */
+@Component
+public class SessionMetaDataCodec {
+
+    private static final Logger logger = LogManager.getLogger(SessionMetaDataCodec.class);
+    private final String className = "SessionMetaDataCodec";
+
+    private static final byte VERSION = 1;
+    private static final byte CUSTOM = 0;
+    private static final byte LOGIN_METHOD = 1;
+    private static final byte LOGIN_TIME = 2;
+    private static final byte DEVICE_ID = 3;
+    private static final byte CLIENT_VERSION = 4;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${session.metadata.encoding:json}")
+    String encoding;
+
+    @Value("${session.metadata.max-bytes:1024}")
+    int maxBytes;
+
+    /** Sets the metadata columns of a new session; throws IllegalArgumentException when the encoded form is over the cap. */
+    public void assign(Sessions session, SessionMetaData metaData) {
+        session.setMetaData(null);
+        session.setMetaDataBin(null);
+        if (metaData == null) {
+            return;
+        }
+        int size;
+        if ("compact".equalsIgnoreCase(encoding)) {
+            byte[] encoded = encodeCompact(metaData);
+            size = encoded.length;
+            session.setMetaDataBin(encoded);
+        } else {
+            String json = toJson(metaData);
+            size = json.getBytes(StandardCharsets.UTF_8).length;
+            session.setMetaData(json);
+        }
+        if (size > maxBytes) {
+            throw new IllegalArgumentException("metaData is " + size + " bytes, at most " + maxBytes + " allowed");
+        }
+    }
+
+    public SessionMetaData decode(Sessions session) {
+        String methodName = "decode";
+        try {
+            if (session.getMetaDataBin() != null) {
+                return decodeCompact(session.getMetaDataBin());
+            }
+            if (session.getMetaData() != null && !"null".equals(session.getMetaData())) {
+                return objectMapper.readValue(session.getMetaData(), SessionMetaData.class);
+            }
+        } catch (Exception e) {
+            logger.warn("{} {} sessionId : {} unreadable metadata : {}", className, methodName, session.getSessionId(), e.toString());
+        }
+        return null;
+    }
+
+    /** JSON text of the metadata whichever column it is stored in, null if there is none. */
+    public String json(Sessions session) {
+        if (session.getMetaDataBin() == null) {
+            return session.getMetaData();
+        }
+        SessionMetaData metaData = decode(session);
+        return metaData == null ? null : toJson(metaData);
+    }
+
+    private String toJson(SessionMetaData metaData) {
+        try {
+            return objectMapper.writeValueAsString(metaData);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("metaData is not serializable", e);
+        }
+    }
+
+    static byte[] encodeCompact(SessionMetaData metaData) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(VERSION);
+        writeField(out, LOGIN_METHOD, null, metaData.getLoginMethod());
+        writeField(out, LOGIN_TIME, null, metaData.getLoginTime());
+        writeField(out, DEVICE_ID, null, metaData.getDeviceId());
+        writeField(out, CLIENT_VERSION, null, metaData.getClientVersion());
+        for (Map.Entry<String, String> attribute : metaData.getAttributes().entrySet()) {
+            writeField(out, CUSTOM, attribute.getKey(), attribute.getValue());
+        }
+        return out.toByteArray();
+    }
+
+    static SessionMetaData decodeCompact(byte[] bytes) {
+        if (bytes.length == 0 || bytes[0] != VERSION) {
+            throw new IllegalArgumentException("Unknown metadata encoding version");
+        }
+        SessionMetaData metaData = new SessionMetaData();
+        int[] position = {1};
+        while (position[0] < bytes.length) {
+            byte tag = bytes[position[0]++];
+            String name = tag == CUSTOM ? readString(bytes, position) : null;
+            String value = readString(bytes, position);
+            switch (tag) {
+                case LOGIN_METHOD -> metaData.setLoginMethod(value);
+                case LOGIN_TIME -> metaData.setLoginTime(value);
+                case DEVICE_ID -> metaData.setDeviceId(value);
+                case CLIENT_VERSION -> metaData.setClientVersion(value);
+                case CUSTOM -> metaData.getAttributes().put(name, value);
+                default -> throw new IllegalArgumentException("Unknown metadata field tag " + tag);
+            }
+        }
+        return metaData;
+    }
+
+    private static void writeField(ByteArrayOutputStream out, byte tag, String name, String value) {
+        if (value == null) {
+            return;
+        }
+        out.write(tag);
+        if (tag == CUSTOM) {
+            writeString(out, name);
+        }
+        writeString(out, value);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        int length = utf8.length;
+        while ((length & ~0x7F) != 0) {
+            out.write((length & 0x7F) | 0x80);
+            length >>>= 7;
+        }
+        out.write(length);
+        out.write(utf8, 0, utf8.length);
+    }
+
+    private static String readString(byte[] bytes, int[] position) {
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = bytes[position[0]++];
+            length |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+        }
+        String value = new String(bytes, position[0], length, StandardCharsets.UTF_8);
+        position[0] += length;
+        return value;
+    }
+}
@@ -0,0 +1,198 @@
+package org.Project.ServiceImpl;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.Project.Repository.SessionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Maintains monthly RANGE COLUMNS partitions of TBL_SESSION on CREATED_DATE once the table has been converted with
+ * db/session-partitioning.sql. Keeps {@code session.partitioning.months-ahead} empty months split off the MAXVALUE partition
+ * so inserts never land in it, and lets retention drop a whole month instead of deleting its rows one chunk at a time.
+ * A partition is only dropped when every row in it matches {@link SessionRepository#PURGEABLE}; stragglers keep it until a
+ * later run. Does nothing while the table is unpartitioned. DDL runs on the node holding the "session-partitions" lease.
+ * Present with the JPA store and with the journal store's DB mirror, like {@link SessionPurger}.
+ * <p>
+ * Only the retention paths and the listing carry CREATED_DATE. Lookups by token hash or id, and the conditional UPDATEs by
+ * either, have no key the partitioning can use, so they make one index dive per partition. Retention plus
+ * {@code months-ahead} bounds that to a handful of dives, and the partitions ahead are empty. Partitioning on SESSION_ID
+ * would prune the id lookups, but not the hash lookups, and a month could then only be dropped once its id range was known.
+ */
+@Component
+@ConditionalOnExpression("'${session.store.type:jpa}' == 'jpa' or ('${session.store.type:jpa}' == 'journal' and ${session.journal.mirror-to-db:true})")
+public class SessionPartitionManager {
+
+    private static final Logger logger = LogManager.getLogger(SessionPartitionManager.class);
+    private final String className = "SessionPartitionManager";
+
+    private static final String LOCK_NAME = "session-partitions";
+    private static final String FUTURE_PARTITION = "p_future";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ClusterLock clusterLock;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${session.partitioning.enabled:true}")
+    boolean enabled;
+
+    @Value("${session.partitioning.months-ahead:3}")
+    int monthsAhead;
+
+    @Value("${session.partitioning.lease-seconds:600}")
+    long leaseSeconds;
+
+    private volatile boolean partitioned;
+    private final AtomicInteger partitionCount = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+
+    /** A partition and its exclusive upper bound on CREATED_DATE, null for MAXVALUE. */
+    record Partition(String name, LocalDate lessThan) {
+    }
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("session.partitions", partitionCount, AtomicInteger::get)
+                .description("Partitions of TBL_SESSION").register(meterRegistry);
+        FunctionCounter.builder("session.partitions.dropped", dropped, LongAdder::sum)
+                .description("TBL_SESSION partitions dropped by retention").register(meterRegistry);
+    }
+
+    public boolean isPartitioned() {
+        return enabled && partitioned;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${session.partitioning.cron:0 30 2 * * *}")
+    public void maintain() {
+        String methodName = "maintain";
+        if (!enabled) {
+            return;
+        }
+        try {
+            List<Partition> partitions = partitions();
+            partitioned = !partitions.isEmpty();
+            if (!partitioned) {
+                logger.info("{} {} TBL_SESSION is not partitioned, retention stays row based", className, methodName);
+                return;
+            }
+            if (!clusterLock.tryLock(LOCK_NAME, Duration.ofSeconds(leaseSeconds))) {
+                return;
+            }
+            try {
+                createAhead(partitions);
+            } finally {
+                clusterLock.unlock(LOCK_NAME);
+            }
+        } catch (Exception e) {
+            logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+        }
+    }
+
+    /**
+     * Drops every partition whose whole CREATED_DATE range lies before the cutoff and which holds nothing that is still open
+     * or expires after it. The caller holds the purge lease; returns the number of partitions dropped.
+     */
+    public int dropBefore(LocalDateTime before) {
+        String methodName = "dropBefore";
+        if (!isPartitioned()) {
+            return 0;
+        }
+        int count = 0;
+        for (Partition partition : partitions()) {
+            if (partition.lessThan() == null || partition.lessThan().atStartOfDay().isAfter(before)) {
+                continue;
+            }
+            List<Integer> open = new NamedParameterJdbcTemplate(jdbcTemplate).queryForList(keptRows(partition.name()),
+                    Map.of("before", before), Integer.class);
+            if (!open.isEmpty()) {
+                logger.info("{} {} keeping {}, it still holds open sessions", className, methodName, partition.name());
+                continue;
+            }
+            jdbcTemplate.execute("ALTER TABLE TBL_SESSION DROP PARTITION " + partition.name());
+            dropped.increment();
+            count++;
+            logger.info("{} {} dropped {} (created before {})", className, methodName, partition.name(), partition.lessThan());
+        }
+        if (count > 0) {
+            partitionCount.addAndGet(-count);
+        }
+        return count;
+    }
+
+    // the complement of the purge predicate, so a drop removes exactly what the purge would have deleted; a row the predicate
+    // evaluates to NULL for is one the purge keeps, so it keeps the partition too
+    static String keptRows(String partition) {
+        return "SELECT 1 FROM TBL_SESSION PARTITION (" + partition + ") WHERE NOT COALESCE(" + SessionRepository.PURGEABLE + ", FALSE) LIMIT 1";
+    }
+
+    // splits the next months off p_future; it is still empty then, so the reorganize copies nothing
+    private void createAhead(List<Partition> partitions) {
+        String methodName = "createAhead";
+        Partition last = partitions.get(partitions.size() - 1);
+        if (last.lessThan() != null || !FUTURE_PARTITION.equals(last.name())) {
+            logger.warn("{} {} last partition is {}, expected {} VALUES LESS THAN (MAXVALUE)", className, methodName, last.name(), FUTURE_PARTITION);
+            return;
+        }
+        LocalDate bound = partitions.size() > 1 ? partitions.get(partitions.size() - 2).lessThan() : LocalDate.now().withDayOfMonth(1);
+        LocalDate horizon = LocalDate.now().withDayOfMonth(1).plusMonths(monthsAhead);
+        List<String> definitions = new ArrayList<>();
+        while (!bound.isAfter(horizon)) {
+            LocalDate next = bound.plusMonths(1);
+            definitions.add("PARTITION " + bound.format(PARTITION_NAME) + " VALUES LESS THAN ('" + next + "')");
+            bound = next;
+        }
+        if (definitions.isEmpty()) {
+            return;
+        }
+        definitions.add("PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE)");
+        jdbcTemplate.execute("ALTER TABLE TBL_SESSION REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO (" + String.join(", ", definitions) + ")");
+        partitionCount.addAndGet(definitions.size() - 1);
+        logger.info("{} {} added {} partitions up to {}", className, methodName, definitions.size() - 1, bound);
+    }
+
+    List<Partition> partitions() {
+        List<Partition> partitions = jdbcTemplate.query(
+                "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS"
+                        + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'TBL_SESSION' AND PARTITION_NAME IS NOT NULL"
+                        + " ORDER BY PARTITION_ORDINAL_POSITION",
+                (rs, rowNum) -> new Partition(rs.getString(1), parseBound(rs.getString(2))));
+        partitionCount.set(partitions.size());
+        return partitions;
+    }
+
+    // RANGE COLUMNS bounds come back quoted, e.g. '2026-11-01' or '2026-11-01 00:00:00'
+    private static LocalDate parseBound(String description) {
+        if (description == null || description.equalsIgnoreCase("MAXVALUE")) {
+            return null;
+        }
+        return LocalDate.parse(description.replace("'", "").substring(0, 10));
+    }
+}
@@ -0,0 +1,150 @@
+package org.Project.ServiceImpl;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.Project.Repository.SessionRepository;
+import org.Project.Repository.SessionStore.PurgeResult;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deletes closed sessions older than the retention window in bounded SESSION_ID ranges, each in its own short transaction,
+ * pausing between chunks so logins are never queued behind one long DELETE. Only the node holding the "session-purge"
+ * {@link ClusterLock} lease runs it; the lease is renewed after every chunk. When TBL_SESSION is partitioned, whole months
+ * past retention are dropped first by {@link SessionPartitionManager} and the row purge only sweeps what remains. Present
+ * wherever TBL_SESSION holds sessions: with the JPA store, and with the journal store's DB mirror.
+ */
+@Component
+@ConditionalOnExpression("'${session.store.type:jpa}' == 'jpa' or ('${session.store.type:jpa}' == 'journal' and ${session.journal.mirror-to-db:true})")
+public class SessionPurger {
+
+    private static final Logger logger = LogManager.getLogger(SessionPurger.class);
+    private final String className = "SessionPurger";
+
+    private static final String LOCK_NAME = "session-purge";
+
+    @Autowired
+    SessionRepository sessionRepository;
+
+    @Autowired
+    ClusterLock clusterLock;
+
+    @Autowired
+    SessionPartitionManager partitionManager;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${session.purge.enabled:true}")
+    boolean enabled;
+
+    @Value("${session.purge.retention-days:30}")
+    int retentionDays;
+
+    @Value("${session.purge.chunk-size:2000}")
+    int chunkSize;
+
+    @Value("${session.purge.pause-ms:200}")
+    long pauseMs;
+
+    @Value("${session.purge.lease-seconds:300}")
+    long leaseSeconds;
+
+    private TransactionTemplate chunkTransaction;
+    private final LongAdder sessionsDeleted = new LongAdder();
+    private final LongAdder chunks = new LongAdder();
+    private final AtomicLong remainingIds = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        chunkTransaction = new TransactionTemplate(transactionManager);
+        chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        FunctionCounter.builder("session.purge.sessions-deleted", sessionsDeleted, LongAdder::sum)
+                .description("TBL_SESSION rows deleted by the purger").register(meterRegistry);
+        FunctionCounter.builder("session.purge.chunks", chunks, LongAdder::sum)
+                .description("Id-range chunks processed by the purger").register(meterRegistry);
+        Gauge.builder("session.purge.remaining-ids", remainingIds, AtomicLong::get)
+                .description("Width of the id range the running purge has still to cover").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${session.purge.cron:0 */15 * * * *}")
+    public void scheduledPurge() {
+        if (enabled) {
+            purge(LocalDateTime.now().minusDays(retentionDays));
+        }
+    }
+
+    /**
+     * Purges sessions closed and expired before the given time; returns ran=false if another node holds the purge lease.
+     * A chunk that fails, or an interrupt, is rethrown once the lease is released, with the chunks before it already committed.
+     */
+    public PurgeResult purge(LocalDateTime before) {
+        String methodName = "purge";
+        Duration lease = Duration.ofSeconds(leaseSeconds);
+        if (!clusterLock.tryLock(LOCK_NAME, lease)) {
+            logger.info("{} {} skipped, lease held by another node", className, methodName);
+            return new PurgeResult(false, 0, 0, 0);
+        }
+        int deleted = 0;
+        int chunkCount = 0;
+        int partitionsDropped = 0;
+        try {
+            partitionsDropped = partitionManager.dropBefore(before);
+            List<Object[]> range = sessionRepository.findPurgeableIdRange(before);
+            if (range.isEmpty() || range.get(0)[0] == null) {
+                return new PurgeResult(true, 0, 0, partitionsDropped);
+            }
+            int minId = ((Number) range.get(0)[0]).intValue();
+            int maxId = ((Number) range.get(0)[1]).intValue();
+            logger.info("{} {} before : {} ids {}..{}", className, methodName, before, minId, maxId);
+            for (long from = minId; from <= maxId; from += chunkSize) {
+                int fromId = (int) from;
+                int toId = (int) Math.min(maxId, from + chunkSize - 1);
+                Integer count = chunkTransaction.execute(status -> sessionRepository.deleteExpiredInRange(fromId, toId, before));
+                deleted += count;
+                chunkCount++;
+                sessionsDeleted.add(count);
+                chunks.increment();
+                remainingIds.set(maxId - toId);
+                if (toId < maxId) {
+                    if (!clusterLock.tryLock(LOCK_NAME, lease)) {
+                        logger.warn("{} {} lost the purge lease at id {}, stopping", className, methodName, toId);
+                        break;
+                    }
+                    Thread.sleep(pauseMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Session purge interrupted after " + deleted + " sessions", e);
+        } catch (RuntimeException e) {
+            // the lease is released below either way; a partial purge must not be reported as a finished one
+            logger.error("{} {} deleted : {} before Error Exception : {}", className, methodName, deleted, e.toString(), e);
+            throw e;
+        } finally {
+            remainingIds.set(0);
+            clusterLock.unlock(LOCK_NAME);
+        }
+        logger.info("{} {} deleted : {} chunks : {} partitionsDropped : {}", className, methodName, deleted, chunkCount, partitionsDropped);
+        return new PurgeResult(true, deleted, chunkCount, partitionsDropped);
+    }
+}
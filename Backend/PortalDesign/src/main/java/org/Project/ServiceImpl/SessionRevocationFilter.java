@@ -0,0 +1,243 @@
+package org.Project.ServiceImpl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.Project.Repository.SessionStore;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * What a signed token's claims alone cannot tell: that its session was revoked, or that an extend or refresh moved the
+ * session's expiry and so superseded every token issued before it. A superseded session only honours the token carrying its
+ * current expiry, until the latest expiry of any older token has passed (durable as SUPERSEDED_UNTIL on the session row).
+ * A Bloom filter answers the common "neither" case without touching the exact maps; positives are confirmed against them.
+ * Role names changed since tokens were issued are tracked as well, so a token holding one is answered from the store instead.
+ * Until the first load from the store succeeds every signed token is rejected, and the load is retried until it does.
+ */
+@Component
+public class SessionRevocationFilter {
+
+    private static final Logger logger = LogManager.getLogger(SessionRevocationFilter.class);
+    private final String className = "SessionRevocationFilter";
+
+    private static final int HASHES = 4;
+
+    @Autowired
+    SessionStore sessionStore;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${session.revocation.filter-bits:1048576}")
+    int filterBits;
+
+    @Value("${session.revocation.load-retry-ms:1000}")
+    long loadRetryMs;
+
+    @Value("${session.revocation.role-scan-page-size:5000}")
+    int roleScanPageSize;
+
+    private final ConcurrentHashMap<Integer, Long> revoked = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Superseded> superseded = new ConcurrentHashMap<>();
+    // role name to the epoch second until which tokens holding it are answered from the store
+    private final ConcurrentHashMap<String, Long> changedRoles = new ConcurrentHashMap<>();
+    private volatile AtomicLongArray bits;
+    private volatile boolean ready;
+
+    private record Superseded(long currentExpiresAt, long retainUntil) {
+    }
+
+    @PostConstruct
+    void init() {
+        bits = new AtomicLongArray(Math.max(1, filterBits / Long.SIZE));
+        Gauge.builder("session.revocation.entries", revoked, ConcurrentHashMap::size)
+                .description("Revoked sessions tracked for signed token validation").register(meterRegistry);
+        Gauge.builder("session.revocation.superseded", superseded, ConcurrentHashMap::size)
+                .description("Sessions whose earlier signed tokens were superseded by an extend or refresh").register(meterRegistry);
+    }
+
+    /** False until the first load from the store has succeeded; signed tokens are rejected until then. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void revoke(Integer sessionId, LocalDateTime expiresAt) {
+        if (sessionId == null) {
+            return;
+        }
+        // a superseded token may outlive the session's current expiry
+        Superseded moved = superseded.get(sessionId);
+        long until = Math.max(SessionIndex.epochSecond(expiresAt), moved == null ? 0 : moved.retainUntil());
+        revoked.merge(sessionId, until, Math::max);
+        setBits(bits, sessionId);
+    }
+
+    /**
+     * Records that the session's expiry is now expiresAt. previousExpiresAt is the expiry of the tokens this supersedes, or
+     * null when the caller does not know it.
+     */
+    public void supersede(Integer sessionId, LocalDateTime expiresAt, LocalDateTime previousExpiresAt) {
+        if (sessionId == null || expiresAt == null) {
+            return;
+        }
+        long current = SessionIndex.epochSecond(expiresAt);
+        long until = previousExpiresAt == null ? current : Math.max(current, SessionIndex.epochSecond(previousExpiresAt));
+        superseded.merge(sessionId, new Superseded(current, until),
+                (old, next) -> new Superseded(next.currentExpiresAt(), Math.max(old.retainUntil(), next.retainUntil())));
+        setBits(bits, sessionId);
+    }
+
+    /** True when a token with these claims must not be honoured: the filter is still loading, or the session was revoked or superseded. */
+    public boolean rejects(SignedSessionTokens.Claims claims) {
+        if (!ready) {
+            return true;
+        }
+        int sessionId = claims.sessionId();
+        AtomicLongArray filter = bits;
+        long length = filter.length() * (long) Long.SIZE;
+        long h = mix(sessionId);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(h + (long) i * (h >>> 32 | 1), length);
+            if ((filter.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        if (revoked.containsKey(sessionId)) {
+            return true;
+        }
+        Superseded moved = superseded.get(sessionId);
+        return moved != null && moved.currentExpiresAt() != claims.expiresAtEpochSecond();
+    }
+
+    /**
+     * Marks role names as changed, until the latest expiry of the active sessions holding them: tokens issued before the
+     * change are answered from the store rather than their claims, the same way the near-cache drops its copies.
+     */
+    public void rolesChanged(Collection<String> roleNames) {
+        String methodName = "rolesChanged";
+        for (String roleName : roleNames) {
+            long until;
+            try {
+                until = SessionIndex.epochSecond(LocalDateTime.now());
+                int afterId = 0;
+                while (true) {
+                    List<Object[]> page = sessionStore.findActiveExpiryByRole(roleName, afterId, roleScanPageSize);
+                    if (page.isEmpty()) {
+                        break;
+                    }
+                    for (Object[] row : page) {
+                        until = Math.max(until, SessionIndex.epochSecond((LocalDateTime) row[1]));
+                    }
+                    afterId = ((Number) page.get(page.size() - 1)[0]).intValue();
+                }
+            } catch (Exception e) {
+                // without the scan there is no bound, so the role stays answered from the store until the next restart
+                logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+                until = Long.MAX_VALUE;
+            }
+            changedRoles.merge(roleName, until, Math::max);
+        }
+    }
+
+    public boolean holdsChangedRole(Collection<String> roleNames) {
+        if (changedRoles.isEmpty()) {
+            return false;
+        }
+        for (String roleName : roleNames) {
+            if (changedRoles.containsKey(roleName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Thread.ofVirtual().name("revocation-filter-load").start(this::rebuild);
+    }
+
+    /** Loads revoked and superseded sessions from the store, retrying with backoff until it succeeds. */
+    public void rebuild() {
+        String methodName = "rebuild";
+        long delayMs = loadRetryMs;
+        while (true) {
+            try {
+                LocalDateTime now = LocalDateTime.now();
+                List<Object[]> revokedRows = sessionStore.findRevokedUnexpired(now);
+                List<Object[]> supersededRows = sessionStore.findSupersededUnexpired(now);
+                for (Object[] row : supersededRows) {
+                    supersede((Integer) row[0], (LocalDateTime) row[1], (LocalDateTime) row[2]);
+                }
+                for (Object[] row : revokedRows) {
+                    revoke((Integer) row[0], (LocalDateTime) row[1]);
+                }
+                // an expired or revoked session whose superseded tokens are still unexpired
+                for (Object[] row : supersededRows) {
+                    if (!Boolean.TRUE.equals(row[3])) {
+                        revoke((Integer) row[0], (LocalDateTime) row[2]);
+                    }
+                }
+                ready = true;
+                logger.info("{} {} revoked : {} superseded : {}", className, methodName, revokedRows.size(), supersededRows.size());
+                return;
+            } catch (Exception e) {
+                logger.error("{} {} Error Exception : {} retrying in {} ms", className, methodName, e.toString(), delayMs, e);
+            }
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            delayMs = Math.min(delayMs * 2, 60_000);
+        }
+    }
+
+    /** Forgets entries whose last token has expired and rebuilds the Bloom filter from what is left. */
+    @Scheduled(fixedDelayString = "${session.revocation.prune-interval-ms:600000}")
+    public void prune() {
+        long now = SessionIndex.epochSecond(LocalDateTime.now());
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        superseded.values().removeIf(moved -> moved.retainUntil() <= now);
+        changedRoles.values().removeIf(until -> until <= now);
+        AtomicLongArray rebuilt = new AtomicLongArray(bits.length());
+        revoked.keySet().forEach(sessionId -> setBits(rebuilt, sessionId));
+        superseded.keySet().forEach(sessionId -> setBits(rebuilt, sessionId));
+        bits = rebuilt;
+        // a revoke that landed between the copy and the swap must not be lost
+        revoked.keySet().forEach(sessionId -> setBits(bits, sessionId));
+        superseded.keySet().forEach(sessionId -> setBits(bits, sessionId));
+    }
+
+    private static void setBits(AtomicLongArray filter, int sessionId) {
+        long length = filter.length() * (long) Long.SIZE;
+        long h = mix(sessionId);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(h + (long) i * (h >>> 32 | 1), length);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = filter.get(word);
+            } while ((current & mask) == 0 && !filter.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    private static long mix(int value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+}
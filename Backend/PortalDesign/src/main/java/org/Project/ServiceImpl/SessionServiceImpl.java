@@ -1,22 +1,33 @@
 package org.Project.ServiceImpl;
 
-import com.google.gson.Gson;
 import org.Project.Entity.Sessions;
-import org.Project.Repository.SessionRepository;
+import org.Project.Repository.SessionStore;
 import org.Project.Service.SessionService;
 import org.Project.dto.SessionDto;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
 import org.springframework.data.domain.*;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.security.SecureRandom;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 @Service
@@ -24,21 +35,263 @@ import java.util.*;
 public class SessionServiceImpl implements SessionService {
 
     @Autowired
-    private SessionRepository sessionRepository;
+    private SessionStore sessionStore;
+
+    @Autowired
+    private SessionCache sessionCache;
+
+    @Autowired
+    private SessionLastSeenBuffer lastSeenBuffer;
+
+    @Autowired
+    private SessionIndex sessionIndex;
+
+    @Autowired
+    private SignedSessionTokens signedTokens;
+
+    @Autowired
+    private SessionRevocationFilter revocationFilter;
+
+    @Autowired
+    private SessionExpiryScheduler expiryScheduler;
+
+    @Autowired
+    private SessionCountEstimator countEstimator;
+
+    @Autowired
+    private SessionBulkRevoker bulkRevoker;
+
+    @Autowired
+    private SessionTokenMinter tokenMinter;
+
+    @Autowired
+    private SessionTokenStorage tokenStorage;
+
+    @Autowired
+    private SessionEventHub eventHub;
+
+    @Autowired
+    private ActiveSessionRegistry activeSessions;
+
+    @Autowired
+    private SessionArchiver sessionArchiver;
+
+    @Autowired
+    private SessionMetaDataCodec metaDataCodec;
+
+    @Autowired
+    private ClusterInvalidationLog invalidationLog;
+
+    @Autowired
+    private UserSessionLocks userLocks;
+
+    @Autowired
+    private SessionEventTickets eventTickets;
+
+    @Value("${session.batch-issue.max-size:1000}")
+    private int batchIssueMaxSize;
+
+    @Value("${session.batch-validate.max-size:500}")
+    private int batchValidateMaxSize;
+
+    // 1 keeps single-session login, 0 means unlimited
+    @Value("${session.concurrency.max-per-user:1}")
+    private int maxSessionsPerUser;
+
+    // revoke-oldest | reject
+    @Value("${session.concurrency.on-limit:revoke-oldest}")
+    private String onSessionLimit;
 
     private static final Logger logger = LogManager.getLogger(SessionServiceImpl.class);
-    private static final SecureRandom random = new SecureRandom();
     private static final int DEFAULT_TTL_MINUTES = 60 * 24; // 1440
     private final String className = "SessionServiceImpl";
 
     public String generateSessionToken() {
-        byte[] bytes = new byte[32];
-        random.nextBytes(bytes);
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(String.format("%02x", b));
+        return tokenMinter.nextToken();
+    }
+
+    // runs the eviction now and again once the surrounding transaction commits, so a concurrent read cannot re-cache the old row
+    private void evictNowAndAfterCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    // opaque tokens are looked up directly, signed ones by the sessionId they carry once signature and revocation check out
+    private Optional<Sessions> findActiveSession(String sessionToken) {
+        if (signedTokens.isSigned(sessionToken)) {
+            SignedSessionTokens.Claims claims = signedTokens.verify(sessionToken);
+            if (claims == null || revocationFilter.rejects(claims)) {
+                return Optional.empty();
+            }
+            return sessionStore.findActiveById(claims.sessionId()).filter(session -> SignedSessionTokens.describes(claims, session));
+        }
+        return findActiveByOpaqueToken(sessionToken);
+    }
+
+    // by digest, and while rows may still be unhashed by the plaintext column too
+    private Optional<Sessions> findActiveByOpaqueToken(String sessionToken) {
+        Optional<Sessions> session = sessionStore.findActiveByTokenHash(TokenDigest.sha256(sessionToken));
+        if (session.isEmpty() && tokenStorage.dualRead()) {
+            session = sessionStore.findActiveByLegacyToken(sessionToken);
+        }
+        session.ifPresent(s -> s.setSessionToken(sessionToken));
+        return session;
+    }
+
+    // what refresh, extend and revoke need to know about a session is fixed at creation, so an opaque token the near-cache
+    // knows costs no read and the conditional UPDATE is the only round trip
+    // expiresAt is the expiry the presented token was issued with, which an extend or refresh supersedes
+    private record Target(Integer sessionId, Integer userId, String userName, List<String> roles, byte[] tokenHash, String sessionToken,
+                          LocalDateTime expiresAt) {
+    }
+
+    private Optional<Target> findTarget(String sessionToken) {
+        if (!signedTokens.isSigned(sessionToken)) {
+            SessionCache.CachedSession cached = sessionCache.get(sessionToken);
+            if (cached != null) {
+                return Optional.of(new Target(cached.sessionId(), cached.userId(), cached.userName(), cached.roles(), TokenDigest.sha256(sessionToken),
+                        sessionToken, cached.expiresAt()));
+            }
+        }
+        return findActiveSession(sessionToken).map(session -> new Target(session.getSessionId(), session.getUserId(),
+                session.getUserName(), session.getRoleName(), SessionTokenStorage.hashOf(session), session.getSessionToken(), session.getExpiresAt()));
+    }
+
+    // one conditional UPDATE; the caches and the timing wheel only follow when it actually moved the expiry
+    private boolean extend(Target target, LocalDateTime expiresAt, LocalDateTime now) {
+        if (sessionStore.extendActive(target.sessionId(), expiresAt, now, now) == 0) {
+            evictNowAndAfterCommit(() -> sessionCache.invalidateSessionId(target.sessionId()));
+            return false;
         }
-        return sb.toString();
+        invalidationLog.append(List.of(ClusterInvalidationLog.extended(target.sessionId(), target.userId(), target.tokenHash(),
+                expiresAt, target.expiresAt())));
+        evictNowAndAfterCommit(() -> {
+            sessionCache.invalidateSessionId(target.sessionId());
+            sessionIndex.updateExpiry(target.tokenHash(), expiresAt);
+            // signed tokens issued before this carry the old expiry and stop validating
+            revocationFilter.supersede(target.sessionId(), expiresAt, target.expiresAt());
+        });
+        expiryScheduler.schedule(target.sessionId(), expiresAt);
+        eventHub.publishAfterCommit(() -> eventHub.publish(SessionEventHub.EXTENDED, target.sessionId(), expiresAt));
+        return true;
+    }
+
+    private Sessions newSession(SessionDto sessionDto, LocalDateTime now) {
+        Sessions session = new Sessions();
+        session.setUserId(sessionDto.getUserId());
+        session.setCreatedBy(sessionDto.getUserName());
+        session.setUserName(sessionDto.getUserName());
+        session.setCreatedDate(now);
+        session.setStatus(Sessions.SessionStatus.ACTIVE);
+        session.setActiveFlag(true);
+        tokenStorage.assign(session, generateSessionToken());
+        int ttl = (sessionDto.getTtlMinutes() == null || sessionDto.getTtlMinutes() <= 0) ? DEFAULT_TTL_MINUTES : sessionDto.getTtlMinutes();
+        session.setExpiresAt(now.plusMinutes(ttl));
+        session.setRoleName(sessionDto.getRoleName() == null ? Collections.emptyList() : sessionDto.getRoleName());
+        metaDataCodec.assign(session, sessionDto.getMetaData());
+        session.setIpAddress(sessionDto.getIpAddress());
+        session.setUserAgent(sessionDto.getUserAgent());
+        session.setLastSeenAt(now);
+        return session;
+    }
+
+    // one UPDATE for every active session of these users; the projection only feeds the in-memory structures
+    private void revokePriorSessions(Collection<String> userNames, LocalDateTime now) {
+        List<Object[]> existing = sessionStore.findActiveTokensByUserNames(userNames);
+        if (existing.isEmpty()) {
+            return;
+        }
+        sessionStore.revokeByUserNames(userNames, now, "SYSTEM");
+        invalidationLog.append(existing.stream().map(row -> ClusterInvalidationLog.session(SessionEventHub.REVOKED, (Integer) row[0], null,
+                SessionTokenStorage.hashOf((byte[]) row[1], (String) row[2]), (LocalDateTime) row[3])).toList());
+        evictNowAndAfterCommit(() -> {
+            userNames.forEach(sessionCache::invalidateUserName);
+            existing.forEach(row -> {
+                sessionIndex.markStatus(SessionTokenStorage.hashOf((byte[]) row[1], (String) row[2]), SessionIndex.REVOKED);
+                revocationFilter.revoke((Integer) row[0], (LocalDateTime) row[3]);
+                expiryScheduler.cancel((Integer) row[0]);
+            });
+        });
+        activeSessions.removeAfterCommit(existing.stream().map(row -> (Integer) row[0]).toList());
+        eventHub.publishAfterCommit(() -> existing.forEach(row -> eventHub.publish(SessionEventHub.REVOKED, (Integer) row[0], (LocalDateTime) row[3])));
+    }
+
+    private boolean singleSessionLogin(SessionDto sessionDto) {
+        return sessionDto.getUserId() == null || (maxSessionsPerUser == 1 && !"reject".equalsIgnoreCase(onSessionLimit));
+    }
+
+    // the in-memory count answers the common case; only a user at the limit costs a query, which also resyncs a stale view
+    private ResponseEntity<?> enforceSessionLimit(int userId, LocalDateTime now) {
+        if (maxSessionsPerUser <= 0 || (activeSessions.isReady() && activeSessions.count(userId) < maxSessionsPerUser)) {
+            return null;
+        }
+        List<Object[]> active = new ArrayList<>(sessionStore.findActiveExpiryByUserId(userId));
+        active.sort(Comparator.comparing(row -> (Integer) row[0]));
+        activeSessions.resync(userId, active.stream().map(row -> (Integer) row[0]).toList());
+        if (active.size() < maxSessionsPerUser) {
+            return null;
+        }
+        if ("reject".equalsIgnoreCase(onSessionLimit)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "SESSION_LIMIT_REACHED",
+                    "message", "Maximum of " + maxSessionsPerUser + " active sessions reached", "activeSessions", active.size()));
+        }
+        revokeSessions(active.subList(0, active.size() - maxSessionsPerUser + 1), now);
+        return null;
+    }
+
+    // rows are [sessionId, expiresAt]
+    private void revokeSessions(List<Object[]> rows, LocalDateTime now) {
+        Set<Integer> sessionIds = new HashSet<>();
+        rows.forEach(row -> sessionIds.add((Integer) row[0]));
+        sessionStore.revokeByIds(sessionIds, now, "SYSTEM");
+        invalidationLog.append(rows.stream().map(row -> ClusterInvalidationLog.session(SessionEventHub.REVOKED, (Integer) row[0], null,
+                null, (LocalDateTime) row[1])).toList());
+        evictNowAndAfterCommit(() -> {
+            sessionCache.invalidateSessionIds(sessionIds);
+            sessionIndex.revokeSessionIds(sessionIds);
+            rows.forEach(row -> {
+                revocationFilter.revoke((Integer) row[0], (LocalDateTime) row[1]);
+                expiryScheduler.cancel((Integer) row[0]);
+            });
+        });
+        activeSessions.removeAfterCommit(sessionIds);
+        eventHub.publishAfterCommit(() -> rows.forEach(row -> eventHub.publish(SessionEventHub.REVOKED, (Integer) row[0], (LocalDateTime) row[1])));
+    }
+
+    private String clientToken(Sessions session) {
+        return clientToken(session.getSessionId(), session.getUserId(), session.getUserName(), session.getExpiresAt(),
+                session.getRoleName(), session.getSessionToken());
+    }
+
+    private String clientToken(Integer sessionId, Integer userId, String userName, LocalDateTime expiresAt, List<String> roles, String rawToken) {
+        if (signedTokens.issuesSigned()) {
+            return signedTokens.issue(sessionId, userId, userName, expiresAt, roles);
+        }
+        // only the digest is stored, a session loaded without its raw token (presented as signed) keeps a signed one
+        return rawToken != null ? rawToken : signedTokens.issue(sessionId, userId, userName, expiresAt, roles);
+    }
+
+    private Map<String, Object> validSessionResponse(SessionCache.CachedSession session, LocalDateTime lastSeenAt) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("valid", true);
+        map.put("sessionId", session.sessionId());
+        map.put("userId", session.userId());
+        map.put("userName", session.userName());
+        map.put("roles", session.roles());
+        map.put("status", session.status());
+        map.put("createdDate", session.createdDate());
+        map.put("lastSeenAt", lastSeenAt);
+        map.put("expiresAt", session.expiresAt());
+        map.put("ipAddress", session.ipAddress());
+        map.put("userAgent", session.userAgent());
+        return map;
     }
 
     @Override
@@ -46,53 +299,101 @@ public class SessionServiceImpl implements SessionService {
         String methodName = "createSession";
         logger.info("{} {} for userName: {} userId: {}", className, methodName, sessionDto.getUserName(), sessionDto.getUserId());
         try {
-            Gson gson = new Gson();
             if (sessionDto.getUserName() == null) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", "INVALID_PAYLOAD", "message", "Invalid UserName or UserId"));
             }
-            List<Sessions> existing = sessionRepository.findAllByUserNameAndActiveFlag(sessionDto.getUserName(), true);
-            if (!existing.isEmpty()) {
-                for (Sessions s : existing) {
-                    s.setActiveFlag(false);
-                    s.setStatus(Sessions.SessionStatus.REVOKED);
-                    s.setRevokedBy("SYSTEM");
-                    s.setRevokedAt(LocalDateTime.now());
+            userLocks.lockUntilCompletion(sessionDto.getUserName());
+            LocalDateTime now = LocalDateTime.now();
+            Sessions session = newSession(sessionDto, now);
+            if (singleSessionLogin(sessionDto)) {
+                revokePriorSessions(List.of(sessionDto.getUserName()), now);
+            } else {
+                ResponseEntity<?> limited = enforceSessionLimit(sessionDto.getUserId(), now);
+                if (limited != null) {
+                    return limited;
                 }
-                sessionRepository.saveAll(existing);
-            }
-            Sessions createSession = new Sessions();
-            createSession.setUserId(sessionDto.getUserId());
-            createSession.setCreatedBy(sessionDto.getUserName());
-            createSession.setUserName(sessionDto.getUserName());
-            createSession.setCreatedDate(LocalDateTime.now());
-            createSession.setStatus(Sessions.SessionStatus.ACTIVE);
-            createSession.setActiveFlag(true);
-            String sessionToken = generateSessionToken();
-            createSession.setSessionToken(sessionToken);
-            int ttl = (sessionDto.getTtlMinutes() == null || sessionDto.getTtlMinutes() <= 0) ? DEFAULT_TTL_MINUTES : sessionDto.getTtlMinutes();
-            createSession.setExpiresAt(LocalDateTime.now().plusMinutes(ttl));
-            createSession.setRoleName(sessionDto.getRoleName() == null ? Collections.emptyList() : sessionDto.getRoleName());
-            createSession.setMetaData(gson.toJson(sessionDto.getMetaData()));
-            createSession.setIpAddress(sessionDto.getIpAddress());
-            createSession.setUserAgent(sessionDto.getUserAgent());
-            createSession.setLastSeenAt(LocalDateTime.now());
-
-            Sessions savedSession = sessionRepository.save(createSession);
+            }
+            Sessions savedSession = sessionStore.save(session);
+            invalidationLog.sessionsCreated(List.of(savedSession));
+            sessionIndex.put(savedSession.getSessionTokenHash(), savedSession);
+            activeSessions.addAfterCommit(savedSession.getUserId(), savedSession.getSessionId());
+            expiryScheduler.schedule(savedSession.getSessionId(), savedSession.getExpiresAt());
             Map<String, Object> resp = new LinkedHashMap<>();
             resp.put("sessionId", savedSession.getSessionId());
-            resp.put("sessionToken", savedSession.getSessionToken());
+            resp.put("sessionToken", clientToken(savedSession));
             resp.put("createdDate", savedSession.getCreatedDate());
             resp.put("expiresAt", savedSession.getExpiresAt());
             resp.put("userId", savedSession.getUserId());
             resp.put("userName", savedSession.getUserName());
             resp.put("roles", savedSession.getRoleName());
             return ResponseEntity.status(HttpStatus.CREATED).body(resp);
+        } catch (CannotAcquireLockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "USER_BUSY", "message", "Another session change for this user is in progress, retry"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", "INVALID_PAYLOAD", "message", e.getMessage()));
         } catch (Exception e) {
             logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "INTERNAL_ERROR", "message", "Failed to Create Session"));
         }
     }
 
+    @Override
+    public ResponseEntity<?> createSessionsBatch(List<SessionDto> sessionDtos) {
+        String methodName = "createSessionsBatch";
+        logger.info("{} {} count : {}", className, methodName, sessionDtos == null ? 0 : sessionDtos.size());
+        try {
+            if (sessionDtos == null || sessionDtos.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", "INVALID_PAYLOAD", "message", "sessions is Required"));
+            }
+            if (sessionDtos.size() > batchIssueMaxSize) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", "INVALID_PAYLOAD", "message", "At most " + batchIssueMaxSize + " sessions per batch"));
+            }
+            Set<String> userNames = new LinkedHashSet<>();
+            for (SessionDto sessionDto : sessionDtos) {
+                if (sessionDto == null || sessionDto.getUserName() == null) {
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", "INVALID_PAYLOAD", "message", "Invalid UserName or UserId"));
+                }
+                if (!userNames.add(sessionDto.getUserName())) {
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", "DUPLICATE_USER", "message", "UserName " + sessionDto.getUserName() + " appears more than once"));
+                }
+            }
+            userLocks.lockUntilCompletion(userNames);
+            LocalDateTime now = LocalDateTime.now();
+            List<Sessions> sessions = new ArrayList<>(sessionDtos.size());
+            for (SessionDto sessionDto : sessionDtos) {
+                sessions.add(newSession(sessionDto, now));
+            }
+            revokePriorSessions(userNames, now);
+            sessionStore.insertAll(sessions);
+            invalidationLog.sessionsCreated(sessions);
+            List<Map<String, Object>> created = new ArrayList<>(sessions.size());
+            for (Sessions session : sessions) {
+                sessionIndex.put(session.getSessionTokenHash(), session);
+                activeSessions.addAfterCommit(session.getUserId(), session.getSessionId());
+                expiryScheduler.schedule(session.getSessionId(), session.getExpiresAt());
+                Map<String, Object> resp = new LinkedHashMap<>();
+                resp.put("sessionId", session.getSessionId());
+                resp.put("sessionToken", clientToken(session));
+                resp.put("createdDate", session.getCreatedDate());
+                resp.put("expiresAt", session.getExpiresAt());
+                resp.put("userId", session.getUserId());
+                resp.put("userName", session.getUserName());
+                resp.put("roles", session.getRoleName());
+                created.add(resp);
+            }
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("count", created.size(), "sessions", created));
+        } catch (CannotAcquireLockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "USER_BUSY", "message", "Another session change for this user is in progress, retry"));
+        } catch (IllegalArgumentException e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", "INVALID_PAYLOAD", "message", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "INTERNAL_ERROR", "message", "Failed to Create Sessions"));
+        }
+    }
+
     @Override
     public ResponseEntity<?> validateSessionByToken(String sessionToken) {
         String methodName = "validateSessionByToken";
@@ -101,37 +402,267 @@ public class SessionServiceImpl implements SessionService {
             if (sessionToken == null || sessionToken.isBlank()) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "UNAUTHORIZED", "message", "Missing token"));
             }
-            Optional<Sessions> getSession = sessionRepository.findBySessionTokenAndActiveFlag(sessionToken, true);
-            if (getSession.isEmpty()) {
+            SessionCache.CachedSession cached = sessionCache.get(sessionToken);
+            if (cached != null) {
+                LocalDateTime seenAt = LocalDateTime.now();
+                lastSeenBuffer.touch(cached.sessionId(), seenAt);
+                return ResponseEntity.ok(validSessionResponse(cached, seenAt));
+            }
+            SignedSessionTokens.Claims claims = null;
+            if (signedTokens.isSigned(sessionToken)) {
+                if (!revocationFilter.isReady()) {
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", "NOT_READY", "message", "Revocation list is still loading, retry shortly"));
+                }
+                claims = signedTokens.verify(sessionToken);
+                if (claims == null || revocationFilter.rejects(claims)) {
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("valid", false, "reason", "INVALID_OR_REVOKED"));
+                }
+                if (claims.expiresAtEpochSecond() <= SessionIndex.epochSecond(LocalDateTime.now())) {
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("valid", false, "reason", "EXPIRED", "expiresAt", SessionIndex.toDateTime(claims.expiresAtEpochSecond())));
+                }
+                SessionCache.CachedSession fromClaims = signedTokens.toSession(claims);
+                if (fromClaims != null) {
+                    LocalDateTime seenAt = LocalDateTime.now();
+                    lastSeenBuffer.touch(fromClaims.sessionId(), seenAt);
+                    return ResponseEntity.ok(validSessionResponse(fromClaims, seenAt));
+                }
+            } else {
+                SessionIndex.Entry indexed = sessionIndex.get(sessionToken);
+                if (indexed == null ? sessionIndex.isAuthoritative() : indexed.status() == SessionIndex.REVOKED) {
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("valid", false, "reason", "INVALID_OR_REVOKED"));
+                }
+                // an ACTIVE entry past its expiry has been (or is about to be) expired by the timing wheel
+                if (indexed != null && !indexed.isActiveAt(SessionIndex.epochSecond(LocalDateTime.now()))) {
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("valid", false, "reason", "EXPIRED", "expiresAt", SessionIndex.toDateTime(indexed.expiresAtEpochSecond())));
+                }
+                // an ACTIVE, unexpired hit is answered from the index the same way a signed token is from its claims
+                SessionCache.CachedSession fromIndex = indexed == null ? null : sessionIndex.toSession(indexed);
+                if (fromIndex != null) {
+                    LocalDateTime seenAt = LocalDateTime.now();
+                    lastSeenBuffer.touch(fromIndex.sessionId(), seenAt);
+                    return ResponseEntity.ok(validSessionResponse(fromIndex, seenAt));
+                }
+            }
+            long cacheStamp = sessionCache.stamp();
+            Optional<Sessions> getSession = claims != null
+                    ? sessionStore.findActiveById(claims.sessionId())
+                    : findActiveByOpaqueToken(sessionToken);
+            if (getSession.isEmpty() || (claims != null && !SignedSessionTokens.describes(claims, getSession.get()))) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("valid", false, "reason", "INVALID_OR_REVOKED"));
             }
             Sessions session = getSession.get();
+            byte[] tokenHash = SessionTokenStorage.hashOf(session);
             if (session.getExpiresAt() != null && session.getExpiresAt().isBefore(LocalDateTime.now())) {
-                session.setStatus(Sessions.SessionStatus.EXPIRED);
-                session.setActiveFlag(false);
-                sessionRepository.save(session);
+                // whoever flips the row first (this call, the timing wheel, another node) publishes the expiry
+                if (!sessionStore.expireByIds(List.of(session.getSessionId()), LocalDateTime.now()).isEmpty()) {
+                    invalidationLog.append(List.of(ClusterInvalidationLog.session(SessionEventHub.EXPIRED, session.getSessionId(),
+                            session.getUserId(), tokenHash, session.getExpiresAt())));
+                    activeSessions.removeAfterCommit(List.of(session.getSessionId()));
+                    eventHub.publishAfterCommit(() -> eventHub.publish(SessionEventHub.EXPIRED, session.getSessionId(), session.getExpiresAt()));
+                }
+                evictNowAndAfterCommit(() -> {
+                    sessionCache.invalidate(sessionToken);
+                    sessionIndex.markStatus(tokenHash, SessionIndex.EXPIRED);
+                    expiryScheduler.cancel(session.getSessionId());
+                });
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("valid", false, "reason", "EXPIRED", "expiresAt", session.getExpiresAt()));
             }
-            session.setLastSeenAt(LocalDateTime.now());
-            sessionRepository.save(session);
-            Map<String, Object> map = new LinkedHashMap<>();
-            map.put("valid", true);
-            map.put("sessionId", session.getSessionId());
-            map.put("userId", session.getUserId());
-            map.put("userName", session.getUserName());
-            map.put("roles", session.getRoleName());
-            map.put("status", session.getStatus());
-            map.put("createdDate", session.getCreatedDate());
-            map.put("lastSeenAt", session.getLastSeenAt());
-            map.put("expiresAt", session.getExpiresAt());
-            map.put("ipAddress", session.getIpAddress());
-            map.put("userAgent", session.getUserAgent());
-            return ResponseEntity.ok(map);
+            LocalDateTime seenAt = LocalDateTime.now();
+            lastSeenBuffer.touch(session.getSessionId(), seenAt);
+            sessionCache.put(sessionToken, session, cacheStamp);
+            sessionIndex.put(tokenHash, session);
+            return ResponseEntity.ok(validSessionResponse(SessionCache.CachedSession.of(session, null), seenAt));
         } catch (Exception e) {
             logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "INTERNAL_ERROR", "message", "Failed to Validate Session"));
         }
     }
+    /**
+     * Validates many tokens in one call: cache hits, signed tokens that carry their userName, active index hits and tokens the
+     * revocation filter or index already rule out are answered in memory, the rest are loaded with one IN query per token kind. Results come back in request order. Sessions found
+     * past their expiry are reported EXPIRED and left to the timing wheel rather than written from a read-only batch.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> validateSessionsBatch(List<String> sessionTokens) {
+        String methodName = "validateSessionsBatch";
+        logger.info("{} {} count : {}", className, methodName, sessionTokens == null ? 0 : sessionTokens.size());
+        try {
+            if (sessionTokens == null || sessionTokens.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", "INVALID_PAYLOAD", "message", "sessionTokens is Required"));
+            }
+            if (sessionTokens.size() > batchValidateMaxSize) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", "INVALID_PAYLOAD", "message", "At most " + batchValidateMaxSize + " tokens per batch"));
+            }
+            LocalDateTime now = LocalDateTime.now();
+            long nowSecond = SessionIndex.epochSecond(now);
+            Map<String, Map<String, Object>> results = new HashMap<>();
+            Map<Integer, SignedSessionTokens.Claims> signedPending = new HashMap<>();
+            Map<Integer, String> signedTokenById = new HashMap<>();
+            Map<ByteBuffer, String> opaquePending = new HashMap<>();
+            Set<String> seen = new HashSet<>();
+            for (String sessionToken : sessionTokens) {
+                if (sessionToken == null || sessionToken.isBlank() || !seen.add(sessionToken)) {
+                    continue;
+                }
+                SessionCache.CachedSession cached = sessionCache.get(sessionToken);
+                if (cached != null) {
+                    lastSeenBuffer.touch(cached.sessionId(), now);
+                    results.put(sessionToken, validSessionResponse(cached, now));
+                } else if (signedTokens.isSigned(sessionToken)) {
+                    SignedSessionTokens.Claims claims = signedTokens.verify(sessionToken);
+                    if (!revocationFilter.isReady()) {
+                        results.put(sessionToken, Map.of("valid", false, "reason", "NOT_READY"));
+                    } else if (claims == null || revocationFilter.rejects(claims)) {
+                        results.put(sessionToken, Map.of("valid", false, "reason", "INVALID_OR_REVOKED"));
+                    } else if (claims.expiresAtEpochSecond() <= nowSecond) {
+                        results.put(sessionToken, Map.of("valid", false, "reason", "EXPIRED", "expiresAt", SessionIndex.toDateTime(claims.expiresAtEpochSecond())));
+                    } else {
+                        SessionCache.CachedSession fromClaims = signedTokens.toSession(claims);
+                        if (fromClaims != null) {
+                            lastSeenBuffer.touch(fromClaims.sessionId(), now);
+                            results.put(sessionToken, validSessionResponse(fromClaims, now));
+                        } else {
+                            signedPending.put(claims.sessionId(), claims);
+                            signedTokenById.put(claims.sessionId(), sessionToken);
+                        }
+                    }
+                } else {
+                    SessionIndex.Entry indexed = sessionIndex.get(sessionToken);
+                    if (indexed == null ? sessionIndex.isAuthoritative() : indexed.status() == SessionIndex.REVOKED) {
+                        results.put(sessionToken, Map.of("valid", false, "reason", "INVALID_OR_REVOKED"));
+                    } else if (indexed != null && !indexed.isActiveAt(nowSecond)) {
+                        results.put(sessionToken, Map.of("valid", false, "reason", "EXPIRED", "expiresAt", SessionIndex.toDateTime(indexed.expiresAtEpochSecond())));
+                    } else {
+                        SessionCache.CachedSession fromIndex = indexed == null ? null : sessionIndex.toSession(indexed);
+                        if (fromIndex != null) {
+                            lastSeenBuffer.touch(fromIndex.sessionId(), now);
+                            results.put(sessionToken, validSessionResponse(fromIndex, now));
+                        } else {
+                            opaquePending.put(ByteBuffer.wrap(TokenDigest.sha256(sessionToken)), sessionToken);
+                        }
+                    }
+                }
+            }
+            long cacheStamp = sessionCache.stamp();
+            if (!signedPending.isEmpty()) {
+                for (Sessions session : sessionStore.findActiveByIds(signedPending.keySet())) {
+                    SignedSessionTokens.Claims claims = signedPending.get(session.getSessionId());
+                    if (SignedSessionTokens.describes(claims, session)) {
+                        results.put(signedTokenById.get(session.getSessionId()), loadedSessionResult(signedTokenById.get(session.getSessionId()), session, now, cacheStamp));
+                    }
+                }
+            }
+            if (!opaquePending.isEmpty()) {
+                List<byte[]> hashes = opaquePending.keySet().stream().map(ByteBuffer::array).toList();
+                for (Sessions session : sessionStore.findActiveByTokenHashes(hashes)) {
+                    String sessionToken = opaquePending.remove(ByteBuffer.wrap(session.getSessionTokenHash()));
+                    if (sessionToken != null) {
+                        results.put(sessionToken, loadedSessionResult(sessionToken, session, now, cacheStamp));
+                    }
+                }
+                if (!opaquePending.isEmpty() && tokenStorage.dualRead()) {
+                    for (Sessions session : sessionStore.findActiveByLegacyTokens(opaquePending.values())) {
+                        results.put(session.getLegacySessionToken(), loadedSessionResult(session.getLegacySessionToken(), session, now, cacheStamp));
+                    }
+                }
+            }
+            List<Map<String, Object>> content = new ArrayList<>(sessionTokens.size());
+            int valid = 0;
+            for (int i = 0; i < sessionTokens.size(); i++) {
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("index", i);
+                Map<String, Object> resolved = sessionTokens.get(i) == null ? null : results.get(sessionTokens.get(i));
+                result.putAll(resolved == null ? Map.of("valid", false, "reason", "INVALID_OR_REVOKED") : resolved);
+                if (Boolean.TRUE.equals(result.get("valid"))) {
+                    valid++;
+                }
+                content.add(result);
+            }
+            Map<String, Object> resp = new LinkedHashMap<>();
+            resp.put("count", content.size());
+            resp.put("valid", valid);
+            resp.put("results", content);
+            return ResponseEntity.ok(resp);
+        } catch (Exception e) {
+            logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "INTERNAL_ERROR", "message", "Failed to Validate Sessions"));
+        }
+    }
+
+    private Map<String, Object> loadedSessionResult(String sessionToken, Sessions session, LocalDateTime now, long cacheStamp) {
+        if (session.getExpiresAt() != null && session.getExpiresAt().isBefore(now)) {
+            return Map.of("valid", false, "reason", "EXPIRED", "expiresAt", session.getExpiresAt());
+        }
+        session.setSessionToken(sessionToken);
+        lastSeenBuffer.touch(session.getSessionId(), now);
+        sessionCache.put(sessionToken, session, cacheStamp);
+        sessionIndex.put(SessionTokenStorage.hashOf(session), session);
+        return validSessionResponse(SessionCache.CachedSession.of(session, null), now);
+    }
+
+    @Override
+    public ResponseEntity<?> issueSessionEventsTicket(String sessionToken) {
+        String methodName = "issueSessionEventsTicket";
+        logger.info("{} {} token: {}", className, methodName, sessionToken == null ? "null" : "[REDACTED]");
+        try {
+            if (sessionToken == null || sessionToken.isBlank()) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "UNAUTHORIZED", "message", "Missing token"));
+            }
+            Optional<Sessions> getSession = findActiveSession(sessionToken);
+            if (getSession.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("valid", false, "reason", "INVALID_OR_REVOKED"));
+            }
+            Sessions session = getSession.get();
+            if (session.getExpiresAt() != null && session.getExpiresAt().isBefore(LocalDateTime.now())) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("valid", false, "reason", "EXPIRED", "expiresAt", session.getExpiresAt()));
+            }
+            return ResponseEntity.ok(Map.of("ticket", eventTickets.issue(session.getSessionId()), "expiresInMs", eventTickets.ttlMs()));
+        } catch (Exception e) {
+            logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "INTERNAL_ERROR", "message", "Failed to Issue Session Events Ticket"));
+        }
+    }
+
+    @Override
+    public ResponseEntity<?> subscribeSessionEvents(String sessionToken, String ticket) {
+        String methodName = "subscribeSessionEvents";
+        logger.info("{} {} token: {} ticket: {}", className, methodName, sessionToken == null ? "null" : "[REDACTED]", ticket == null ? "null" : "[REDACTED]");
+        try {
+            Optional<Sessions> getSession;
+            if (sessionToken != null && !sessionToken.isBlank()) {
+                getSession = findActiveSession(sessionToken);
+            } else if (ticket != null && !ticket.isBlank()) {
+                Integer sessionId = eventTickets.redeem(ticket);
+                if (sessionId == null) {
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("valid", false, "reason", "INVALID_TICKET"));
+                }
+                getSession = sessionStore.findActiveById(sessionId);
+            } else {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "UNAUTHORIZED", "message", "Missing token or ticket"));
+            }
+            if (getSession.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("valid", false, "reason", "INVALID_OR_REVOKED"));
+            }
+            Sessions session = getSession.get();
+            if (session.getExpiresAt() != null && session.getExpiresAt().isBefore(LocalDateTime.now())) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("valid", false, "reason", "EXPIRED", "expiresAt", session.getExpiresAt()));
+            }
+            SseEmitter emitter = eventHub.subscribe(session.getSessionId());
+            if (emitter == null) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", "TOO_MANY_SUBSCRIBERS", "message", "Event stream limit reached, fall back to polling"));
+            }
+            // a revoke that committed between the lookup above and the subscription would otherwise never be announced
+            if (sessionStore.findActiveById(session.getSessionId()).isEmpty()) {
+                eventHub.publish(SessionEventHub.REVOKED, session.getSessionId(), session.getExpiresAt());
+            }
+            return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(emitter);
+        } catch (Exception e) {
+            logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "INTERNAL_ERROR", "message", "Failed to Subscribe Session Events"));
+        }
+    }
+
     @Override
     public ResponseEntity<?> validateSessionById(Integer sessionId) {
         String methodName = "validateSessionById";
@@ -140,30 +671,38 @@ public class SessionServiceImpl implements SessionService {
             if (sessionId == null) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", "INVALID_PAYLOAD", "message", "sessionId required"));
             }
-            Optional<Sessions> getSession = sessionRepository.findBySessionIdAndActiveFlag(sessionId, true);
+            Optional<Sessions> getSession = sessionStore.findActiveById(sessionId);
             if (getSession.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("valid", false, "message", "Invalid session"));
             }
             Sessions session = getSession.get();
             if (session.getExpiresAt() != null && session.getExpiresAt().isBefore(LocalDateTime.now())) {
-                session.setStatus(Sessions.SessionStatus.EXPIRED);
-                session.setActiveFlag(false);
-                sessionRepository.save(session);
+                byte[] tokenHash = SessionTokenStorage.hashOf(session);
+                if (!sessionStore.expireByIds(List.of(sessionId), LocalDateTime.now()).isEmpty()) {
+                    invalidationLog.append(List.of(ClusterInvalidationLog.session(SessionEventHub.EXPIRED, sessionId,
+                            session.getUserId(), tokenHash, session.getExpiresAt())));
+                    activeSessions.removeAfterCommit(List.of(sessionId));
+                    eventHub.publishAfterCommit(() -> eventHub.publish(SessionEventHub.EXPIRED, sessionId, session.getExpiresAt()));
+                }
+                evictNowAndAfterCommit(() -> {
+                    sessionCache.invalidateSessionId(sessionId);
+                    sessionIndex.markStatus(tokenHash, SessionIndex.EXPIRED);
+                    expiryScheduler.cancel(sessionId);
+                });
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("valid", false, "reason", "EXPIRED", "expiresAt", session.getExpiresAt()));
             }
-            session.setLastSeenAt(LocalDateTime.now());
-            sessionRepository.save(session);
+            LocalDateTime seenAt = LocalDateTime.now();
+            lastSeenBuffer.touch(session.getSessionId(), seenAt);
             Map<String, Object> map = new LinkedHashMap<>();
             map.put("valid", true);
             map.put("sessionId", session.getSessionId());
-            map.put("sessionToken", session.getSessionToken());
             map.put("userId", session.getUserId());
             map.put("userName", session.getUserName());
             map.put("roles", session.getRoleName());
             map.put("status", session.getStatus());
             map.put("createdDate", session.getCreatedDate());
-            map.put("lastSeenAt", session.getLastSeenAt());
+            map.put("lastSeenAt", seenAt);
             map.put("expiresAt", session.getExpiresAt());
             map.put("ipAddress", session.getIpAddress());
             map.put("userAgent", session.getUserAgent());
@@ -182,21 +721,18 @@ public class SessionServiceImpl implements SessionService {
             if (sessionToken == null || sessionToken.isBlank()) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", "INVALID_PAYLOAD", "message", "token required"));
             }
-            Optional<Sessions> getSession = sessionRepository.findBySessionTokenAndActiveFlag(sessionToken, true);
-            if (getSession.isEmpty()) {
+            int ttl = (ttlMinutes == null || ttlMinutes <= 0) ? DEFAULT_TTL_MINUTES : ttlMinutes;
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime expiresAt = now.plusMinutes(ttl);
+            Optional<Target> target = findTarget(sessionToken);
+            if (target.isEmpty() || !extend(target.get(), expiresAt, now)) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", "CANNOT_REFRESH", "message", "Session is revoked or expired"));
             }
-            Sessions refreshSession = getSession.get();
-
-            int ttl = (ttlMinutes == null || ttlMinutes <= 0) ? DEFAULT_TTL_MINUTES : ttlMinutes;
-            refreshSession.setExpiresAt(LocalDateTime.now().plusMinutes(ttl));
-            refreshSession.setLastSeenAt(LocalDateTime.now());
-            Sessions updatedSession = sessionRepository.save(refreshSession);
-
+            Target refreshed = target.get();
             Map<String, Object> resp = Map.of(
-                    "sessionId", updatedSession.getSessionId(),
-                    "sessionToken", updatedSession.getSessionToken(),
-                    "expiresAt", updatedSession.getExpiresAt()
+                    "sessionId", refreshed.sessionId(),
+                    "sessionToken", clientToken(refreshed.sessionId(), refreshed.userId(), refreshed.userName(), expiresAt, refreshed.roles(), refreshed.sessionToken()),
+                    "expiresAt", expiresAt
             );
             return ResponseEntity.ok(resp);
         } catch (Exception e) {
@@ -206,35 +742,89 @@ public class SessionServiceImpl implements SessionService {
         }
     }
 
+    private record Revoked(Integer sessionId, Integer userId, byte[] tokenHash, LocalDateTime expiresAt) {
+    }
+
+    private Revoked revokeLoaded(Optional<Sessions> session, LocalDateTime revokedAt, String revokedBy) {
+        if (session.isEmpty()) {
+            return null;
+        }
+        Sessions revoke = session.get();
+        userLocks.lockUntilCompletion(revoke.getUserName());
+        // a concurrent revoke or expiry between the read and the conditional UPDATE leaves nothing to revoke
+        if (sessionStore.revokeByIds(List.of(revoke.getSessionId()), revokedAt, revokedBy) == 0) {
+            return null;
+        }
+        return new Revoked(revoke.getSessionId(), revoke.getUserId(), SessionTokenStorage.hashOf(revoke), revoke.getExpiresAt());
+    }
+
+    // the conditional UPDATE on the token is the only round trip when the near-cache or the index knows the session; it is read
+    // back only when neither does and the UPDATE actually revoked something
+    private Revoked revokeByOpaqueToken(String sessionToken, LocalDateTime revokedAt, String revokedBy) {
+        byte[] tokenHash = TokenDigest.sha256(sessionToken);
+        SessionCache.CachedSession cached = sessionCache.get(sessionToken);
+        if (cached != null) {
+            userLocks.lockUntilCompletion(cached.userName());
+        }
+        boolean legacy = false;
+        int updated = sessionStore.revokeByTokenHash(tokenHash, revokedAt, revokedBy);
+        if (updated == 0 && tokenStorage.dualRead()) {
+            updated = sessionStore.revokeByLegacyToken(sessionToken, revokedAt, revokedBy);
+            legacy = true;
+        }
+        if (updated == 0) {
+            return null;
+        }
+        if (cached != null) {
+            return new Revoked(cached.sessionId(), cached.userId(), tokenHash, cached.expiresAt());
+        }
+        SessionIndex.Entry entry = sessionIndex.get(sessionToken);
+        if (entry != null) {
+            return new Revoked(entry.sessionId(), entry.userId() == 0 ? null : entry.userId(), tokenHash,
+                    SessionIndex.toDateTime(entry.expiresAtEpochSecond()));
+        }
+        Optional<Sessions> session = legacy ? sessionStore.findByLegacyToken(sessionToken) : sessionStore.findByTokenHash(tokenHash);
+        return session.map(revoke -> new Revoked(revoke.getSessionId(), revoke.getUserId(), tokenHash, revoke.getExpiresAt())).orElse(null);
+    }
+
     @Override
     public ResponseEntity<?> revokeSession(String sessionToken, Integer sessionId, String revokedBy) {
         String methodName = "revokeSession";
         logger.info("{} {} token: {} sessionId: {} by: {}", className, methodName,
                 sessionToken == null ? "null" : "[REDACTED]", sessionId, revokedBy);
         try {
-            Sessions revoke = null;
+            LocalDateTime revokedAt = LocalDateTime.now();
+            String by = revokedBy == null ? "SYSTEM" : revokedBy;
+            Revoked revoked;
             if (sessionToken != null && !sessionToken.isBlank()) {
-                revoke = sessionRepository.findBySessionTokenAndActiveFlag(sessionToken, true).orElse(null);
+                revoked = signedTokens.isSigned(sessionToken) ? revokeLoaded(findActiveSession(sessionToken), revokedAt, by)
+                        : revokeByOpaqueToken(sessionToken, revokedAt, by);
             } else if (sessionId != null) {
-                revoke = sessionRepository.findBySessionIdAndActiveFlag(sessionId, true).orElse(null);
+                revoked = revokeLoaded(sessionStore.findActiveById(sessionId), revokedAt, by);
             } else {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", "INVALID_PAYLOAD", "message", "token or sessionId required"));
             }
-            if (revoke == null) {
+            if (revoked == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "NOT_FOUND", "message", "Session Not Found"));
             }
-            revoke.setActiveFlag(false);
-            revoke.setRevokedAt(LocalDateTime.now());
-            revoke.setRevokedBy(revokedBy == null ? "SYSTEM" : revokedBy);
-            revoke.setLastSeenAt(LocalDateTime.now());
-            revoke.setStatus(Sessions.SessionStatus.REVOKED);
-            Sessions updatedSession = sessionRepository.save(revoke);
+            invalidationLog.append(List.of(ClusterInvalidationLog.session(SessionEventHub.REVOKED, revoked.sessionId(),
+                    revoked.userId(), revoked.tokenHash(), revoked.expiresAt())));
+            evictNowAndAfterCommit(() -> {
+                sessionCache.invalidateSessionId(revoked.sessionId());
+                sessionIndex.markStatus(revoked.tokenHash(), SessionIndex.REVOKED);
+                revocationFilter.revoke(revoked.sessionId(), revoked.expiresAt());
+                expiryScheduler.cancel(revoked.sessionId());
+            });
+            activeSessions.removeAfterCommit(List.of(revoked.sessionId()));
+            eventHub.publishAfterCommit(() -> eventHub.publish(SessionEventHub.REVOKED, revoked.sessionId(), revoked.expiresAt()));
 
             Map<String, Object> map = new LinkedHashMap<>();
             map.put("success", true);
-            map.put("sessionId", updatedSession.getSessionId());
-            map.put("revokedAt", updatedSession.getRevokedAt());
+            map.put("sessionId", revoked.sessionId());
+            map.put("revokedAt", revokedAt);
             return ResponseEntity.ok(map);
+        } catch (CannotAcquireLockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "USER_BUSY", "message", "Another session change for this user is in progress, retry"));
         } catch (Exception e) {
             logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "INTERNAL_ERROR", "message", "Failed to Revoke Session"));
@@ -249,19 +839,49 @@ public class SessionServiceImpl implements SessionService {
             if (userId == null || userName == null) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", "INVALID_PAYLOAD", "message", "UserId or UserName is Required"));
             }
-            Integer revokedCount = sessionRepository.revokeAllByUserId(userId, LocalDateTime.now(), revokedBy == null ? "SYSTEM" : revokedBy, Sessions.SessionStatus.REVOKED);
+            userLocks.lockUntilCompletion(userName);
+            List<Object[]> revokedSessions = sessionStore.findActiveExpiryByUserId(userId);
+            Integer revokedCount = sessionStore.revokeByUserId(userId, LocalDateTime.now(), revokedBy == null ? "SYSTEM" : revokedBy);
+            invalidationLog.append(revokedSessions.stream().map(row -> ClusterInvalidationLog.session(SessionEventHub.REVOKED, (Integer) row[0],
+                    userId, null, (LocalDateTime) row[1])).toList());
+            evictNowAndAfterCommit(() -> {
+                sessionCache.invalidateUserId(userId);
+                sessionIndex.revokeUser(userId);
+                revokedSessions.forEach(row -> {
+                    revocationFilter.revoke((Integer) row[0], (LocalDateTime) row[1]);
+                    expiryScheduler.cancel((Integer) row[0]);
+                });
+            });
+            activeSessions.removeAfterCommit(revokedSessions.stream().map(row -> (Integer) row[0]).toList());
+            eventHub.publishAfterCommit(() -> revokedSessions.forEach(row -> eventHub.publish(SessionEventHub.REVOKED, (Integer) row[0], (LocalDateTime) row[1])));
             Map<String, Object> map = new HashMap<>();
             map.put("revoked", revokedCount);
             map.put("revokedAt", LocalDateTime.now());
             map.put("userId", userId);
             map.put("userName", userName);
             return ResponseEntity.ok(map);
+        } catch (CannotAcquireLockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "USER_BUSY", "message", "Another session change for this user is in progress, retry"));
         } catch (Exception e) {
             logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "INTERNAL_ERROR", "message", "Failed to Revoke All Session"));
         }
     }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<?> bulkRevokeSession(List<Integer> userIds, List<String> sessionTokens, String roleName, String revokedBy, Integer batchSize) {
+        String methodName = "bulkRevokeSession";
+        logger.info("{} {} userIds : {} sessionTokens : {} roleName : {} revokedBy : {} batchSize : {}", className, methodName,
+                userIds == null ? 0 : userIds.size(), sessionTokens == null ? 0 : sessionTokens.size(), roleName, revokedBy, batchSize);
+        if ((userIds == null || userIds.isEmpty()) && (sessionTokens == null || sessionTokens.isEmpty()) && (roleName == null || roleName.isBlank())) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", "INVALID_PAYLOAD", "message", "userIds, sessionTokens or roleName is Required"));
+        }
+        SessionBulkRevoker.Request request = new SessionBulkRevoker.Request(userIds, sessionTokens, roleName, revokedBy, batchSize);
+        StreamingResponseBody body = out -> bulkRevoker.revoke(request, out);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
     @Override
     public ResponseEntity<?> sessionList(Integer userId, String userName, String statusStr, Boolean activeFlag, Integer page, Integer size) {
         String methodName = "sessionList";
@@ -280,22 +900,8 @@ public class SessionServiceImpl implements SessionService {
                             .body(Map.of("error", "INVALID_FILTER", "message", "status must be one of ACTIVE,EXPIRED,REVOKED,INACTIVE"));
                 }
             }
-            Page<Sessions> pageData = sessionRepository.findByFilters(userId, userName, status, activeFlag, pageable);
-            List<Map<String, Object>> contentList = new ArrayList<>();
-            for (Sessions sObj : pageData.getContent()) {
-                Map<String, Object> sessionMap = new HashMap<>();
-                sessionMap.put("sessionId", sObj.getSessionId());
-                sessionMap.put("userId", sObj.getUserId());
-                sessionMap.put("userName", sObj.getUserName());
-                sessionMap.put("roles", sObj.getRoleName());
-                sessionMap.put("status", sObj.getStatus() != null ? sObj.getStatus().name() : null);
-                sessionMap.put("createdDate", sObj.getCreatedDate());
-                sessionMap.put("lastSeenAt", sObj.getLastSeenAt());
-                sessionMap.put("expiresAt", sObj.getExpiresAt());
-                sessionMap.put("ipAddress", sObj.getIpAddress());
-                sessionMap.put("activeFlag", sObj.getActiveFlag());
-                contentList.add(sessionMap);
-            }
+            Page<Sessions> pageData = sessionStore.list(userId, userName, status, activeFlag, pageable);
+            List<Map<String, Object>> contentList = sessionListContent(pageData.getContent());
             Map<String, Object> response = new LinkedHashMap<>();
             response.put("page", pageData.getNumber());
             response.put("size", pageData.getSize());
@@ -309,20 +915,129 @@ public class SessionServiceImpl implements SessionService {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "INTERNAL_ERROR", "message", "Failed to Fetch List Session"));
         }
     }
+
+    @Override
+    public ResponseEntity<?> sessionListByCursor(Integer userId, String userName, String statusStr, Boolean activeFlag, String cursor, Integer size, Boolean includeTotal) {
+        String methodName = "sessionListByCursor";
+        logger.info("{} {} userId : {} userName : {}  statusStr : {} activeFlag : {} cursor : {} size : {} includeTotal : {} ",
+                className, methodName, userId, userName, statusStr, activeFlag, cursor, size, includeTotal);
+        try {
+            int intSize = (size == null || size <= 0) ? 20 : Math.min(size, 500);
+            Sessions.SessionStatus status = null;
+            if (statusStr != null && !statusStr.isBlank()) {
+                try {
+                    status = Sessions.SessionStatus.valueOf(statusStr.trim().toUpperCase());
+                } catch (IllegalArgumentException ex) {
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                            .body(Map.of("error", "INVALID_FILTER", "message", "status must be one of ACTIVE,EXPIRED,REVOKED,INACTIVE"));
+                }
+            }
+            Pageable pageable = PageRequest.of(0, intSize);
+            Slice<Sessions> sliceData;
+            if (cursor == null || cursor.isBlank()) {
+                sliceData = sessionStore.listAfter(userId, userName, status, activeFlag, null, null, pageable);
+            } else {
+                Object[] position = decodeCursor(cursor);
+                if (position == null) {
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", "INVALID_CURSOR", "message", "cursor is malformed"));
+                }
+                sliceData = sessionStore.listAfter(userId, userName, status, activeFlag, (LocalDateTime) position[0], (Integer) position[1], pageable);
+            }
+            List<Sessions> content = sliceData.getContent();
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("size", intSize);
+            response.put("hasNext", sliceData.hasNext());
+            response.put("nextCursor", sliceData.hasNext() && !content.isEmpty() ? encodeCursor(content.get(content.size() - 1)) : null);
+            if (Boolean.TRUE.equals(includeTotal)) {
+                response.put("approximateTotal", countEstimator.estimate(userId, userName, status, activeFlag));
+            }
+            response.put("sort", "createdDate,desc");
+            response.put("content", sessionListContent(content));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "INTERNAL_ERROR", "message", "Failed to Fetch List Session"));
+        }
+    }
+
+    private List<Map<String, Object>> sessionListContent(List<Sessions> sessions) {
+        List<Map<String, Object>> contentList = new ArrayList<>();
+        for (Sessions sObj : sessions) {
+            Map<String, Object> sessionMap = new HashMap<>();
+            sessionMap.put("sessionId", sObj.getSessionId());
+            sessionMap.put("userId", sObj.getUserId());
+            sessionMap.put("userName", sObj.getUserName());
+            sessionMap.put("roles", sObj.getRoleName());
+            sessionMap.put("status", sObj.getStatus() != null ? sObj.getStatus().name() : null);
+            sessionMap.put("createdDate", sObj.getCreatedDate());
+            sessionMap.put("lastSeenAt", sObj.getLastSeenAt());
+            sessionMap.put("expiresAt", sObj.getExpiresAt());
+            sessionMap.put("ipAddress", sObj.getIpAddress());
+            sessionMap.put("activeFlag", sObj.getActiveFlag());
+            contentList.add(sessionMap);
+        }
+        return contentList;
+    }
+
+    // cursor is the (createdDate, sessionId) of the last row served, base64url so clients treat it as opaque
+    private String encodeCursor(Sessions last) {
+        String position = last.getCreatedDate() + "|" + last.getSessionId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Object[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.lastIndexOf('|');
+            if (separator < 0) {
+                return null;
+            }
+            return new Object[]{LocalDateTime.parse(position.substring(0, separator)), Integer.valueOf(position.substring(separator + 1))};
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return null;
+        }
+    }
+
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ResponseEntity<?> cleanUpSession(Integer olderThanDays) {
         String methodName = "cleanUpSession";
         logger.info("{} {} olderThanDays : {} ", className, methodName, olderThanDays);
         try {
             if (olderThanDays == null || olderThanDays < 0) olderThanDays = 30;
-            Integer deletedSession = sessionRepository.deleteExpired(LocalDateTime.now().minusDays(olderThanDays));
-            return ResponseEntity.ok(Map.of("deleted", deletedSession, "thresholdDate", LocalDateTime.now().minusDays(olderThanDays)));
+            LocalDateTime thresholdDate = LocalDateTime.now().minusDays(olderThanDays);
+            SessionStore.PurgeResult result = sessionStore.purge(thresholdDate);
+            if (!result.ran()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "PURGE_IN_PROGRESS", "message", "Session purge is already running on another node"));
+            }
+            return ResponseEntity.ok(Map.of("deleted", result.sessionsDeleted(), "chunks", result.chunks(),
+                    "partitionsDropped", result.partitionsDropped(), "thresholdDate", thresholdDate));
         } catch (Exception e) {
             logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "INTERNAL_ERROR", "message", "Failed to CleanUp Session"));
         }
     }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<?> archivedSessionHistory(Integer userId, String fromDate, String toDate) {
+        String methodName = "archivedSessionHistory";
+        logger.info("{} {} userId : {} fromDate : {} toDate : {}", className, methodName, userId, fromDate, toDate);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", "INVALID_PAYLOAD", "message", "UserId is Required"));
+        }
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = fromDate == null ? null : LocalDate.parse(fromDate);
+            to = toDate == null ? null : LocalDate.parse(toDate);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", "INVALID_PAYLOAD", "message", "fromDate and toDate must be yyyy-MM-dd"));
+        }
+        StreamingResponseBody body = out -> sessionArchiver.readUserHistory(userId, from, to, out);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
     @Override
     public ResponseEntity<?> extendSession(String sessionToken, Integer additionalMinutes) {
         String methodName = "extendSession";
@@ -334,34 +1049,58 @@ public class SessionServiceImpl implements SessionService {
             if (additionalMinutes == null || additionalMinutes <= 0) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", "INVALID_PAYLOAD", "message", "additionalMinutes must be > 0"));
             }
-            Optional<Sessions> getSession = sessionRepository.findBySessionTokenAndActiveFlag(sessionToken, true);
-            if (getSession.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime expiresAt = now.plusMinutes(additionalMinutes);
+            Optional<Target> target = findTarget(sessionToken);
+            if (target.isEmpty() || !extend(target.get(), expiresAt, now)) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", "NOT_ACTIVE", "message", "Session is revoked or expired and cannot be extended"));
             }
-            Sessions extendSession = getSession.get();
-            extendSession.setExpiresAt(LocalDateTime.now().plusMinutes(additionalMinutes));
-            extendSession.setLastSeenAt(LocalDateTime.now());
-            Sessions updatedSession = sessionRepository.save(extendSession);
-            return ResponseEntity.ok(Map.of("sessionId", updatedSession.getSessionId(), "sessionToken", updatedSession.getSessionToken(), "expiresAt", updatedSession.getExpiresAt()));
+            Target extended = target.get();
+            return ResponseEntity.ok(Map.of("sessionId", extended.sessionId(),
+                    "sessionToken", clientToken(extended.sessionId(), extended.userId(), extended.userName(), expiresAt, extended.roles(), extended.sessionToken()),
+                    "expiresAt", expiresAt));
         } catch (Exception e) {
             logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "INTERNAL_ERROR", "message", "Failed to Extend Session"));
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> activeSessionCount(Integer userId) {
+        String methodName = "activeSessionCount";
+        try {
+            if (userId == null) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", "INVALID_PAYLOAD", "message", "UserId is Required"));
+            }
+            boolean fromMemory = activeSessions.isReady();
+            int count = fromMemory ? activeSessions.count(userId) : sessionStore.findActiveExpiryByUserId(userId).size();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("userId", userId);
+            map.put("activeSessions", count);
+            map.put("maxSessions", maxSessionsPerUser);
+            map.put("source", fromMemory ? "memory" : "database");
+            return ResponseEntity.ok(map);
+        } catch (Exception e) {
+            logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "INTERNAL_ERROR", "message", "Failed to Count Sessions"));
+        }
+    }
+
     @Override
     public ResponseEntity<?> getSessionById(Integer sessionId, Authentication authentication) {
         String methodName = "getSessionById";
         logger.info("{} {} sessionId : {} authentication : {} ", className, methodName, sessionId, authentication == null ? "null" : authentication.getName());
         try {
-            Sessions getSession = sessionRepository.findById(sessionId).orElseThrow(() -> new NoSuchElementException("Session not found"));
+            Sessions getSession = sessionStore.findById(sessionId).orElseThrow(() -> new NoSuchElementException("Session not found"));
 
             boolean isAdmin = authentication != null && authentication.getAuthorities().stream().anyMatch(a -> a.getAuthority().equalsIgnoreCase("ROLE_ADMIN") || a.getAuthority().equalsIgnoreCase("ADMIN"));
             boolean isOwner = authentication != null && authentication.getName().equalsIgnoreCase(getSession.getUserName());
 
             Map<String, Object> result = new LinkedHashMap<>();
             result.put("sessionId", getSession.getSessionId());
-            result.put("sessionToken", (isAdmin || isOwner) ? getSession.getSessionToken() : "************");
+            // the raw token is only recoverable from the plaintext column kept in dual storage mode
+            result.put("sessionToken", (isAdmin || isOwner) && getSession.getLegacySessionToken() != null ? getSession.getLegacySessionToken() : "************");
             result.put("userId", getSession.getUserId());
             result.put("userName", getSession.getUserName());
             result.put("roles", getSession.getRoleName());
@@ -376,7 +1115,7 @@ public class SessionServiceImpl implements SessionService {
                 result.put("lastSeenAt", getSession.getLastSeenAt());
                 result.put("revokedAt", getSession.getRevokedAt());
                 result.put("revokedBy", getSession.getRevokedBy());
-                result.put("metaData", getSession.getMetaData());
+                result.put("metaData", metaDataCodec.decode(getSession));
             }
             return ResponseEntity.ok(result);
         } catch (NoSuchElementException ne) {
@@ -0,0 +1,94 @@
+package org.Project.ServiceImpl;
+
+import jakarta.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Brings the TBL_SESSION token columns in line with {@link SessionTokenStorage} at startup: fills SESSION_TOKEN_HASH for rows
+ * written by the previous release and, in hash mode, clears the plaintext SESSION_TOKEN. Hash mode needs that column nullable
+ * first (db/session-token-nullable.sql) and refuses to start until it is. Only the node holding the "session-token-backfill"
+ * lease runs the UPDATEs. Only present with the JPA store; the other stores never read these columns back.
+ */
+@Component
+@ConditionalOnProperty(name = "session.store.type", havingValue = "jpa", matchIfMissing = true)
+public class SessionTokenBackfill {
+
+    private static final Logger logger = LogManager.getLogger(SessionTokenBackfill.class);
+    private final String className = "SessionTokenBackfill";
+
+    private static final String LOCK_NAME = "session-token-backfill";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ClusterLock clusterLock;
+
+    @Autowired
+    SessionTokenStorage tokenStorage;
+
+    @Value("${session.token.backfill-chunk-size:5000}")
+    int chunkSize;
+
+    @PostConstruct
+    void verifySchema() {
+        if (tokenStorage.dualRead()) {
+            return;
+        }
+        List<String> nullable = jdbcTemplate.queryForList("SELECT IS_NULLABLE FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() "
+                + "AND TABLE_NAME = 'TBL_SESSION' AND COLUMN_NAME = 'SESSION_TOKEN'", String.class);
+        // no column at all means it has already been dropped
+        if (!nullable.isEmpty() && "NO".equalsIgnoreCase(nullable.get(0))) {
+            throw new IllegalStateException("session.token.storage=hash needs TBL_SESSION.SESSION_TOKEN to be nullable, run db/session-token-nullable.sql first");
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void backfill() {
+        String methodName = "backfill";
+        if (!clusterLock.tryLock(LOCK_NAME, Duration.ofMinutes(10))) {
+            logger.info("{} {} skipped, another node is backfilling", className, methodName);
+            return;
+        }
+        try {
+            boolean dualRead = tokenStorage.dualRead();
+            // digest computed by MySQL matches TokenDigest.sha256: SHA-256 over the ASCII hex token
+            String sql = dualRead
+                    ? "UPDATE TBL_SESSION SET SESSION_TOKEN_HASH = UNHEX(SHA2(SESSION_TOKEN, 256)) WHERE SESSION_ID BETWEEN ? AND ? AND SESSION_TOKEN_HASH IS NULL AND SESSION_TOKEN IS NOT NULL"
+                    : "UPDATE TBL_SESSION SET SESSION_TOKEN_HASH = COALESCE(SESSION_TOKEN_HASH, UNHEX(SHA2(SESSION_TOKEN, 256))), SESSION_TOKEN = NULL WHERE SESSION_ID BETWEEN ? AND ? AND SESSION_TOKEN IS NOT NULL";
+            List<Map<String, Object>> range = jdbcTemplate.queryForList(
+                    "SELECT MIN(SESSION_ID) AS MIN_ID, MAX(SESSION_ID) AS MAX_ID FROM TBL_SESSION WHERE SESSION_TOKEN IS NOT NULL"
+                            + (dualRead ? " AND SESSION_TOKEN_HASH IS NULL" : ""));
+            if (range.isEmpty() || range.get(0).get("MIN_ID") == null) {
+                return;
+            }
+            long minId = ((Number) range.get(0).get("MIN_ID")).longValue();
+            long maxId = ((Number) range.get(0).get("MAX_ID")).longValue();
+            int updated = 0;
+            for (long from = minId; from <= maxId; from += chunkSize) {
+                updated += jdbcTemplate.update(sql, from, Math.min(maxId, from + chunkSize - 1));
+                clusterLock.tryLock(LOCK_NAME, Duration.ofMinutes(10));
+            }
+            logger.info("{} {} storage : {} rows : {}", className, methodName, tokenStorage.storage, updated);
+        } catch (Exception e) {
+            logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+        } finally {
+            clusterLock.unlock(LOCK_NAME);
+        }
+    }
+}
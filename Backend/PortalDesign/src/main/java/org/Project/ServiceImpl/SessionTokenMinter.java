@@ -0,0 +1,144 @@
+package org.Project.ServiceImpl;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DrbgParameters;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mints 64 character hex session tokens (32 random bytes). Tokens are pre-generated in bulk into a lock-free pool that a
+ * virtual thread tops up once it drops below a low watermark, so a login storm mostly just polls a queue. Randomness comes
+ * from a small array of DRBG instances picked by thread id rather than one shared SecureRandom or a ThreadLocal per (virtual)
+ * thread. Hex encoding is table driven and the only allocation per token is the String itself.
+ */
+@Component
+public class SessionTokenMinter {
+
+    private static final Logger logger = LogManager.getLogger(SessionTokenMinter.class);
+    private final String className = "SessionTokenMinter";
+
+    public static final int TOKEN_BYTES = 32;
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final short[] HEX_PAIRS = new short[256];
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            HEX_PAIRS[b] = (short) ((HEX_DIGITS[b >>> 4] << 8) | HEX_DIGITS[b & 0x0F]);
+        }
+    }
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${session.token.pool-size:4096}")
+    int poolSize;
+
+    @Value("${session.token.refill-batch:512}")
+    int refillBatch;
+
+    @Value("${session.token.drbg-stripes:8}")
+    int drbgStripes;
+
+    private final ConcurrentLinkedQueue<String> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    private final LongAdder fromPool = new LongAdder();
+    private final LongAdder direct = new LongAdder();
+    private SecureRandom[] drbgs;
+
+    @PostConstruct
+    void init() {
+        int stripes = Integer.highestOneBit(Math.max(1, drbgStripes) * 2 - 1);
+        drbgs = new SecureRandom[stripes];
+        for (int i = 0; i < stripes; i++) {
+            drbgs[i] = newDrbg();
+        }
+        FunctionCounter.builder("session.token.minted", fromPool, LongAdder::sum).tag("source", "pool")
+                .description("Session tokens served from the pre-generated pool").register(meterRegistry);
+        FunctionCounter.builder("session.token.minted", direct, LongAdder::sum).tag("source", "direct")
+                .description("Session tokens generated on the caller's thread because the pool was empty").register(meterRegistry);
+        Gauge.builder("session.token.pool.size", pooled, AtomicInteger::get)
+                .description("Pre-generated session tokens waiting to be issued").register(meterRegistry);
+        triggerRefill();
+    }
+
+    public String nextToken() {
+        String token = pool.poll();
+        if (token != null) {
+            fromPool.increment();
+            if (pooled.decrementAndGet() < poolSize / 2) {
+                triggerRefill();
+            }
+            return token;
+        }
+        direct.increment();
+        triggerRefill();
+        byte[] random = new byte[TOKEN_BYTES];
+        drbg().nextBytes(random);
+        return encodeHex(random, 0, new byte[TOKEN_BYTES * 2]);
+    }
+
+    /** Hex of {@code TOKEN_BYTES} bytes at {@code offset}, written through the caller's scratch buffer. */
+    static String encodeHex(byte[] random, int offset, byte[] scratch) {
+        for (int i = 0; i < TOKEN_BYTES; i++) {
+            short pair = HEX_PAIRS[random[offset + i] & 0xFF];
+            scratch[i * 2] = (byte) (pair >>> 8);
+            scratch[i * 2 + 1] = (byte) pair;
+        }
+        return new String(scratch, 0, TOKEN_BYTES * 2, StandardCharsets.ISO_8859_1);
+    }
+
+    private void triggerRefill() {
+        if (refilling.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("session-token-refill").start(this::refill);
+        }
+    }
+
+    private void refill() {
+        String methodName = "refill";
+        try {
+            byte[] random = new byte[TOKEN_BYTES * refillBatch];
+            byte[] scratch = new byte[TOKEN_BYTES * 2];
+            SecureRandom drbg = drbg();
+            while (pooled.get() < poolSize) {
+                drbg.nextBytes(random);
+                for (int i = 0; i < refillBatch; i++) {
+                    pool.offer(encodeHex(random, i * TOKEN_BYTES, scratch));
+                }
+                pooled.addAndGet(refillBatch);
+            }
+        } catch (Exception e) {
+            logger.error("{} {} Error Exception : {}", className, methodName, e.toString(), e);
+        } finally {
+            refilling.set(false);
+        }
+    }
+
+    private SecureRandom drbg() {
+        return drbgs[(int) (Thread.currentThread().threadId() & (drbgs.length - 1))];
+    }
+
+    private SecureRandom newDrbg() {
+        try {
+            return SecureRandom.getInstance("DRBG",
+                    DrbgParameters.instantiation(256, DrbgParameters.Capability.RESEED_ONLY, "session-token".getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            logger.warn("{} newDrbg DRBG unavailable, falling back to the default SecureRandom", className);
+            return new SecureRandom();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.Project.ServiceImpl;
+
+import org.Project.Entity.Sessions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * How opaque session tokens are persisted. Tokens are looked up by their SHA-256 in the BINARY(32) SESSION_TOKEN_HASH column.
+ * {@code session.token.storage=dual} (the default) also writes the plaintext SESSION_TOKEN so nodes on the previous release
+ * keep working during a rolling deploy and falls back to it for rows not yet hashed. {@code hash} stops writing plaintext and
+ * reads by hash only. {@link SessionTokenBackfill} brings existing rows in line with either mode.
+ */
+@Component
+public class SessionTokenStorage {
+
+    @Value("${session.token.storage:dual}")
+    String storage;
+
+    public boolean dualRead() {
+        return !"hash".equalsIgnoreCase(storage);
+    }
+
+    /** Sets the persisted token columns for a freshly issued raw token. */
+    public void assign(Sessions session, String rawToken) {
+        session.setSessionToken(rawToken);
+        session.setSessionTokenHash(TokenDigest.sha256(rawToken));
+        session.setLegacySessionToken(dualRead() ? rawToken : null);
+    }
+
+    /** Digest the index is keyed by, from the hash column or, for a row not backfilled yet, the plaintext one. */
+    public static byte[] hashOf(byte[] sessionTokenHash, String legacySessionToken) {
+        if (sessionTokenHash != null) {
+            return sessionTokenHash;
+        }
+        return legacySessionToken == null ? null : TokenDigest.sha256(legacySessionToken);
+    }
+
+    public static byte[] hashOf(Sessions session) {
+        return hashOf(session.getSessionTokenHash(), session.getLegacySessionToken());
+    }
+}
@@ -0,0 +1,157 @@
+package org.Project.ServiceImpl;
+
+import jakarta.annotation.PostConstruct;
+import org.Project.Entity.Sessions;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Self-describing session tokens: {@code v2.<payload>.<signature>}, both parts base64url.
+ * The payload is sessionId, userId, expiresAt (epoch seconds) and the role-set digest in 24 bytes, followed by the UTF-8 userName;
+ * the signature is HMAC-SHA256 over the encoded payload. {@code v1} tokens, the same without the userName, are still accepted.
+ * Issued only when {@code session.token.format=signed}, but always accepted so opaque and signed tokens coexist.
+ */
+@Component
+public class SignedSessionTokens {
+
+    private static final Logger logger = LogManager.getLogger(SignedSessionTokens.class);
+    private final String className = "SignedSessionTokens";
+
+    private static final String PREFIX = "v2.";
+    private static final String PREFIX_V1 = "v1.";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int PAYLOAD_LENGTH = 24;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    @Autowired
+    RoleSetRegistry roleSetRegistry;
+
+    @Autowired
+    SessionRevocationFilter revocationFilter;
+
+    @Value("${session.token.format:opaque}")
+    String format;
+
+    @Value("${session.token.hmac-secret:}")
+    String hmacSecret;
+
+    private SecretKeySpec key;
+
+    /** userName is null for a v1 token or one issued without a userName. */
+    public record Claims(int sessionId, int userId, long expiresAtEpochSecond, long roleDigest, String userName) {
+    }
+
+    @PostConstruct
+    void init() {
+        byte[] secret;
+        if (hmacSecret == null || hmacSecret.isBlank()) {
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            if (issuesSigned()) {
+                logger.warn("{} init session.token.hmac-secret is not set, signed tokens will not survive a restart or validate on other nodes", className);
+            }
+        } else {
+            secret = Base64.getDecoder().decode(hmacSecret.trim());
+        }
+        key = new SecretKeySpec(secret, ALGORITHM);
+    }
+
+    public boolean issuesSigned() {
+        return "signed".equalsIgnoreCase(format);
+    }
+
+    public boolean isSigned(String sessionToken) {
+        return sessionToken != null && (sessionToken.startsWith(PREFIX) || sessionToken.startsWith(PREFIX_V1));
+    }
+
+    public String issue(Integer sessionId, Integer userId, String userName, LocalDateTime expiresAt, List<String> roleNames) {
+        byte[] name = userName == null ? new byte[0] : userName.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(PAYLOAD_LENGTH + name.length);
+        payload.putInt(sessionId);
+        payload.putInt(userId == null ? 0 : userId);
+        payload.putLong(SessionIndex.epochSecond(expiresAt));
+        payload.putLong(roleSetRegistry.digest(roleNames));
+        payload.put(name);
+        String encodedPayload = ENCODER.encodeToString(payload.array());
+        return PREFIX + encodedPayload + "." + ENCODER.encodeToString(sign(encodedPayload));
+    }
+
+    /** Returns the claims of a well-formed token with a valid signature, or null. Expiry and revocation are left to the caller. */
+    public Claims verify(String sessionToken) {
+        if (!isSigned(sessionToken)) {
+            return null;
+        }
+        int dot = sessionToken.indexOf('.', PREFIX.length());
+        if (dot < 0) {
+            return null;
+        }
+        try {
+            String encodedPayload = sessionToken.substring(PREFIX.length(), dot);
+            byte[] signature = DECODER.decode(sessionToken.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(encodedPayload))) {
+                return null;
+            }
+            byte[] payload = DECODER.decode(encodedPayload);
+            boolean v1 = sessionToken.startsWith(PREFIX_V1);
+            if (v1 ? payload.length != PAYLOAD_LENGTH : payload.length < PAYLOAD_LENGTH) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            String userName = payload.length == PAYLOAD_LENGTH ? null
+                    : new String(payload, PAYLOAD_LENGTH, payload.length - PAYLOAD_LENGTH, StandardCharsets.UTF_8);
+            return new Claims(buffer.getInt(), buffer.getInt(), buffer.getLong(), buffer.getLong(), userName);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The session a verified token describes, built from its claims alone: no store read, roles resolved from the interned digest.
+     * Null when the token predates the userName claim, its role set is unknown or holds a role changed since it was issued, in
+     * which case the caller loads the session. Callers check {@link SessionRevocationFilter#rejects} first.
+     * Fields the token does not carry (createdDate, lastSeenAt, ipAddress, userAgent) are left null.
+     */
+    public SessionCache.CachedSession toSession(Claims claims) {
+        if (claims.userName() == null) {
+            return null;
+        }
+        List<String> roles = roleSetRegistry.resolveDigest(claims.roleDigest());
+        if (roles == null || revocationFilter.holdsChangedRole(roles)) {
+            return null;
+        }
+        LocalDateTime expiresAt = SessionIndex.toDateTime(claims.expiresAtEpochSecond());
+        return new SessionCache.CachedSession(claims.sessionId(), claims.userId(), claims.userName(), roles,
+                Sessions.SessionStatus.ACTIVE, null, null, expiresAt, null, null, expiresAt);
+    }
+
+    /** True when the claims were issued for the session as it stands: same user, and the session's current expiry. */
+    public static boolean describes(Claims claims, Sessions session) {
+        return claims.userId() == (session.getUserId() == null ? 0 : session.getUserId())
+                && session.getExpiresAt() != null && SessionIndex.epochSecond(session.getExpiresAt()) == claims.expiresAtEpochSecond();
+    }
+
+    // also signs the event-stream tickets, so any node sharing the secret can check them
+    byte[] sign(String encodedPayload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to sign session token", e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.Project.ServiceImpl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes session create and revoke per user on this node, so two logins for the same user cannot both revoke "the
+ * existing" sessions and then each insert their own, and their UPDATEs cannot deadlock on TBL_SESSION. Users are hashed onto a
+ * fixed array of {@code session.user-locks.stripes} ReentrantLocks (rounded up to a power of two); a user shares a stripe with
+ * others but never needs more than one. The stripes are taken in index order, held until the surrounding transaction completes
+ * and released on the same thread by afterCompletion. ReentrantLock parks a virtual thread without pinning its carrier, and a
+ * wait longer than {@code session.user-locks.timeout-ms} fails with CannotAcquireLockException rather than queueing forever.
+ * This is node-local: requests for one user on different nodes still rely on the conditional UPDATEs.
+ */
+@Component
+public class UserSessionLocks {
+
+    private static final Logger logger = LogManager.getLogger(UserSessionLocks.class);
+    private final String className = "UserSessionLocks";
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${session.user-locks.stripes:1024}")
+    int stripes;
+
+    @Value("${session.user-locks.timeout-ms:2000}")
+    long timeoutMs;
+
+    private ReentrantLock[] locks;
+    private int mask;
+    private Timer waitTimer;
+    private Counter timeouts;
+
+    @PostConstruct
+    void init() {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+        waitTimer = Timer.builder("session.user-lock.wait")
+                .description("Time spent waiting for a per-user session lock stripe")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        timeouts = Counter.builder("session.user-lock.timeouts")
+                .description("Per-user session lock waits that gave up after the timeout")
+                .register(meterRegistry);
+        logger.info("{} init stripes : {} timeoutMs : {}", className, size, timeoutMs);
+    }
+
+    /**
+     * Locks the stripes of these users until the current transaction completes. Null names are skipped. Throws
+     * CannotAcquireLockException when they are not all held within the timeout, with none of them held.
+     */
+    public void lockUntilCompletion(Collection<String> userNames) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Per-user session locks are released on transaction completion and need an active transaction");
+        }
+        TreeSet<Integer> indexes = new TreeSet<>();
+        userNames.stream().filter(Objects::nonNull).forEach(userName -> indexes.add(stripe(userName)));
+        if (indexes.isEmpty()) {
+            return;
+        }
+        List<ReentrantLock> held = new ArrayList<>(indexes.size());
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        try {
+            for (int index : indexes) {
+                ReentrantLock lock = locks[index];
+                if (!lock.tryLock(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    timeouts.increment();
+                    throw new CannotAcquireLockException("Timed out after " + timeoutMs + " ms waiting for the session lock of " + userNames);
+                }
+                held.add(lock);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotAcquireLockException("Interrupted waiting for the session lock of " + userNames, e);
+        } finally {
+            waitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            if (held.size() < indexes.size()) {
+                unlock(held);
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                unlock(held);
+            }
+        });
+    }
+
+    public void lockUntilCompletion(String userName) {
+        lockUntilCompletion(userName == null ? List.of() : List.of(userName));
+    }
+
+    private int stripe(String userName) {
+        int h = userName.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private static void unlock(List<ReentrantLock> held) {
+        for (int i = held.size() - 1; i >= 0; i--) {
+            held.get(i).unlock();
+        }
+    }
+}
@@ -4,7 +4,6 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 
 @Data
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -24,7 +23,7 @@ public class SessionDto {
      LocalDateTime expiresAt;
      LocalDateTime revokedAt;
     String revokedBy;
-   Map<String, Object> metaData;
+   SessionMetaData metaData;
      Boolean activeFlag;
      Integer ttlMinutes;
 }
\ No newline at end of file
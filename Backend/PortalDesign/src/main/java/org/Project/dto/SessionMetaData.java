@@ -0,0 +1,33 @@
+package org.Project.dto;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SessionMetaData {
+
+    String loginMethod;
+    String loginTime;
+    String deviceId;
+    String clientVersion;
+
+    // anything else the client sends, kept as strings; nested values keep their JSON text
+    Map<String, String> attributes = new LinkedHashMap<>();
+
+    @JsonAnyGetter
+    public Map<String, String> getAttributes() {
+        return attributes;
+    }
+
+    @JsonAnySetter
+    public void setAttribute(String name, JsonNode value) {
+        attributes.put(name, value == null || value.isNull() ? null : value.isValueNode() ? value.asText() : value.toString());
+    }
+}
@@ -0,0 +1,62 @@
+-- One-off conversion of TBL_SESSION to monthly RANGE COLUMNS partitions on CREATED_DATE (MySQL 8).
+-- Run by hand with the mysql client in a maintenance window: the ALTER ... PARTITION BY copies the table. After that
+-- SessionPartitionManager keeps the next months created ahead of time and retention drops whole partitions instead of
+-- deleting rows.
+--
+-- Lookups by token hash or SESSION_ID carry no CREATED_DATE, so they probe every partition, one index dive each. Keep the
+-- partition count small: retention months, session.partitioning.months-ahead and p_history/p_future.
+--
+-- MySQL requires the partitioning column in every unique key of a partitioned table, and a partitioned table can be neither
+-- side of a foreign key. So the primary key becomes (SESSION_ID, CREATED_DATE) and the token columns keep plain indexes;
+-- tokens are 256-bit random values, their uniqueness never relied on the constraint.
+--
+-- SESSION_ROLES has a foreign key to TBL_SESSION that blocks partitioning, so it is dropped first, but only once the role-set
+-- migration has emptied it. The script stops before changing anything while rows are left; after checking that they are not
+-- needed, SET @session_roles_migrated = 1 in the same mysql session to drop it anyway.
+
+DROP PROCEDURE IF EXISTS session_partitioning_preflight;
+DELIMITER //
+CREATE PROCEDURE session_partitioning_preflight()
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'SESSION_ROLES')
+            AND COALESCE(@session_roles_migrated, 0) <> 1 THEN
+        IF EXISTS (SELECT 1 FROM SESSION_ROLES) THEN
+            SIGNAL SQLSTATE '45000'
+                SET MESSAGE_TEXT = 'SESSION_ROLES still has rows: let the role-set migration finish or SET @session_roles_migrated = 1';
+        END IF;
+    END IF;
+END//
+DELIMITER ;
+CALL session_partitioning_preflight();
+DROP PROCEDURE session_partitioning_preflight;
+
+DROP TABLE IF EXISTS SESSION_ROLES;
+
+UPDATE TBL_SESSION SET CREATED_DATE = COALESCE(LAST_SEEN_AT, EXPIRES_AT, NOW()) WHERE CREATED_DATE IS NULL;
+
+-- unique keys other than the primary key, whatever Hibernate named them
+SELECT GROUP_CONCAT(DISTINCT CONCAT('DROP INDEX `', INDEX_NAME, '`') SEPARATOR ', ') INTO @drop_unique
+FROM information_schema.STATISTICS
+WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'TBL_SESSION' AND NON_UNIQUE = 0 AND INDEX_NAME <> 'PRIMARY';
+SET @sql = IF(@drop_unique IS NULL, 'DO 0', CONCAT('ALTER TABLE TBL_SESSION ', @drop_unique));
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+ALTER TABLE TBL_SESSION
+    MODIFY CREATED_DATE DATETIME(6) NOT NULL,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (SESSION_ID, CREATED_DATE),
+    ADD INDEX IDX_SESSION_TOKEN_HASH (SESSION_TOKEN_HASH),
+    ADD INDEX IDX_SESSION_TOKEN (SESSION_TOKEN),
+    ADD INDEX IDX_SESSION_ACTIVE_EXPIRES (ACTIVE_FLAG, EXPIRES_AT);
+
+-- everything created so far lands in p_history, which is dropped once all of it is closed and past retention; its bound is
+-- the first day of next month, from where SessionPartitionManager splits monthly partitions off p_future
+SET @history_bound = DATE_FORMAT(CURDATE() + INTERVAL 1 MONTH, '%Y-%m-01');
+SET @sql = CONCAT('ALTER TABLE TBL_SESSION PARTITION BY RANGE COLUMNS (CREATED_DATE) (',
+    'PARTITION p_history VALUES LESS THAN (', QUOTE(@history_bound), '), ',
+    'PARTITION p_future VALUES LESS THAN (MAXVALUE))');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
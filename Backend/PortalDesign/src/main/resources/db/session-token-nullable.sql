@@ -0,0 +1,5 @@
+-- Lets TBL_SESSION.SESSION_TOKEN hold NULL (MySQL 8). Required before any node runs with session.token.storage=hash: that
+-- mode stops writing the plaintext token and its backfill clears the column, both of which fail while it is NOT NULL.
+-- SessionTokenBackfill refuses to start in hash mode until this has run. Safe to run while nodes are still in dual mode.
+
+ALTER TABLE TBL_SESSION MODIFY SESSION_TOKEN CHAR(64) NULL;
@@ -0,0 +1,10 @@
+-- Columns that let a signed token be superseded by extend or refresh (MySQL 8). Run once before deploying the release that
+-- reads them; both are nullable and added in place.
+--
+-- TBL_SESSION.SUPERSEDED_UNTIL is the latest expiry of a token an extend or refresh replaced; until it passes, only the token
+-- carrying the session's current EXPIRES_AT validates. TBL_INVALIDATION_LOG.PREVIOUS_EXPIRES_AT carries the same bound to
+-- the other nodes on EXTENDED entries.
+
+ALTER TABLE TBL_SESSION ADD COLUMN SUPERSEDED_UNTIL DATETIME(6) NULL;
+
+ALTER TABLE TBL_INVALIDATION_LOG ADD COLUMN PREVIOUS_EXPIRES_AT DATETIME(6) NULL;
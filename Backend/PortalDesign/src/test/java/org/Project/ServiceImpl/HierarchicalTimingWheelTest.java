@@ -0,0 +1,116 @@
+package org.Project.ServiceImpl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelTest {
+
+    // not aligned to any level, so the first cascades come part way through a slot
+    private static final long START = 1_000_003;
+
+    private final HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(START);
+
+    @Test
+    void aKeyFiresOnItsDeadlineTickAndNotBefore() {
+        wheel.schedule(1, START + 10);
+
+        assertThat(wheel.advance(START + 9)).isEmpty();
+        assertThat(wheel.advance(START + 10)).containsExactly(1);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void aDeadlineAlreadyPassedFiresOnTheNextTick() {
+        wheel.schedule(1, START - 5);
+
+        assertThat(wheel.advance(START + 1)).containsExactly(1);
+    }
+
+    @Test
+    void deadlinesOnEveryLevelBoundaryFireExactlyOnTime() {
+        long[] offsets = {1, 63, 64, 65, 4095, 4096, 4097, 262143, 262144, 262145, 300000};
+        for (int key = 0; key < offsets.length; key++) {
+            wheel.schedule(key, START + offsets[key]);
+        }
+
+        Map<Integer, Long> firedAt = new HashMap<>();
+        for (long tick = START + 1; tick <= START + 300000; tick++) {
+            for (int key : wheel.advance(tick)) {
+                firedAt.put(key, tick);
+            }
+        }
+
+        for (int key = 0; key < offsets.length; key++) {
+            assertThat(firedAt.get(key)).as("offset %d", offsets[key]).isEqualTo(START + offsets[key]);
+        }
+    }
+
+    @Test
+    void aDeadlineBeyondTheWheelIsParkedAndFiresWhenItComesRound() {
+        long span = 1L << 24;
+        wheel.schedule(1, START + span + 10);
+
+        assertThat(wheel.advance(START + span + 9)).isEmpty();
+        assertThat(wheel.advance(START + span + 10)).containsExactly(1);
+    }
+
+    @Test
+    void rescheduleReplacesTheEarlierDeadline() {
+        wheel.schedule(1, START + 100);
+        wheel.schedule(1, START + 50);
+
+        assertThat(wheel.advance(START + 50)).containsExactly(1);
+        assertThat(wheel.advance(START + 200)).isEmpty();
+    }
+
+    @Test
+    void scheduleIfAbsentKeepsTheExistingDeadline() {
+        wheel.schedule(1, START + 50);
+
+        assertThat(wheel.scheduleIfAbsent(1, START + 10)).isFalse();
+        assertThat(wheel.advance(START + 49)).isEmpty();
+        assertThat(wheel.advance(START + 50)).containsExactly(1);
+        assertThat(wheel.scheduleIfAbsent(1, START + 60)).isTrue();
+    }
+
+    @Test
+    void aCancelledKeyNeverFires() {
+        wheel.schedule(1, START + 10);
+        wheel.schedule(2, START + 10);
+
+        assertThat(wheel.cancel(1)).isTrue();
+        assertThat(wheel.cancel(1)).isFalse();
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(START + 10)).containsExactly(2);
+    }
+
+    @Test
+    void randomDeadlinesAllFireOnTimeWhenAdvancedInUnevenSteps() {
+        Random random = new Random(42);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        for (int key = 0; key < 10000; key++) {
+            long deadline = START + 1 + random.nextInt(200000);
+            deadlines.put(key, deadline);
+            wheel.schedule(key, deadline);
+        }
+
+        long now = START;
+        while (now < START + 200001) {
+            long next = now + 1 + random.nextInt(500);
+            List<Integer> due = wheel.advance(next);
+            for (int key : due) {
+                assertThat(deadlines.remove(key)).isGreaterThan(now).isLessThanOrEqualTo(next);
+            }
+            now = next;
+        }
+
+        assertThat(deadlines).isEmpty();
+        assertThat(wheel.size()).isZero();
+    }
+}
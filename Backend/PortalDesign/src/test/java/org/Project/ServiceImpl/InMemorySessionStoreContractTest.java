@@ -0,0 +1,11 @@
+package org.Project.ServiceImpl;
+
+import org.Project.Repository.SessionStore;
+
+class InMemorySessionStoreContractTest extends SessionStoreContractTest {
+
+    @Override
+    protected SessionStore emptyStore() {
+        return new InMemorySessionStore();
+    }
+}
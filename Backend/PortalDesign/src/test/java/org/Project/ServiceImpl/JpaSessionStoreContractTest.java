@@ -0,0 +1,63 @@
+package org.Project.ServiceImpl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.Project.Repository.SessionStore;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The contract against TBL_SESSION on MySQL, since the store's native queries are MySQL only. Hibernate creates the tables in
+ * the scratch schema and drops them afterwards:
+ * <pre>
+ * mvn test -Dtest=JpaSessionStoreContractTest -Dsession.test.mysql.url=jdbc:mysql://localhost/scratch \
+ *      -Dsession.test.mysql.user=... -Dsession.test.mysql.password=...
+ * </pre>
+ * Tests run outside a test transaction because the purger and the role-set registry commit their own.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({JpaSessionStore.class, SessionBatchInserter.class, SessionPurger.class, SessionPartitionManager.class,
+        RoleSetRegistry.class, ClusterLock.class, JpaSessionStoreContractTest.Metrics.class})
+@EnabledIfSystemProperty(named = "session.test.mysql.url", matches = ".+")
+class JpaSessionStoreContractTest extends SessionStoreContractTest {
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @DynamicPropertySource
+    static void mysql(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("session.test.mysql.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("session.test.mysql.user", ""));
+        registry.add("spring.datasource.password", () -> System.getProperty("session.test.mysql.password", ""));
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+
+    @Autowired
+    JpaSessionStore jpaSessionStore;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Override
+    protected SessionStore emptyStore() {
+        jdbcTemplate.update("DELETE FROM TBL_SESSION");
+        return jpaSessionStore;
+    }
+}
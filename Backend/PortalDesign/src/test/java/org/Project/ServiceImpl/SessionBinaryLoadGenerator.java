@@ -0,0 +1,132 @@
+package org.Project.ServiceImpl;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load generator for {@link SessionBinaryServer}, run outside the application. It lives in the test sources so it never ships in
+ * the application jar:
+ * <pre>
+ * mvn test-compile
+ * java -cp target/classes:target/test-classes org.Project.ServiceImpl.SessionBinaryLoadGenerator \
+ *      &lt;host:port | unix:/path&gt; &lt;token | @tokens-file&gt; [connections=8] [pipeline=32] [seconds=10]
+ * </pre>
+ * Each connection keeps {@code pipeline} requests in flight: it writes a window of frames, reads the window of responses and
+ * repeats, cycling through the tokens. Prints requests per second, how many came back valid and the window round trip
+ * percentiles.
+ */
+public class SessionBinaryLoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: SessionBinaryLoadGenerator <host:port | unix:/path> <token | @tokens-file> [connections] [pipeline] [seconds]");
+            System.exit(2);
+        }
+        String target = args[0];
+        List<byte[]> tokens = new ArrayList<>();
+        if (args[1].startsWith("@")) {
+            for (String line : Files.readAllLines(Path.of(args[1].substring(1)))) {
+                if (!line.isBlank()) {
+                    tokens.add(line.trim().getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        } else {
+            tokens.add(args[1].getBytes(StandardCharsets.UTF_8));
+        }
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        int pipeline = args.length > 3 ? Integer.parseInt(args[3]) : 32;
+        int seconds = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+
+        LongAdder requests = new LongAdder();
+        LongAdder valid = new LongAdder();
+        List<long[]> roundTrips = new ArrayList<>();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> workers = new ArrayList<>();
+        for (int c = 0; c < connections; c++) {
+            long[] samples = new long[1 << 20];
+            roundTrips.add(samples);
+            int offset = c;
+            workers.add(Thread.ofPlatform().name("load-" + c).start(() -> {
+                try (SocketChannel channel = open(target)) {
+                    run(channel, tokens, offset, pipeline, deadline, requests, valid, samples);
+                } catch (IOException e) {
+                    System.err.println("connection " + offset + " failed: " + e);
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        long total = requests.sum();
+        long[] all = roundTrips.stream().flatMapToLong(samples -> Arrays.stream(samples).filter(s -> s > 0)).sorted().toArray();
+        System.out.printf("target=%s connections=%d pipeline=%d seconds=%d%n", target, connections, pipeline, seconds);
+        System.out.printf("requests=%d (%.0f/s) valid=%d%n", total, total / (double) seconds, valid.sum());
+        if (all.length > 0) {
+            System.out.printf("window round trip us: p50=%d p99=%d max=%d%n",
+                    all[all.length / 2] / 1000, all[(int) (all.length * 0.99)] / 1000, all[all.length - 1] / 1000);
+        }
+    }
+
+    private static SocketChannel open(String target) throws IOException {
+        if (target.startsWith("unix:")) {
+            SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+            channel.connect(UnixDomainSocketAddress.of(target.substring("unix:".length())));
+            return channel;
+        }
+        int colon = target.lastIndexOf(':');
+        SocketAddress address = new InetSocketAddress(target.substring(0, colon), Integer.parseInt(target.substring(colon + 1)));
+        SocketChannel channel = SocketChannel.open(address);
+        channel.socket().setTcpNoDelay(true);
+        return channel;
+    }
+
+    private static void run(SocketChannel channel, List<byte[]> tokens, int offset, int pipeline, long deadline,
+                            LongAdder requests, LongAdder valid, long[] samples) throws IOException {
+        int maxToken = tokens.stream().mapToInt(token -> token.length).max().orElse(0);
+        ByteBuffer out = ByteBuffer.allocate(pipeline * (SessionBinaryServer.LENGTH_BYTES + maxToken));
+        ByteBuffer in = ByteBuffer.allocate(pipeline * (SessionBinaryServer.LENGTH_BYTES + SessionBinaryServer.RESPONSE_BYTES));
+        int next = offset;
+        int sample = 0;
+        while (System.nanoTime() < deadline) {
+            out.clear();
+            for (int i = 0; i < pipeline; i++) {
+                byte[] token = tokens.get(next++ % tokens.size());
+                out.putInt(token.length).put(token);
+            }
+            out.flip();
+            long started = System.nanoTime();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            in.clear();
+            while (in.hasRemaining()) {
+                if (channel.read(in) < 0) {
+                    throw new IOException("server closed the connection");
+                }
+            }
+            samples[sample++ & (samples.length - 1)] = System.nanoTime() - started;
+            in.flip();
+            for (int i = 0; i < pipeline; i++) {
+                in.getInt();
+                if (in.get() == 1) {
+                    valid.increment();
+                }
+                in.position(in.position() + SessionBinaryServer.RESPONSE_BYTES - 1);
+            }
+            requests.add(pipeline);
+        }
+    }
+}
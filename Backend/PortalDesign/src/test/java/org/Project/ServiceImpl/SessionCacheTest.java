@@ -0,0 +1,115 @@
+package org.Project.ServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.Project.Entity.Sessions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionCacheTest {
+
+    private SessionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SessionCache();
+        cache.meterRegistry = new SimpleMeterRegistry();
+        cache.enabled = true;
+        cache.maxSize = 100;
+        cache.ttlSeconds = 60;
+        cache.registerMetrics();
+    }
+
+    private static Sessions session(int sessionId, LocalDateTime expiresAt) {
+        Sessions session = new Sessions();
+        session.setSessionId(sessionId);
+        session.setUserId(sessionId);
+        session.setUserName("user" + sessionId);
+        session.setRoleName(new ArrayList<>(List.of("USER")));
+        session.setStatus(Sessions.SessionStatus.ACTIVE);
+        session.setExpiresAt(expiresAt);
+        return session;
+    }
+
+    @Test
+    void aPutWithTheCurrentStampIsServed() {
+        cache.put("token", session(1, LocalDateTime.now().plusHours(1)), cache.stamp());
+
+        assertThat(cache.get("token")).extracting(SessionCache.CachedSession::sessionId).isEqualTo(1);
+    }
+
+    @Test
+    void aPutReadBeforeAnInvalidationIsDropped() {
+        long readStamp = cache.stamp();
+        cache.invalidateUserId(1);
+
+        cache.put("token", session(1, LocalDateTime.now().plusHours(1)), readStamp);
+
+        assertThat(cache.get("token")).isNull();
+    }
+
+    @Test
+    void anInvalidationRacingThePutNeverLeavesTheEntryBehind() throws Exception {
+        for (int round = 0; round < 2000; round++) {
+            String token = "token-" + round;
+            CyclicBarrier barrier = new CyclicBarrier(2);
+            // the read stamp is taken before the revoke starts, as a validate that loaded the row before the revoke committed
+            long readStamp = cache.stamp();
+            Thread validate = Thread.ofPlatform().start(() -> {
+                await(barrier);
+                cache.put(token, session(1, LocalDateTime.now().plusHours(1)), readStamp);
+            });
+            Thread revoke = Thread.ofPlatform().start(() -> {
+                await(barrier);
+                cache.invalidate(token);
+            });
+            validate.join();
+            revoke.join();
+
+            assertThat(cache.get(token)).as("round %d", round).isNull();
+        }
+    }
+
+    @Test
+    void anEntryIsNeverCachedPastTheSessionExpiry() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(5);
+        cache.put("soon", session(1, expiresAt), cache.stamp());
+        cache.put("gone", session(2, LocalDateTime.now().minusSeconds(1)), cache.stamp());
+
+        assertThat(cache.get("soon").cachedUntil()).isEqualTo(expiresAt);
+        assertThat(cache.get("gone")).isNull();
+    }
+
+    @Test
+    void invalidationsBySessionUserAndRoleRemoveTheMatchingEntries() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusHours(1);
+        for (int i = 1; i <= 4; i++) {
+            cache.put("token-" + i, session(i, expiresAt), cache.stamp());
+        }
+
+        cache.invalidateSessionId(1);
+        cache.invalidateUserName("user2");
+        cache.invalidateSessionIds(List.of(3));
+
+        assertThat(cache.get("token-1")).isNull();
+        assertThat(cache.get("token-2")).isNull();
+        assertThat(cache.get("token-3")).isNull();
+        assertThat(cache.get("token-4")).isNotNull();
+        cache.invalidateRoleName("USER");
+        assertThat(cache.get("token-4")).isNull();
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
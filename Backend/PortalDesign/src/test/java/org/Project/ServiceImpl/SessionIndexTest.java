@@ -0,0 +1,129 @@
+package org.Project.ServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionIndexTest {
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    private SessionIndex index;
+
+    private SessionIndex index(int stripes, int initialCapacity) {
+        index = new SessionIndex();
+        index.meterRegistry = new SimpleMeterRegistry();
+        index.enabled = true;
+        index.stripeCount = stripes;
+        index.initialCapacity = initialCapacity;
+        index.init();
+        return index;
+    }
+
+    @AfterEach
+    void close() {
+        if (index != null) {
+            index.close();
+        }
+    }
+
+    private static String token(int i) {
+        return "token-" + i;
+    }
+
+    private void put(int i, LocalDateTime expiresAt) {
+        index.putActive(TokenDigest.sha256(token(i)), i, i % 7, expiresAt, 3);
+    }
+
+    @Test
+    void aFullStripeStillFindsEveryKeyAlongItsProbeChain() {
+        index(1, 16);
+        // 12 of 16 slots is the load factor limit, so several keys sit past their home slot
+        for (int i = 1; i <= 12; i++) {
+            put(i, now.plusHours(1));
+        }
+
+        for (int i = 1; i <= 12; i++) {
+            SessionIndex.Entry entry = index.get(token(i));
+            assertThat(entry).as("token %d", i).isNotNull();
+            assertThat(entry.sessionId()).isEqualTo(i);
+            assertThat(entry.userId()).isEqualTo(i % 7);
+            assertThat(entry.expiresAtEpochSecond()).isEqualTo(SessionIndex.epochSecond(now.plusHours(1)));
+        }
+        assertThat(index.get(token(13))).isNull();
+        assertThat(index.nativeBytes()).isEqualTo(16 * 64);
+    }
+
+    @Test
+    void putActiveKeepsAnExistingEntryAndUpdatesChangeItInPlace() {
+        index(1, 16);
+        put(1, now.plusHours(1));
+        index.markStatus(TokenDigest.sha256(token(1)), SessionIndex.REVOKED);
+
+        index.putActive(TokenDigest.sha256(token(1)), 99, 99, now.plusHours(2), 4);
+        index.updateExpiry(TokenDigest.sha256(token(1)), now.plusHours(3));
+
+        SessionIndex.Entry entry = index.get(token(1));
+        assertThat(entry.sessionId()).isEqualTo(1);
+        assertThat(entry.status()).isEqualTo(SessionIndex.REVOKED);
+        assertThat(entry.expiresAtEpochSecond()).isEqualTo(SessionIndex.epochSecond(now.plusHours(3)));
+        assertThat(entry.isActiveAt(SessionIndex.epochSecond(now))).isFalse();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void stripesGrowPastTheirInitialCapacityWithoutLosingEntries() {
+        index(4, 16);
+        for (int i = 1; i <= 10000; i++) {
+            put(i, now.plusHours(1));
+        }
+
+        assertThat(index.size()).isEqualTo(10000);
+        for (int i = 1; i <= 10000; i++) {
+            assertThat(index.get(token(i))).as("token %d", i).extracting(SessionIndex.Entry::sessionId).isEqualTo(i);
+        }
+        // every stripe stays at or under three quarters full
+        assertThat(index.nativeBytes()).isGreaterThanOrEqualTo(10000 * 64L * 4 / 3);
+    }
+
+    @Test
+    void compactDropsExpiredEntriesAndShrinksTheStripes() {
+        index(2, 16);
+        for (int i = 1; i <= 2000; i++) {
+            put(i, i <= 1980 ? now.minusMinutes(1) : now.plusHours(1));
+        }
+        long grown = index.nativeBytes();
+
+        index.compact();
+
+        assertThat(index.size()).isEqualTo(20);
+        assertThat(index.nativeBytes()).isLessThan(grown);
+        assertThat(index.get(token(1))).isNull();
+        for (int i = 1981; i <= 2000; i++) {
+            assertThat(index.get(token(i))).as("token %d", i).isNotNull();
+        }
+        put(1, now.plusHours(1));
+        assertThat(index.get(token(1))).isNotNull();
+    }
+
+    @Test
+    void revokesScanEveryStripe() {
+        index(4, 16);
+        for (int i = 1; i <= 100; i++) {
+            put(i, now.plusHours(1));
+        }
+
+        assertThat(index.revokeUser(3)).isEqualTo(14);
+        assertThat(index.revokeSessionIds(Set.of(1, 2, 3))).isEqualTo(2);
+
+        assertThat(index.get(token(3)).status()).isEqualTo(SessionIndex.REVOKED);
+        assertThat(index.get(token(1)).status()).isEqualTo(SessionIndex.REVOKED);
+        assertThat(index.get(token(4)).status()).isEqualTo(SessionIndex.ACTIVE);
+    }
+}
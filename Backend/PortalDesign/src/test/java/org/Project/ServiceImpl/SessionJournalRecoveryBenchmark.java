@@ -0,0 +1,110 @@
+package org.Project.ServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.Project.Entity.Sessions;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Startup replay time of the journal store: writes the given number of sessions, extends every second one and revokes every
+ * tenth, then reopens the journal twice, once replaying the segments and once replaying a snapshot taken of the same state:
+ * <pre>
+ * mvn test-compile
+ * java -cp target/classes:target/test-classes:$(cat cp.txt) org.Project.ServiceImpl.SessionJournalRecoveryBenchmark \
+ *      [sessions=1000000] [dir=a fresh temporary directory]
+ * </pre>
+ * where cp.txt comes from {@code mvn dependency:build-classpath -Dmdep.outputFile=cp.txt -Dmdep.includeScope=test}. Runs with
+ * fsync none and without the DB mirror, so only the replay is timed. Each reopen is done three times and the fastest is
+ * reported, the first one pays for the page cache and JIT.
+ */
+public class SessionJournalRecoveryBenchmark {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    public static void main(String[] args) throws IOException {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path dir = args.length > 1 ? Path.of(args[1]) : Files.createTempDirectory("session-journal");
+        System.out.printf("sessions=%d dir=%s%n", sessions, dir);
+
+        JournaledSessionStore writer = store(dir);
+        writer.open();
+        LocalDateTime now = LocalDateTime.now();
+        List<Sessions> batch = new ArrayList<>();
+        List<Integer> revoke = new ArrayList<>();
+        for (int i = 0; i < sessions; i++) {
+            batch.add(session(i % 5000, now));
+            if (batch.size() == 1000 || i == sessions - 1) {
+                writer.insertAll(batch);
+                for (int j = 0; j < batch.size(); j++) {
+                    Integer sessionId = batch.get(j).getSessionId();
+                    if (j % 2 == 0) {
+                        writer.extendActive(sessionId, now.plusHours(2), now, now);
+                    }
+                    if (j % 10 == 0) {
+                        revoke.add(sessionId);
+                    }
+                }
+                writer.revokeByIds(revoke, now, "benchmark");
+                batch.clear();
+                revoke.clear();
+            }
+        }
+        writer.close();
+        System.out.printf("%-10s %12s %12s%n", "replay", "sessions", "ms");
+        report("segments", dir);
+
+        JournaledSessionStore snapshotter = store(dir);
+        snapshotter.open();
+        snapshotter.snapshot();
+        snapshotter.close();
+        report("snapshot", dir);
+    }
+
+    private static void report(String name, Path dir) throws IOException {
+        long best = Long.MAX_VALUE;
+        int recovered = 0;
+        for (int run = 0; run < 3; run++) {
+            JournaledSessionStore store = store(dir);
+            long started = System.nanoTime();
+            store.open();
+            best = Math.min(best, (System.nanoTime() - started) / 1_000_000);
+            recovered = (int) store.count(null, null, null, null);
+            store.close();
+        }
+        System.out.printf("%-10s %12d %12d%n", name, recovered, best);
+    }
+
+    private static JournaledSessionStore store(Path dir) {
+        JournaledSessionStore store = new JournaledSessionStore();
+        store.dir = dir.toString();
+        store.segmentBytes = 64 << 20;
+        store.fsync = "none";
+        store.fsyncIntervalMs = 10;
+        store.mirrorToDb = false;
+        store.mirrorBatchSize = 1000;
+        store.mirrorQueueCapacity = 1000;
+        store.meterRegistry = new SimpleMeterRegistry();
+        return store;
+    }
+
+    private static Sessions session(int userId, LocalDateTime now) {
+        Sessions session = new Sessions();
+        byte[] tokenHash = new byte[32];
+        RANDOM.nextBytes(tokenHash);
+        session.setSessionTokenHash(tokenHash);
+        session.setUserId(userId);
+        session.setUserName("bench" + userId);
+        session.setRoleName(new ArrayList<>(List.of("USER")));
+        session.setStatus(Sessions.SessionStatus.ACTIVE);
+        session.setActiveFlag(true);
+        session.setCreatedDate(now);
+        session.setExpiresAt(now.plusHours(1));
+        return session;
+    }
+}
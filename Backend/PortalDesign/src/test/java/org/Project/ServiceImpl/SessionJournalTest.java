@@ -0,0 +1,174 @@
+package org.Project.ServiceImpl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SessionJournalTest {
+
+    private static final byte TYPE = 9;
+    private static final Path FIRST_SEGMENT = Path.of("segment-00000000000000000000.log");
+
+    @TempDir
+    Path dir;
+
+    private final List<SessionJournal> opened = new ArrayList<>();
+
+    private record Replayed(byte type, String payload, long position) {
+    }
+
+    @AfterEach
+    void closeJournals() {
+        opened.forEach(SessionJournal::close);
+    }
+
+    private SessionJournal journal(int segmentBytes, List<Replayed> replayed) throws IOException {
+        SessionJournal journal = new SessionJournal(dir, segmentBytes, SessionJournal.FsyncMode.GROUP, 1);
+        opened.add(journal);
+        journal.open((type, payload, position) -> {
+            byte[] bytes = new byte[payload.remaining()];
+            payload.get(bytes);
+            replayed.add(new Replayed(type, new String(bytes, StandardCharsets.UTF_8), position));
+        });
+        return journal;
+    }
+
+    private static List<byte[]> payloads(String... values) {
+        return Stream.of(values).map(value -> value.getBytes(StandardCharsets.UTF_8)).toList();
+    }
+
+    // positions of each payload as the append reported them
+    private static List<Long> append(SessionJournal journal, String... values) {
+        List<Long> positions = new ArrayList<>();
+        journal.append(TYPE, payloads(values), () -> null, (i, position) -> positions.add(position));
+        return positions;
+    }
+
+    @Test
+    void reopenReplaysEveryRecordInOrderAtTheReportedPositions() throws IOException {
+        SessionJournal journal = journal(4096, new ArrayList<>());
+        List<Long> positions = new ArrayList<>(append(journal, "a", "bb"));
+        positions.addAll(append(journal, "ccc"));
+        journal.close();
+
+        List<Replayed> replayed = new ArrayList<>();
+        journal(4096, replayed);
+
+        assertThat(replayed).extracting(Replayed::payload).containsExactly("a", "bb", "ccc");
+        assertThat(replayed).extracting(Replayed::position).containsExactlyElementsOf(positions);
+        assertThat(positions).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void aBadChecksumEndsTheSegment() throws IOException {
+        SessionJournal journal = journal(4096, new ArrayList<>());
+        long second = append(journal, "first", "second").get(1);
+        append(journal, "third");
+        journal.close();
+        // flip a payload byte of the third record: header is length, crc, type
+        int third = (int) second;
+        writeAt(dir.resolve(FIRST_SEGMENT), third + 9, (byte) 'X');
+
+        List<Replayed> replayed = new ArrayList<>();
+        SessionJournal reopened = journal(4096, replayed);
+        append(reopened, "fourth");
+        reopened.close();
+
+        assertThat(replayed).extracting(Replayed::payload).containsExactly("first", "second");
+        List<Replayed> again = new ArrayList<>();
+        journal(4096, again);
+        // appends went to a fresh segment rather than behind the torn record
+        assertThat(again).extracting(Replayed::payload).containsExactly("first", "second", "fourth");
+    }
+
+    @Test
+    void aLengthRunningPastTheSegmentEndsIt() throws IOException {
+        SessionJournal journal = journal(4096, new ArrayList<>());
+        long first = append(journal, "first").get(0);
+        append(journal, "second");
+        journal.close();
+        ByteBuffer length = ByteBuffer.allocate(4).putInt(0, 1 << 20);
+        try (FileChannel channel = FileChannel.open(dir.resolve(FIRST_SEGMENT), StandardOpenOption.WRITE)) {
+            channel.write(length, (int) first);
+        }
+
+        List<Replayed> replayed = new ArrayList<>();
+        journal(4096, replayed);
+
+        assertThat(replayed).extracting(Replayed::payload).containsExactly("first");
+    }
+
+    @Test
+    void aSnapshotReplacesTheSegmentsBeforeIt() throws IOException {
+        SessionJournal journal = journal(4096, new ArrayList<>());
+        append(journal, "old-1", "old-2");
+        journal.snapshot(() -> List.of("state-1", "state-2"), value -> value.getBytes(StandardCharsets.UTF_8));
+        long after = append(journal, "new").get(0);
+        journal.close();
+
+        assertThat(Files.exists(dir.resolve(FIRST_SEGMENT))).isFalse();
+        List<Replayed> replayed = new ArrayList<>();
+        SessionJournal reopened = journal(4096, replayed);
+
+        assertThat(replayed).extracting(Replayed::payload).containsExactly("state-1", "state-2", "new");
+        assertThat(replayed).extracting(Replayed::type).containsExactly(SessionJournal.SAVE, SessionJournal.SAVE, TYPE);
+        assertThat(replayed.get(0).position()).isEqualTo(reopened.replayedFrom()).isEqualTo(replayed.get(1).position()).isLessThan(after);
+        assertThat(replayed.get(2).position()).isEqualTo(after);
+    }
+
+    @Test
+    void aFailedRollLeavesTheChangeUnapplied() throws IOException {
+        SessionJournal journal = journal(64, new ArrayList<>());
+        append(journal, "x".repeat(30));
+        // the next segment cannot be created, so the roll the following append needs fails
+        Files.createFile(dir.resolve("segment-00000000000000000001.log"));
+        AtomicBoolean applied = new AtomicBoolean();
+
+        assertThatThrownBy(() -> journal.append(TYPE, payloads("y".repeat(30)), () -> {
+            applied.set(true);
+            return null;
+        })).isInstanceOf(UncheckedIOException.class);
+        assertThat(applied).isFalse();
+    }
+
+    @Test
+    void anAppendTooLargeForASegmentIsRejectedUpFront() throws IOException {
+        SessionJournal journal = journal(64, new ArrayList<>());
+
+        assertThatThrownBy(() -> journal.append(TYPE, payloads("z".repeat(60)), () -> null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void appendsAfterCloseAreRejected() throws IOException {
+        SessionJournal journal = journal(4096, new ArrayList<>());
+        append(journal, "kept");
+        journal.close();
+
+        assertThatThrownBy(() -> append(journal, "lost")).isInstanceOf(IllegalStateException.class);
+        List<Replayed> replayed = new ArrayList<>();
+        journal(4096, replayed);
+        assertThat(replayed).extracting(Replayed::payload).containsExactly("kept");
+    }
+
+    private static void writeAt(Path file, int offset, byte value) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{value}), offset);
+        }
+    }
+}
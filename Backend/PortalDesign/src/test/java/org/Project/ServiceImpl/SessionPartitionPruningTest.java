@@ -0,0 +1,126 @@
+package org.Project.ServiceImpl;
+
+import org.Project.Repository.SessionRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs EXPLAIN for the retention queries against a TBL_SESSION partitioned the way db/session-partitioning.sql leaves it, and
+ * checks that the partition drop keeps exactly the rows the purge keeps. Needs an empty scratch MySQL 8 schema:
+ * <pre>
+ * mvn test -Dtest=SessionPartitionPruningTest -Dsession.test.mysql.url=jdbc:mysql://localhost/scratch \
+ *      -Dsession.test.mysql.user=... -Dsession.test.mysql.password=...
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "session.test.mysql.url", matches = ".+")
+class SessionPartitionPruningTest {
+
+    private static final LocalDateTime BEFORE = LocalDateTime.of(2026, 3, 1, 0, 0);
+
+    private static JdbcTemplate jdbcTemplate;
+    private static NamedParameterJdbcTemplate namedTemplate;
+
+    @BeforeAll
+    static void createTable() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(System.getProperty("session.test.mysql.url"),
+                System.getProperty("session.test.mysql.user", ""), System.getProperty("session.test.mysql.password", "")));
+        namedTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        assumeTrue(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE()"
+                + " AND TABLE_NAME = 'TBL_SESSION'", Integer.class) == 0, "the schema already has a TBL_SESSION");
+        jdbcTemplate.execute("CREATE TABLE TBL_SESSION ("
+                + " SESSION_ID INT NOT NULL AUTO_INCREMENT,"
+                + " SESSION_TOKEN_HASH BINARY(32),"
+                + " ACTIVE_FLAG BIT(1),"
+                + " STATUS VARCHAR(20),"
+                + " CREATED_DATE DATETIME(6) NOT NULL,"
+                + " EXPIRES_AT DATETIME(6),"
+                + " PRIMARY KEY (SESSION_ID, CREATED_DATE),"
+                + " INDEX IDX_SESSION_TOKEN_HASH (SESSION_TOKEN_HASH),"
+                + " INDEX IDX_SESSION_ACTIVE_EXPIRES (ACTIVE_FLAG, EXPIRES_AT))"
+                + " PARTITION BY RANGE COLUMNS (CREATED_DATE) ("
+                + " PARTITION p202601 VALUES LESS THAN ('2026-02-01'),"
+                + " PARTITION p202602 VALUES LESS THAN ('2026-03-01'),"
+                + " PARTITION p202603 VALUES LESS THAN ('2026-04-01'),"
+                + " PARTITION p_future VALUES LESS THAN (MAXVALUE))");
+    }
+
+    @AfterAll
+    static void dropTable() {
+        if (jdbcTemplate != null) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS TBL_SESSION");
+        }
+    }
+
+    @Test
+    void purgeRangeOnlyReadsMonthsBeforeTheCutoff() {
+        assertThat(partitions("EXPLAIN SELECT MIN(SESSION_ID), MAX(SESSION_ID) FROM TBL_SESSION WHERE " + SessionRepository.PURGEABLE))
+                .isEqualTo("p202601,p202602");
+    }
+
+    @Test
+    void purgeDeleteOnlyReadsMonthsBeforeTheCutoff() {
+        assertThat(partitions("EXPLAIN DELETE FROM TBL_SESSION WHERE SESSION_ID BETWEEN :fromId AND :toId AND " + SessionRepository.PURGEABLE))
+                .isEqualTo("p202601,p202602");
+    }
+
+    // the documented trade-off: nothing in a token lookup bounds CREATED_DATE
+    @Test
+    void tokenLookupProbesEveryPartition() {
+        assertThat(partitions("EXPLAIN SELECT SESSION_ID FROM TBL_SESSION WHERE SESSION_TOKEN_HASH = UNHEX(REPEAT('00', 32)) AND ACTIVE_FLAG = 1"))
+                .isEqualTo("p202601,p202602,p202603,p_future");
+    }
+
+    @Test
+    void dropKeepsExactlyWhatThePurgeKeeps() {
+        LocalDateTime created = LocalDateTime.of(2026, 1, 10, 12, 0);
+        LocalDateTime expired = LocalDateTime.of(2026, 1, 11, 12, 0);
+        // each of these is left alone by the purge, so each has to keep the partition
+        List<Object[]> stragglers = List.of(
+                new Object[]{true, "ACTIVE", expired},
+                new Object[]{false, "REVOKED", null},
+                new Object[]{null, "REVOKED", expired},
+                new Object[]{true, null, expired},
+                new Object[]{false, "REVOKED", LocalDateTime.of(2026, 3, 2, 0, 0)});
+        for (Object[] straggler : stragglers) {
+            jdbcTemplate.update("DELETE FROM TBL_SESSION");
+            insert(created, false, "REVOKED", expired);
+            assertThat(kept("p202601")).isFalse();
+
+            insert(created, (Boolean) straggler[0], (String) straggler[1], (LocalDateTime) straggler[2]);
+            assertThat(kept("p202601")).as("%s %s %s", straggler).isTrue();
+            assertThat(namedTemplate.update("DELETE FROM TBL_SESSION WHERE SESSION_ID BETWEEN :fromId AND :toId AND "
+                    + SessionRepository.PURGEABLE, params())).as("%s %s %s", straggler).isEqualTo(1);
+            assertThat(kept("p202601")).as("%s %s %s", straggler).isTrue();
+        }
+    }
+
+    private void insert(LocalDateTime created, Boolean active, String status, LocalDateTime expiresAt) {
+        jdbcTemplate.update("INSERT INTO TBL_SESSION (ACTIVE_FLAG, STATUS, CREATED_DATE, EXPIRES_AT) VALUES (?, ?, ?, ?)",
+                active, status, created, expiresAt);
+    }
+
+    private boolean kept(String partition) {
+        return !namedTemplate.queryForList(SessionPartitionManager.keptRows(partition), params(), Integer.class).isEmpty();
+    }
+
+    private String partitions(String explain) {
+        List<Map<String, Object>> plan = namedTemplate.queryForList(explain, params());
+        return (String) plan.get(0).get("partitions");
+    }
+
+    private static Map<String, Object> params() {
+        return Map.of("before", BEFORE, "fromId", 0, "toId", Integer.MAX_VALUE);
+    }
+}
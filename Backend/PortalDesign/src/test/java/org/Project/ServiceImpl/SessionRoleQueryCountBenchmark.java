@@ -0,0 +1,161 @@
+package org.Project.ServiceImpl;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Table;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.stat.Statistics;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Counts the SQL statements the create, validate and list paths issue with the old role mapping (an EAGER
+ * {@code @ElementCollection} on a child table) and with the interned role-set id column that replaced it, run outside the
+ * application against a scratch MySQL schema:
+ * <pre>
+ * mvn test-compile
+ * java -cp target/classes:target/test-classes:$(cat cp.txt) org.Project.ServiceImpl.SessionRoleQueryCountBenchmark \
+ *      &lt;jdbc-url&gt; &lt;user&gt; &lt;password&gt; [sessions=200] [roles=3] [page=50]
+ * </pre>
+ * where cp.txt comes from {@code mvn dependency:build-classpath -Dmdep.outputFile=cp.txt -Dmdep.includeScope=test}.
+ * Both layouts are created in their own BENCH_ tables and dropped afterwards. Counts are Hibernate's prepared statements per
+ * create, per validate and per listed page, the role-set layout resolving ids from an in-memory map the way
+ * {@link RoleSetRegistry} does.
+ */
+public class SessionRoleQueryCountBenchmark {
+
+    @Entity(name = "CollectionSession")
+    @Table(name = "BENCH_SESSION_COLLECTION")
+    static class CollectionSession {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Integer sessionId;
+
+        @Column(columnDefinition = "BINARY(32)")
+        byte[] sessionTokenHash;
+
+        String userName;
+
+        @ElementCollection(fetch = FetchType.EAGER)
+        @CollectionTable(name = "BENCH_SESSION_ROLES", joinColumns = @JoinColumn(name = "SESSION_ID"))
+        @Column(name = "ROLE_NAME")
+        List<String> roleName = new ArrayList<>();
+
+        LocalDateTime createdDate;
+    }
+
+    @Entity(name = "RoleSetSession")
+    @Table(name = "BENCH_SESSION_ROLE_SET")
+    static class RoleSetSession {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Integer sessionId;
+
+        @Column(columnDefinition = "BINARY(32)")
+        byte[] sessionTokenHash;
+
+        String userName;
+
+        Integer roleSetId;
+
+        LocalDateTime createdDate;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("usage: SessionRoleQueryCountBenchmark <jdbc-url> <user> <password> [sessions] [roles] [page]");
+            System.exit(2);
+        }
+        int sessions = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+        int roles = args.length > 4 ? Integer.parseInt(args[4]) : 3;
+        int page = args.length > 5 ? Integer.parseInt(args[5]) : 50;
+
+        Configuration configuration = new Configuration()
+                .addAnnotatedClass(CollectionSession.class)
+                .addAnnotatedClass(RoleSetSession.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, args[0])
+                .setProperty(AvailableSettings.JAKARTA_JDBC_USER, args[1])
+                .setProperty(AvailableSettings.JAKARTA_JDBC_PASSWORD, args[2])
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.GENERATE_STATISTICS, "true");
+        List<String> roleNames = new ArrayList<>();
+        for (int r = 0; r < roles; r++) {
+            roleNames.add("ROLE_" + r);
+        }
+        Map<Integer, List<String>> roleSets = new HashMap<>(Map.of(1, List.copyOf(roleNames)));
+        List<byte[]> hashes = new ArrayList<>();
+        SecureRandom random = new SecureRandom();
+        for (int i = 0; i < sessions; i++) {
+            byte[] hash = new byte[32];
+            random.nextBytes(hash);
+            hashes.add(hash);
+        }
+
+        try (SessionFactory factory = configuration.buildSessionFactory()) {
+            Statistics statistics = factory.getStatistics();
+            System.out.printf("sessions=%d roles=%d page=%d%n", sessions, roles, page);
+            System.out.printf("%-10s %22s %22s%n", "path", "element collection", "role-set id");
+
+            long oldCreate = count(factory, statistics, s -> hashes.forEach(hash -> {
+                CollectionSession session = new CollectionSession();
+                session.sessionTokenHash = hash;
+                session.userName = "bench";
+                session.roleName = new ArrayList<>(roleNames);
+                session.createdDate = LocalDateTime.now();
+                s.persist(session);
+            }));
+            long newCreate = count(factory, statistics, s -> hashes.forEach(hash -> {
+                RoleSetSession session = new RoleSetSession();
+                session.sessionTokenHash = hash;
+                session.userName = "bench";
+                session.roleSetId = 1;
+                session.createdDate = LocalDateTime.now();
+                s.persist(session);
+            }));
+            print("create", oldCreate / (double) sessions, newCreate / (double) sessions);
+
+            long oldValidate = count(factory, statistics, s -> hashes.forEach(hash -> s.createQuery(
+                    "select s from CollectionSession s where s.sessionTokenHash = :hash", CollectionSession.class)
+                    .setParameter("hash", hash).getSingleResult().roleName.size()));
+            long newValidate = count(factory, statistics, s -> hashes.forEach(hash -> roleSets.get(s.createQuery(
+                    "select s from RoleSetSession s where s.sessionTokenHash = :hash", RoleSetSession.class)
+                    .setParameter("hash", hash).getSingleResult().roleSetId).size()));
+            print("validate", oldValidate / (double) sessions, newValidate / (double) sessions);
+
+            long oldList = count(factory, statistics, s -> s.createQuery(
+                    "select s from CollectionSession s order by s.createdDate desc, s.sessionId desc", CollectionSession.class)
+                    .setMaxResults(page).getResultList().forEach(session -> session.roleName.size()));
+            long newList = count(factory, statistics, s -> s.createQuery(
+                    "select s from RoleSetSession s order by s.createdDate desc, s.sessionId desc", RoleSetSession.class)
+                    .setMaxResults(page).getResultList().forEach(session -> roleSets.get(session.roleSetId).size()));
+            print("list page", oldList, newList);
+        }
+    }
+
+    // each path in a fresh Session and transaction, so nothing is answered from an earlier path's first-level cache
+    private static long count(SessionFactory factory, Statistics statistics, Consumer<Session> work) {
+        statistics.clear();
+        factory.inTransaction(work);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static void print(String path, double collection, double roleSet) {
+        System.out.printf("%-10s %22.1f %22.1f%n", path, collection, roleSet);
+    }
+}
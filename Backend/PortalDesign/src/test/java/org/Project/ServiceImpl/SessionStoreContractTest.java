@@ -0,0 +1,232 @@
+package org.Project.ServiceImpl;
+
+import org.Project.Entity.Sessions;
+import org.Project.Repository.SessionStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * What every {@link SessionStore} has to do the same way, whatever keeps the sessions: one subclass per store supplies an empty
+ * store and the tests here run against it.
+ */
+abstract class SessionStoreContractTest {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // whole seconds, so a DATETIME column hands back what was written
+    protected final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    protected SessionStore store;
+
+    /** A store holding no sessions. */
+    protected abstract SessionStore emptyStore();
+
+    @BeforeEach
+    void setUpStore() {
+        store = emptyStore();
+    }
+
+    protected Sessions session(int userId, LocalDateTime expiresAt, String... roles) {
+        Sessions session = new Sessions();
+        byte[] tokenHash = new byte[32];
+        RANDOM.nextBytes(tokenHash);
+        session.setSessionTokenHash(tokenHash);
+        session.setUserId(userId);
+        session.setUserName("user" + userId);
+        session.setRoleName(new ArrayList<>(List.of(roles)));
+        session.setStatus(Sessions.SessionStatus.ACTIVE);
+        session.setActiveFlag(true);
+        session.setCreatedDate(now.minusMinutes(10));
+        session.setExpiresAt(expiresAt);
+        return session;
+    }
+
+    protected Sessions saved(int userId, LocalDateTime expiresAt, String... roles) {
+        return store.save(session(userId, expiresAt, roles));
+    }
+
+    @Test
+    void saveAssignsAnIdAndReadsHandOutCopies() {
+        Sessions session = saved(1, now.plusHours(1), "USER");
+
+        assertThat(session.getSessionId()).isNotNull();
+        Sessions read = store.findById(session.getSessionId()).orElseThrow();
+        read.setUserName("changed without saving");
+        assertThat(store.findById(session.getSessionId()).orElseThrow().getUserName()).isEqualTo("user1");
+        assertThat(store.findActiveByTokenHash(session.getSessionTokenHash()).orElseThrow().getRoleName()).containsExactly("USER");
+    }
+
+    @Test
+    void savingAStaleCopyFails() {
+        Integer sessionId = saved(1, now.plusHours(1)).getSessionId();
+        Sessions first = store.findById(sessionId).orElseThrow();
+        Sessions second = store.findById(sessionId).orElseThrow();
+
+        first.setIpAddress("10.0.0.1");
+        store.save(first);
+        second.setIpAddress("10.0.0.2");
+
+        assertThatThrownBy(() -> store.save(second)).isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(store.findById(sessionId).orElseThrow().getIpAddress()).isEqualTo("10.0.0.1");
+    }
+
+    @Test
+    void insertAllAssignsEveryId() {
+        List<Sessions> sessions = List.of(session(1, now.plusHours(1)), session(2, now.plusHours(1)), session(3, now.plusHours(1)));
+
+        store.insertAll(sessions);
+
+        assertThat(sessions).allSatisfy(session -> assertThat(store.findActiveById(session.getSessionId())).isPresent());
+        assertThat(sessions).extracting(Sessions::getSessionId).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void revokeByTokenHashIsOneConditionalWrite() {
+        Sessions session = saved(1, now.plusHours(1));
+
+        assertThat(store.revokeByTokenHash(session.getSessionTokenHash(), now, "tester")).isEqualTo(1);
+        assertThat(store.revokeByTokenHash(session.getSessionTokenHash(), now, "tester")).isZero();
+
+        assertThat(store.findActiveByTokenHash(session.getSessionTokenHash())).isEmpty();
+        Sessions revoked = store.findByTokenHash(session.getSessionTokenHash()).orElseThrow();
+        assertThat(revoked.getActiveFlag()).isFalse();
+        assertThat(revoked.getStatus()).isEqualTo(Sessions.SessionStatus.REVOKED);
+        assertThat(revoked.getRevokedBy()).isEqualTo("tester");
+        assertThat(revoked.getVersion()).isGreaterThan(session.getVersion());
+    }
+
+    @Test
+    void revokeActiveByIdsReturnsOnlyTheSessionsItChanged() {
+        Integer first = saved(1, now.plusHours(1)).getSessionId();
+        Integer second = saved(1, now.plusHours(1)).getSessionId();
+        store.revokeByIds(List.of(first), now, "tester");
+
+        assertThat(store.revokeActiveByIds(List.of(first, second), now, "tester")).containsExactly(second);
+        assertThat(store.findActiveExpiryByUserId(1)).isEmpty();
+    }
+
+    @Test
+    void extendActiveFoldsTheReplacedExpiryIntoSupersededUntil() {
+        LocalDateTime expiresAt = now.plusMinutes(5);
+        Integer sessionId = saved(1, expiresAt).getSessionId();
+
+        assertThat(store.extendActive(sessionId, now.plusHours(1), now, now)).isEqualTo(1);
+
+        Sessions extended = store.findActiveById(sessionId).orElseThrow();
+        assertThat(extended.getExpiresAt()).isEqualTo(now.plusHours(1));
+        assertThat(extended.getSupersededUntil()).isEqualTo(expiresAt);
+        assertThat(extended.getLastSeenAt()).isEqualTo(now);
+        assertThat(store.findSupersededUnexpired(now)).singleElement()
+                .satisfies(row -> assertThat(row[0]).isEqualTo(sessionId));
+    }
+
+    @Test
+    void extendActiveLeavesExpiredAndRevokedSessionsAlone() {
+        Integer expired = saved(1, now.minusMinutes(1)).getSessionId();
+        Integer revoked = saved(1, now.plusHours(1)).getSessionId();
+        store.revokeByIds(List.of(revoked), now, "tester");
+
+        assertThat(store.extendActive(expired, now.plusHours(1), now, now)).isZero();
+        assertThat(store.extendActive(revoked, now.plusHours(1), now, now)).isZero();
+        assertThat(store.findById(expired).orElseThrow().getExpiresAt()).isEqualTo(now.minusMinutes(1));
+    }
+
+    @Test
+    void expireByIdsOnlyExpiresActiveSessionsPastTheirExpiry() {
+        Integer due = saved(1, now.minusMinutes(1)).getSessionId();
+        Integer notDue = saved(1, now.plusHours(1)).getSessionId();
+        Integer revoked = saved(1, now.minusMinutes(1)).getSessionId();
+        store.revokeByIds(List.of(revoked), now, "tester");
+
+        assertThat(store.expireByIds(List.of(due, notDue, revoked), now)).containsExactly(due);
+        assertThat(store.findById(due).orElseThrow().getStatus()).isEqualTo(Sessions.SessionStatus.EXPIRED);
+        assertThat(store.findById(revoked).orElseThrow().getStatus()).isEqualTo(Sessions.SessionStatus.REVOKED);
+    }
+
+    @Test
+    void touchOnlyMovesLastSeenForward() {
+        Integer sessionId = saved(1, now.plusHours(1)).getSessionId();
+
+        assertThat(store.touch(Map.of(sessionId, now))).isEqualTo(1);
+        assertThat(store.touch(Map.of(sessionId, now.minusMinutes(1)))).isZero();
+
+        assertThat(store.findById(sessionId).orElseThrow().getLastSeenAt()).isEqualTo(now);
+    }
+
+    @Test
+    void revokedUnexpiredListsClosedSessionsWhoseTokensAreStillAhead() {
+        Integer revoked = saved(1, now.plusHours(1)).getSessionId();
+        Integer revokedPast = saved(1, now.minusMinutes(1)).getSessionId();
+        saved(1, now.plusHours(1));
+        store.revokeByIds(List.of(revoked, revokedPast), now, "tester");
+
+        assertThat(store.findRevokedUnexpired(now)).extracting(row -> row[0]).containsExactly(revoked);
+    }
+
+    @Test
+    void activeExpiryByRolePagesBySessionId() {
+        Integer first = saved(1, now.plusHours(1), "ADMIN", "USER").getSessionId();
+        saved(2, now.plusHours(1), "USER");
+        Integer third = saved(3, now.plusHours(1), "ADMIN").getSessionId();
+
+        assertThat(store.findActiveExpiryByRole("ADMIN", 0, 1)).extracting(row -> row[0]).containsExactly(first);
+        assertThat(store.findActiveExpiryByRole("ADMIN", first, 10)).extracting(row -> row[0]).containsExactly(third);
+    }
+
+    @Test
+    void listAfterSeeksByCreatedDateThenSessionId() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Sessions session = session(1, now.plusHours(1));
+            session.setCreatedDate(now.minusMinutes(i < 2 ? 1 : i));
+            ids.add(store.save(session).getSessionId());
+        }
+        store.revokeByIds(List.of(ids.get(4)), now, "tester");
+
+        Slice<Sessions> first = store.listAfter(1, null, null, true, null, null, PageRequest.of(0, 2));
+        assertThat(first.getContent()).extracting(Sessions::getSessionId).containsExactly(ids.get(1), ids.get(0));
+        assertThat(first.hasNext()).isTrue();
+        Sessions last = first.getContent().get(1);
+        Slice<Sessions> second = store.listAfter(1, null, null, true, last.getCreatedDate(), last.getSessionId(), PageRequest.of(0, 2));
+        assertThat(second.getContent()).extracting(Sessions::getSessionId).containsExactly(ids.get(2), ids.get(3));
+        assertThat(second.hasNext()).isFalse();
+
+        assertThat(store.count(1, null, null, true)).isEqualTo(4);
+        assertThat(store.count(null, "user1", Sessions.SessionStatus.REVOKED, null)).isEqualTo(1);
+    }
+
+    @Test
+    void purgeDeletesOnlyClosedSessionsPastTheCutoff() {
+        LocalDateTime before = now.minusDays(1);
+        Sessions old = session(1, before.minusDays(1));
+        old.setCreatedDate(before.minusDays(2));
+        Integer closedOld = store.save(old).getSessionId();
+        store.revokeByIds(List.of(closedOld), now, "tester");
+        Sessions stale = session(1, before.minusDays(1));
+        stale.setCreatedDate(before.minusDays(2));
+        Integer activeOld = store.save(stale).getSessionId();
+        Integer closedRecent = saved(1, now.minusMinutes(1)).getSessionId();
+        store.revokeByIds(List.of(closedRecent), now, "tester");
+
+        SessionStore.PurgeResult result = store.purge(before);
+
+        assertThat(result.ran()).isTrue();
+        assertThat(result.sessionsDeleted()).isEqualTo(1);
+        assertThat(store.findById(closedOld)).isEmpty();
+        assertThat(store.findById(activeOld)).isPresent();
+        assertThat(store.findById(closedRecent)).isPresent();
+    }
+}
@@ -0,0 +1,141 @@
+package org.Project.ServiceImpl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.Project.Entity.Sessions;
+import org.Project.Repository.SessionStore;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Operations per second of the memory store and the JPA store under the same mix: mostly lookups by token digest, with an
+ * extend every 20th operation and a create plus revoke every 100th. The JPA store runs in a minimal Spring context against a
+ * scratch MySQL schema; Hibernate creates its tables and drops them again:
+ * <pre>
+ * mvn test-compile
+ * java -cp target/classes:target/test-classes:$(cat cp.txt) org.Project.ServiceImpl.SessionStoreThroughputBenchmark \
+ *      [&lt;jdbc-url&gt; &lt;user&gt; &lt;password&gt;] [threads=8] [seconds=20] [sessions=10000]
+ * </pre>
+ * where cp.txt comes from {@code mvn dependency:build-classpath -Dmdep.outputFile=cp.txt -Dmdep.includeScope=test}. Without
+ * a JDBC URL only the memory store is measured. Each store gets a warm-up run of the same length that is not reported.
+ */
+public class SessionStoreThroughputBenchmark {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan("org.Project.Entity")
+    @EnableJpaRepositories("org.Project.Repository")
+    @Import({JpaSessionStore.class, SessionBatchInserter.class, SessionPurger.class, SessionPartitionManager.class,
+            RoleSetRegistry.class, ClusterLock.class})
+    static class JpaContext {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean jpa = args.length >= 3 && args[0].startsWith("jdbc:");
+        int first = jpa ? 3 : 0;
+        int threads = args.length > first ? Integer.parseInt(args[first]) : 8;
+        int seconds = args.length > first + 1 ? Integer.parseInt(args[first + 1]) : 20;
+        int sessions = args.length > first + 2 ? Integer.parseInt(args[first + 2]) : 10000;
+        System.out.printf("threads=%d seconds=%d sessions=%d%n", threads, seconds, sessions);
+        System.out.printf("%-8s %14s %14s%n", "store", "ops/s", "extends/s");
+
+        run("memory", new InMemorySessionStore(), threads, seconds, sessions);
+        if (jpa) {
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(JpaContext.class)
+                    .web(WebApplicationType.NONE)
+                    .properties("spring.datasource.url=" + args[0], "spring.datasource.username=" + args[1],
+                            "spring.datasource.password=" + args[2], "spring.jpa.hibernate.ddl-auto=create-drop",
+                            "spring.datasource.hikari.maximum-pool-size=" + (threads + 2))
+                    .run()) {
+                run("jpa", context.getBean(JpaSessionStore.class), threads, seconds, sessions);
+            }
+        }
+    }
+
+    private static void run(String name, SessionStore store, int threads, int seconds, int sessions) throws InterruptedException {
+        List<byte[]> tokenHashes = new ArrayList<>(sessions);
+        List<Integer> sessionIds = new ArrayList<>(sessions);
+        List<Sessions> batch = new ArrayList<>();
+        for (int i = 0; i < sessions; i++) {
+            batch.add(session(i % 500));
+            if (batch.size() == 1000 || i == sessions - 1) {
+                store.insertAll(batch);
+                batch.forEach(session -> {
+                    tokenHashes.add(session.getSessionTokenHash());
+                    sessionIds.add(session.getSessionId());
+                });
+                batch.clear();
+            }
+        }
+        measure(store, threads, seconds, tokenHashes, sessionIds);
+        long[] result = measure(store, threads, seconds, tokenHashes, sessionIds);
+        System.out.printf("%-8s %14.0f %14.0f%n", name, result[0] / (double) seconds, result[1] / (double) seconds);
+    }
+
+    private static long[] measure(SessionStore store, int threads, int seconds, List<byte[]> tokenHashes, List<Integer> sessionIds)
+            throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        LongAdder extended = new LongAdder();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            Thread.ofPlatform().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                while (System.nanoTime() < deadline) {
+                    int pick = random.nextInt(tokenHashes.size());
+                    LocalDateTime now = LocalDateTime.now();
+                    if (count % 100 == 99) {
+                        Sessions created = store.save(session(random.nextInt(500)));
+                        store.revokeByTokenHash(created.getSessionTokenHash(), now, "benchmark");
+                    } else if (count % 20 == 19) {
+                        extended.add(store.extendActive(sessionIds.get(pick), now.plusHours(1), now, now));
+                    } else {
+                        store.findActiveByTokenHash(tokenHashes.get(pick));
+                    }
+                    count++;
+                }
+                operations.add(count);
+                done.countDown();
+            });
+        }
+        done.await();
+        return new long[]{operations.sum(), extended.sum()};
+    }
+
+    private static Sessions session(int userId) {
+        Sessions session = new Sessions();
+        byte[] tokenHash = new byte[32];
+        RANDOM.nextBytes(tokenHash);
+        session.setSessionTokenHash(tokenHash);
+        session.setUserId(userId);
+        session.setUserName("bench" + userId);
+        session.setRoleName(new ArrayList<>(List.of("USER")));
+        session.setStatus(Sessions.SessionStatus.ACTIVE);
+        session.setActiveFlag(true);
+        session.setCreatedDate(LocalDateTime.now());
+        session.setExpiresAt(LocalDateTime.now().plusHours(1));
+        return session;
+    }
+}
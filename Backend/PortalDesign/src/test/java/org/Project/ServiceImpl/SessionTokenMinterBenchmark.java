@@ -0,0 +1,91 @@
+package org.Project.ServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SessionTokenMinter} against the generator it replaced (String.format per byte on one shared SecureRandom), from one
+ * thread and from eight. {@code poolSize=0} disables the pool, so every token is drawn from a DRBG stripe on the caller's
+ * thread; run with {@code -prof gc} for the allocation rate per token:
+ * <pre>
+ * mvn test-compile
+ * java -cp target/classes:target/test-classes:$(cat cp.txt) org.openjdk.jmh.Main SessionTokenMinterBenchmark -prof gc
+ * </pre>
+ * where cp.txt comes from {@code mvn dependency:build-classpath -Dmdep.outputFile=cp.txt -Dmdep.includeScope=test}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionTokenMinterBenchmark {
+
+    private static final SecureRandom LEGACY_RANDOM = new SecureRandom();
+
+    @State(Scope.Benchmark)
+    public static class Minter {
+        @Param({"4096", "0"})
+        int poolSize;
+
+        SessionTokenMinter minter;
+
+        @Setup
+        public void setUp() {
+            minter = new SessionTokenMinter();
+            minter.meterRegistry = new SimpleMeterRegistry();
+            minter.poolSize = poolSize;
+            minter.refillBatch = 512;
+            minter.drbgStripes = 8;
+            minter.init();
+        }
+    }
+
+    // SessionServiceImpl.generateSessionToken before the minter
+    static String legacyToken() {
+        byte[] bytes = new byte[32];
+        LEGACY_RANDOM.nextBytes(bytes);
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String legacy() {
+        return legacyToken();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String legacyContended() {
+        return legacyToken();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String minter(Minter state) {
+        return state.minter.nextToken();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String minterContended(Minter state) {
+        return state.minter.nextToken();
+    }
+}
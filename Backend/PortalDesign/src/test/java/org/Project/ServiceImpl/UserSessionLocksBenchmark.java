@@ -0,0 +1,94 @@
+package org.Project.ServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link UserSessionLocks} under contention: eight threads each lock one user, do {@code work} tokens of CPU standing in for
+ * the revoke and insert, and complete the transaction, which releases the stripe. {@code stripes=1} is one global lock, the
+ * baseline the striping is measured against; {@code users} is how many distinct users the logins are spread over, from all on
+ * one user to little overlap. The transaction is only a registered synchronization, so no database is involved:
+ * <pre>
+ * mvn test-compile
+ * java -cp target/classes:target/test-classes:$(cat cp.txt) org.openjdk.jmh.Main UserSessionLocksBenchmark
+ * </pre>
+ * where cp.txt comes from {@code mvn dependency:build-classpath -Dmdep.outputFile=cp.txt -Dmdep.includeScope=test}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserSessionLocksBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Locks {
+        @Param({"1", "1024"})
+        int stripes;
+
+        @Param({"1", "64", "100000"})
+        int users;
+
+        @Param({"200"})
+        int work;
+
+        UserSessionLocks locks;
+        String[] userNames;
+
+        @Setup
+        public void setUp() {
+            locks = new UserSessionLocks();
+            locks.meterRegistry = new SimpleMeterRegistry();
+            locks.stripes = stripes;
+            locks.timeoutMs = 60_000;
+            locks.init();
+            userNames = new String[users];
+            for (int i = 0; i < users; i++) {
+                userNames[i] = "user" + i;
+            }
+        }
+    }
+
+    // one create or revoke: lock the user inside a transaction, do the work, complete the transaction
+    static void login(Locks state) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            state.locks.lockUntilCompletion(state.userNames[ThreadLocalRandom.current().nextInt(state.userNames.length)]);
+            Blackhole.consumeCPU(state.work);
+            TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                    TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void uncontended(Locks state) {
+        login(state);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void contended(Locks state) {
+        login(state);
+    }
+}
@@ -57,3 +57,19 @@ export async function revokeSession({ sessionToken, sessionId, revokedBy }) {
   if (!resp.ok) throw body || { message: "Revoke failed" };
   return body;
 }
+
+// EventSource cannot set headers, so it opens the stream with a one-time ticket instead of the session token
+export async function sessionEventsTicket(sessionToken) {
+  const resp = await fetch(`${API_BASE}/events-ticket`, {
+    method: "POST",
+    headers: { "Content-Type": "application/json" },
+    body: JSON.stringify({ sessionToken }),
+  });
+  const body = await safeJson(resp);
+  if (!resp.ok) throw body || { message: "Events ticket failed" };
+  return body;
+}
+
+export function sessionEventsUrl(ticket) {
+  return `${API_BASE}/events?ticket=${encodeURIComponent(ticket)}`;
+}
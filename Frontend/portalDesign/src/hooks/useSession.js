@@ -6,6 +6,8 @@ const TOKEN_KEY = "sessionToken";
 const REFRESH_INTERVAL_MS = 1000 * 60 * 10; // 10 minutes
 const DEFAULT_TTL = 60 * 24;
 const VALIDATE_COOLDOWN_MS = 4000; // don't revalidate more than once every 4s
+const RENEW_BEFORE_EXPIRY_MS = 1000 * 60 * 30; // with a live event stream, only refresh when expiry gets this close
+const EVENTS_RETRY_MS = 1000 * 30;
 
 function loadToken() {
   try {
@@ -252,12 +254,79 @@ export function useSession() {
     // eslint-disable-next-line react-hooks/exhaustive-deps
   }, []);
 
+  // server push: revoke/expire end the session here, extend updates expiresAt.
+  // While the stream is open the periodic tick below skips refreshes that are not needed to keep the session alive.
+  const eventsConnectedRef = useRef(false);
+  useEffect(() => {
+    if (!token || typeof EventSource === "undefined") return;
+    let source = null;
+    let retryId = null;
+    let closed = false;
+
+    const endSession = () => {
+      persistToken(null);
+      persistSessionObj(null);
+    };
+    const retry = () => {
+      if (closed) return;
+      retryId = setTimeout(async () => {
+        if (closed) return;
+        const validated = await validate({ force: true });
+        if (validated && !closed) connect();
+      }, EVENTS_RETRY_MS);
+    };
+    const connect = async () => {
+      let ticket;
+      try {
+        ({ ticket } = await api.sessionEventsTicket(token));
+      } catch {
+        retry();
+        return;
+      }
+      if (closed) return;
+      source = new EventSource(api.sessionEventsUrl(ticket));
+      source.onopen = () => {
+        eventsConnectedRef.current = true;
+      };
+      source.addEventListener("revoked", endSession);
+      source.addEventListener("expired", endSession);
+      source.addEventListener("extended", (e) => {
+        try {
+          const data = JSON.parse(e.data);
+          const current = sessionRef.current;
+          if (current && data?.expiresAt) {
+            persistSessionObj({ ...current, expiresAt: data.expiresAt });
+          }
+        } catch {}
+      });
+      source.onerror = () => {
+        // the server closes the stream after a terminal event or when we fall behind; reconnect after a pause and
+        // revalidate, since events sent while disconnected are lost
+        eventsConnectedRef.current = false;
+        source.close();
+        retry();
+      };
+    };
+    connect();
+    return () => {
+      closed = true;
+      eventsConnectedRef.current = false;
+      if (retryId) clearTimeout(retryId);
+      if (source) source.close();
+    };
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, [token]);
+
   // periodic refresh
   useEffect(() => {
     const tick = async () => {
       const t = loadToken();
       if (!t) return;
       if (document.hidden) return;
+      if (eventsConnectedRef.current) {
+        const expiresAt = Date.parse(sessionRef.current?.expiresAt ?? "");
+        if (Number.isFinite(expiresAt) && expiresAt - Date.now() > RENEW_BEFORE_EXPIRY_MS) return;
+      }
       try {
         await refresh(undefined);
       } catch (e) {